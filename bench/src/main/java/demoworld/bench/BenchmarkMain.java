@@ -0,0 +1,28 @@
+package demoworld.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the gc profiler always attached, so every result reports its
+ * allocation rate next to its throughput. Takes the same arguments as the JMH command line
+ */
+public class BenchmarkMain {
+
+    /**
+     * Runs the benchmarks selected by the given JMH arguments, all of them if there are none
+     * @param args JMH command line arguments
+     * @throws RunnerException if a benchmark fails
+     * @throws CommandLineOptionException if the arguments can not be parsed
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
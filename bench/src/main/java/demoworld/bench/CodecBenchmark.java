@@ -0,0 +1,70 @@
+package demoworld.bench;
+
+import demoworld.NpcGenerator;
+import demoworld.codec.CharacterCodec;
+import demoworld.model.Character;
+import demoworld.model.DemoWorld;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures encoding a character into a reused buffer and decoding it again
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+    private CharacterCodec codec;
+    private Character character;
+    private ByteBuffer buffer;
+    private ByteBuffer encoded;
+
+    /**
+     * Generates a fully built character and encodes it once for the decode benchmark
+     */
+    @Setup
+    public void setUp() {
+        DemoWorld rulebook = new DemoWorld();
+        codec = new CharacterCodec(rulebook);
+        character = new NpcGenerator(rulebook).generate("bench", new SplittableRandom(42));
+        buffer = ByteBuffer.allocate(4096);
+        encoded = ByteBuffer.wrap(codec.encode(character));
+    }
+
+    /**
+     * Encodes the character into a reused buffer
+     * @return the number of bytes written
+     */
+    @Benchmark
+    public int encode() {
+        buffer.clear();
+        codec.encode(character, buffer);
+        return buffer.position();
+    }
+
+    /**
+     * Decodes the character
+     * @return the decoded character
+     */
+    @Benchmark
+    public Character decode() {
+        encoded.rewind();
+        return codec.decode(encoded);
+    }
+}
@@ -0,0 +1,61 @@
+package demoworld.bench;
+
+import demoworld.model.Character;
+import demoworld.model.Feature;
+import demoworld.model.PrimaryStat;
+import demoworld.model.RuleBook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures filtering the feature catalog down to what a character meets the requirements for,
+ * for catalogs of different sizes
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    private int features;
+
+    private RuleBook rulebook;
+    private Character character;
+
+    /**
+     * Creates the catalog and a character with a middling stat spread
+     */
+    @Setup
+    public void setUp() {
+        rulebook = new SyntheticRuleBook(features, 42);
+        character = new Character("bench", rulebook);
+        List<PrimaryStat> primaryStats = character.getStat().primaries();
+        for (int i = 0; i < primaryStats.size(); i++) {
+            primaryStats.get(i).setCurrentBase(i - 2);
+        }
+    }
+
+    /**
+     * Filters the feature catalog
+     * @return the features the character meets the requirements for
+     */
+    @Benchmark
+    public List<Feature> getFeaturesFilteredByRequirements() {
+        return rulebook.getFeaturesFilteredByRequirements(character);
+    }
+}
@@ -0,0 +1,61 @@
+package demoworld.bench;
+
+import demoworld.model.Character;
+import demoworld.model.DemoWorld;
+import demoworld.model.Requirement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures checking a single Requirement against a character
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequirementBenchmark {
+
+    private Character character;
+    private Requirement passing;
+    private Requirement missingStat;
+
+    /**
+     * Creates a DemoWorld character and two requirements, one on an existing stat and one that is not
+     */
+    @Setup
+    public void setUp() {
+        character = new Character("bench", new DemoWorld());
+        passing = new Requirement("analytical", "analytical", 0);
+        missingStat = new Requirement("charisma", "charisma", 0);
+    }
+
+    /**
+     * Checks a requirement on a stat the character has
+     * @return the result of the check
+     */
+    @Benchmark
+    public boolean check() {
+        return passing.check(character);
+    }
+
+    /**
+     * Checks a requirement on a stat the character does not have
+     * @return the result of the check
+     */
+    @Benchmark
+    public boolean checkMissingStat() {
+        return missingStat.check(character);
+    }
+}
@@ -0,0 +1,106 @@
+package demoworld.bench;
+
+import demoworld.model.DemoWorld;
+import demoworld.model.RuleBook;
+import demoworld.rulebook.RuleBookSnapshot;
+import demoworld.rulebook.RulesFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures constructing rulebooks, DemoWorld itself and synthetic catalogs of different sizes, and loading the
+ * synthetic catalogs back from a rules file and from a compiled snapshot
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleBookBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    private int features;
+
+    private Path directory;
+    private Path rules;
+    private Path snapshot;
+
+    /**
+     * Writes the synthetic rulebook as a rules file and as a snapshot into a scratch directory
+     * @throws IOException if the files can not be written
+     */
+    @Setup
+    public void setUp() throws IOException {
+        RuleBook rulebook = new SyntheticRuleBook(features, 42);
+        directory = Files.createTempDirectory("rulebook-bench");
+        rules = directory.resolve("bench.rules");
+        snapshot = directory.resolve("bench.snapshot");
+        RulesFile.write(rulebook, rules);
+        RuleBookSnapshot.write(rulebook, snapshot);
+    }
+
+    /**
+     * Removes the scratch directory
+     * @throws IOException if it can not be removed
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(rules);
+        Files.deleteIfExists(snapshot);
+        Files.deleteIfExists(directory);
+    }
+
+    /**
+     * Constructs the DemoWorld rulebook
+     * @return the rulebook
+     */
+    @Benchmark
+    public RuleBook demoWorld() {
+        return new DemoWorld();
+    }
+
+    /**
+     * Constructs a synthetic rulebook with the parameterised number of features
+     * @return the rulebook
+     */
+    @Benchmark
+    public RuleBook synthetic() {
+        return new SyntheticRuleBook(features, 42);
+    }
+
+    /**
+     * Reads the synthetic rulebook from its rules file
+     * @return the rulebook
+     * @throws IOException if the file can not be read
+     */
+    @Benchmark
+    public RuleBook rulesFile() throws IOException {
+        return RulesFile.read(rules);
+    }
+
+    /**
+     * Loads the synthetic rulebook from its compiled snapshot
+     * @return the rulebook
+     * @throws IOException if the file can not be read
+     */
+    @Benchmark
+    public RuleBook snapshot() throws IOException {
+        return RuleBookSnapshot.load(snapshot);
+    }
+}
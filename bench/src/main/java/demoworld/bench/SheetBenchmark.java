@@ -0,0 +1,104 @@
+package demoworld.bench;
+
+import demoworld.NpcGenerator;
+import demoworld.model.Character;
+import demoworld.model.DemoWorld;
+import demoworld.model.SheetRenderer;
+import demoworld.scribe.Scribe;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures rendering a character sheet and writing it out through the Scribe
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SheetBenchmark {
+
+    private Character character;
+    private String sheet;
+    private Path directory;
+    private String filename;
+    private ByteBuffer buffer;
+    private PrintStream out;
+
+    /**
+     * Generates a fully built character and a scratch directory for the sheets.
+     * The Scribe writes relative to the working directory, so the scratch directory is made there.
+     * The Scribe also prints a line for every file it writes, so standard output is silenced until tear down
+     * to keep the console out of the measurement
+     * @throws IOException if the scratch directory can not be created
+     */
+    @Setup
+    public void setUp() throws IOException {
+        character = new NpcGenerator(new DemoWorld()).generate("bench", new SplittableRandom(42));
+        sheet = character.toString();
+        directory = Files.createTempDirectory(Paths.get("."), "sheet-bench");
+        filename = directory.getFileName() + "/bench";
+        buffer = ByteBuffer.allocate(1 << 16);
+        out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    /**
+     * Restores standard output and removes the scratch directory
+     * @throws IOException if it can not be removed
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        System.setOut(out);
+        Files.deleteIfExists(directory.resolve("bench.sheet"));
+        Files.deleteIfExists(directory);
+    }
+
+    /**
+     * Renders the character sheet
+     * @return the sheet
+     */
+    @Benchmark
+    public String characterToString() {
+        return character.toString();
+    }
+
+    /**
+     * Renders the character sheet as UTF-8 into a reused buffer
+     * @return the number of bytes written
+     */
+    @Benchmark
+    public int renderToBuffer() {
+        buffer.clear();
+        SheetRenderer.render(character, buffer);
+        return buffer.position();
+    }
+
+    /**
+     * Writes a rendered sheet to a file
+     */
+    @Benchmark
+    public void scribeWriteToFile() {
+        Scribe.writeToFile(filename, sheet, 43442148);
+    }
+}
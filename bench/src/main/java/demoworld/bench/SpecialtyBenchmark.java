@@ -0,0 +1,56 @@
+package demoworld.bench;
+
+import demoworld.model.Character;
+import demoworld.model.DemoWorld;
+import demoworld.model.Specialty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures applying and undoing a specialty, which runs every adjustment of every feature it holds
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpecialtyBenchmark {
+
+    private Character character;
+    private Specialty smith;
+
+    /**
+     * Creates a DemoWorld character and picks the smith specialty, which adjusts several stats
+     */
+    @Setup
+    public void setUp() {
+        DemoWorld rulebook = new DemoWorld();
+        character = new Character("bench", rulebook);
+        for (Specialty specialty : rulebook.getSpecialtiesReference()) {
+            if (specialty.getName().equals("smith")) {
+                smith = specialty;
+            }
+        }
+    }
+
+    /**
+     * Adjusts the character by the specialty and undoes it again
+     * @return the character
+     */
+    @Benchmark
+    public Character adjustUnadjust() {
+        smith.adjust(character);
+        return smith.unadjust(character);
+    }
+}
@@ -0,0 +1,78 @@
+package demoworld.bench;
+
+import demoworld.model.Character;
+import demoworld.model.DemoWorld;
+import demoworld.model.Stat;
+import demoworld.model.StatManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures looking up a Stat by name, when it exists and when it does not
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatManagerBenchmark {
+
+    private StatManager stats;
+    private String hit;
+    private String miss;
+    private int handle;
+
+    /**
+     * Creates the stats of a DemoWorld character. The names are copied so lookups can not
+     * short cut on identical String instances
+     */
+    @Setup
+    public void setUp() {
+        stats = new Character("bench", new DemoWorld()).getStat();
+        hit = new String("empathy");
+        miss = new String("charisma");
+        handle = stats.handle(hit);
+    }
+
+    /**
+     * Looks up the last primary stat by name
+     * @return the found stat
+     */
+    @Benchmark
+    public Stat byNameHit() {
+        return stats.byName(hit);
+    }
+
+    /**
+     * Looks up a stat that does not exist, which throws
+     * @return null, as the lookup always fails
+     */
+    @Benchmark
+    public Stat byNameMiss() {
+        try {
+            return stats.byName(miss);
+        } catch (IllegalStateException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Fetches the same stat through a handle resolved up front
+     * @return the found stat
+     */
+    @Benchmark
+    public Stat byHandle() {
+        return stats.get(handle);
+    }
+}
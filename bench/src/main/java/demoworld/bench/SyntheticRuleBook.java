@@ -0,0 +1,246 @@
+package demoworld.bench;
+
+import demoworld.model.Character;
+import demoworld.model.EligibilityIndex;
+import demoworld.model.Experience;
+import demoworld.model.Feature;
+import demoworld.model.FeatureManager;
+import demoworld.model.Hitpoints;
+import demoworld.model.PrimaryStat;
+import demoworld.model.Requirement;
+import demoworld.model.RequirementManager;
+import demoworld.model.RuleBook;
+import demoworld.model.Specialty;
+import demoworld.model.SpecialtyManager;
+import demoworld.model.Stat;
+import demoworld.model.StatManager;
+import demoworld.model.adjustments.MaxHpAdjustment;
+import demoworld.model.adjustments.MaxXpAdjustment;
+import demoworld.model.adjustments.StatAdjustment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * A rulebook with the DemoWorld stats and a generated catalog of any size, used to measure how the
+ * model scales with the number of features. Features get up to two requirements and up to two
+ * adjustments, specialties bundle three features, all picked from a fixed seed so every run of a
+ * benchmark sees the same catalog
+ */
+public class SyntheticRuleBook extends RuleBook {
+
+    private static final String[] PRIMARIES = {"force", "quickness", "resilience", "analytical", "empathy"};
+
+    private final SplittableRandom random;
+    private final int featureCount;
+    private final StatManager stats;
+    private final RequirementManager requirements;
+    private final FeatureManager features;
+    private final SpecialtyManager specialties;
+    private final Experience xp;
+    private final EligibilityIndex<Feature> featureEligibility;
+    private final EligibilityIndex<Specialty> specialtyEligibility;
+
+    /**
+     * Constructs a synthetic rulebook
+     * @param featureCount the number of features in the catalog
+     * @param seed the seed the catalog is generated from
+     */
+    public SyntheticRuleBook(int featureCount, long seed) {
+        this.random = new SplittableRandom(seed);
+        this.featureCount = featureCount;
+        this.xp = setCharacterStartingExperience();
+        this.stats = new StatManager();
+        for (Stat stat : createAndGetStats()) {
+            stats.add(stat);
+        }
+        this.requirements = new RequirementManager();
+        for (Requirement requirement : createAndGetRequirements()) {
+            requirements.add(requirement);
+        }
+        this.features = new FeatureManager();
+        for (Feature feature : createAndGetFeatures()) {
+            features.add(feature);
+        }
+        this.specialties = new SpecialtyManager();
+        for (Specialty specialty : createAndGetSpecialties()) {
+            specialties.add(specialty);
+        }
+        assignIds();
+        freeze();
+        this.featureEligibility = new EligibilityIndex<>(features.all(), Feature::getRequirementsView, stats);
+        this.specialtyEligibility = new EligibilityIndex<>(specialties.all(), Specialty::getRequirementsView, stats);
+    }
+
+    @Override
+    public String getName() {
+        return "synthetic " + featureCount;
+    }
+
+    @Override
+    public double getEdition() {
+        return 1.0;
+    }
+
+    @Override
+    public List<Feature> getFeaturesReference() {
+        return features.all();
+    }
+
+    @Override
+    public Experience getExperienceReference() {
+        return xp;
+    }
+
+    @Override
+    public int getFeaturePickCount() {
+        return 2;
+    }
+
+    @Override
+    public List<Integer> getStatSpreadReference() {
+        return new ArrayList<>(List.of(-2, -1, 0, 1, 2));
+    }
+
+    @Override
+    public List<Specialty> getSpecialtiesFilteredByRequirements(Character character) {
+        return specialtyEligibility.filter(character);
+    }
+
+    @Override
+    public List<Feature> getFeaturesFilteredByRequirements(Character character) {
+        return featureEligibility.filter(character);
+    }
+
+    @Override
+    public EligibilityIndex<Feature> getFeatureEligibility() {
+        return featureEligibility;
+    }
+
+    @Override
+    public EligibilityIndex<Specialty> getSpecialtyEligibility() {
+        return specialtyEligibility;
+    }
+
+    @Override
+    public List<Feature> getAdvantageFeatures(String check) {
+        return List.of();
+    }
+
+    @Override
+    protected List<Stat> createAndGetStats() {
+        List<Stat> created = new ArrayList<>();
+        for (String primary : PRIMARIES) {
+            created.add(new PrimaryStat(primary, "synthetic " + primary, -2, 5, 0));
+        }
+        created.add(setCharacterStartingHitpoints());
+        return created;
+    }
+
+    @Override
+    protected Hitpoints setCharacterStartingHitpoints() {
+        return new Hitpoints(6, 6);
+    }
+
+    @Override
+    protected Experience setCharacterStartingExperience() {
+        return new Experience(5, 0);
+    }
+
+    @Override
+    protected List<Feature> createAndGetFeatures() {
+        List<Feature> created = new ArrayList<>(featureCount);
+        for (int i = 0; i < featureCount; i++) {
+            Feature feature = new Feature("feature " + i, "synthetic feature " + i);
+            int requirementCount = random.nextInt(3);
+            for (int r = 0; r < requirementCount; r++) {
+                feature.addRequirement(randomRequirement());
+            }
+            int adjustmentCount = random.nextInt(3);
+            for (int a = 0; a < adjustmentCount; a++) {
+                switch (random.nextInt(4)) {
+                    case 0:
+                        feature.addAdjustment(new MaxHpAdjustment(1));
+                        break;
+                    case 1:
+                        feature.addAdjustment(new MaxXpAdjustment(-1));
+                        break;
+                    default:
+                        feature.addAdjustment(new StatAdjustment(randomPrimary(), random.nextBoolean() ? 1 : -2));
+                        break;
+                }
+            }
+            created.add(feature);
+        }
+        return created;
+    }
+
+    @Override
+    protected List<Specialty> createAndGetSpecialties() {
+        int specialtyCount = Math.max(5, featureCount / 100);
+        List<Specialty> created = new ArrayList<>(specialtyCount);
+        List<Feature> catalog = features.all();
+        for (int i = 0; i < specialtyCount; i++) {
+            Specialty specialty = new Specialty("specialty " + i, "synthetic specialty " + i);
+            for (int f = 0; f < 3 && !catalog.isEmpty(); f++) {
+                specialty.addFeature(catalog.get(random.nextInt(catalog.size())));
+            }
+            if (i > 0) {
+                specialty.addRequirement(randomRequirement());
+            }
+            created.add(specialty);
+        }
+        return created;
+    }
+
+    @Override
+    protected List<Requirement> createAndGetRequirements() {
+        List<Requirement> created = new ArrayList<>();
+        for (String primary : PRIMARIES) {
+            for (int threshold = -1; threshold <= 3; threshold++) {
+                created.add(new Requirement(primary + " " + threshold, primary, threshold));
+            }
+        }
+        return created;
+    }
+
+    @Override
+    protected StatManager getStat() {
+        return stats;
+    }
+
+    @Override
+    protected FeatureManager getFeature() {
+        return features;
+    }
+
+    @Override
+    protected SpecialtyManager getSpecialty() {
+        return specialties;
+    }
+
+    @Override
+    protected RequirementManager getRequirement() {
+        return requirements;
+    }
+
+    @Override
+    protected List<Stat> getStatReference() {
+        return stats.all();
+    }
+
+    @Override
+    public List<Specialty> getSpecialtiesReference() {
+        return specialties.all();
+    }
+
+    private Requirement randomRequirement() {
+        String primary = randomPrimary();
+        return requirements.byName(primary + " " + (random.nextInt(5) - 1));
+    }
+
+    private String randomPrimary() {
+        return PRIMARIES[random.nextInt(PRIMARIES.length)];
+    }
+}
@@ -0,0 +1,60 @@
+package demoworld.bench;
+
+import demoworld.model.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the clamping writes of a Value
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValueBenchmark {
+
+    private Value value;
+    private int next;
+
+    /**
+     * Creates a value with room on both sides of its current amount
+     */
+    @Setup
+    public void setUp() {
+        value = new Value(-100, 100, 0);
+    }
+
+    /**
+     * Sets the current amount, cycling through values inside and outside the boundaries
+     * @return the resulting current amount
+     */
+    @Benchmark
+    public int setCurrent() {
+        next = (next + 37) & 255;
+        value.setCurrent(next - 128);
+        return value.current();
+    }
+
+    /**
+     * Adds to the current amount, alternating direction so it keeps hitting both boundaries
+     * @return the resulting current amount
+     */
+    @Benchmark
+    public int addToCurrent() {
+        next++;
+        value.addToCurrent((next & 64) == 0 ? 7 : -7);
+        return value.current();
+    }
+}
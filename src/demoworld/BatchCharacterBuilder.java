@@ -0,0 +1,230 @@
+package demoworld;
+
+import demoworld.model.Character;
+import demoworld.model.Feature;
+import demoworld.model.PrimaryStat;
+import demoworld.model.RuleBook;
+import demoworld.model.Specialty;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Builds characters without prompting anyone, from build specs read one per line.
+ * A spec line holds four fields separated by {@code ;}
+ * <pre>
+ * name; force=2, quickness=1, resilience=0, analytical=-1, empathy=-2; smith; read, write
+ * </pre>
+ * The name, a value from the stat spread for every primary stat, the specialty and the picked features.
+ * Blank lines and lines starting with {@code #} are skipped. Every spec is checked against the same
+ * rules the interactive {@link CharacterBuilder} enforces, and specs are built in parallel in batches
+ * while the sheets are written out in input order
+ */
+public class BatchCharacterBuilder {
+    /**
+     * the number of specs read and built together before their sheets are written
+     */
+    private static final int BATCH_SIZE = 1024;
+    /**
+     * rulebook
+     */
+    private final RuleBook rulebook;
+    /**
+     * features of the rulebook by name
+     */
+    private final Map<String, Feature> features;
+    /**
+     * specialties of the rulebook by name
+     */
+    private final Map<String, Specialty> specialties;
+
+    /**
+     * Constructs a BatchCharacterBuilder for the given rulebook
+     *
+     * @param rulebook the rulebook the character builder will be using
+     */
+    public BatchCharacterBuilder(RuleBook rulebook) {
+        this.rulebook = rulebook;
+        this.features = new HashMap<>();
+        for (Feature feature : rulebook.getFeaturesReference()) {
+            features.putIfAbsent(feature.getName(), feature);
+        }
+        this.specialties = new HashMap<>();
+        for (Specialty specialty : rulebook.getSpecialtiesReference()) {
+            specialties.putIfAbsent(specialty.getName(), specialty);
+        }
+    }
+
+    /**
+     * Builds the character described by one spec line
+     *
+     * @param spec the spec line
+     * @return the built character
+     * @throws IllegalArgumentException if the spec is malformed or breaks the rulebooks rules
+     */
+    public Character build(String spec) throws IllegalArgumentException {
+        String[] fields = spec.split(";", -1);
+        if (fields.length != 4) {
+            throw new IllegalArgumentException("expected 4 fields separated by ';' but found "
+                    + fields.length);
+        }
+        String name = fields[0].trim();
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("the character needs a name");
+        }
+        Character character = new Character(name, rulebook);
+        allocateStats(character, fields[1]);
+        Specialty specialty = pickSpecialty(character, fields[2].trim());
+        pickFeatures(character, specialty, fields[3]);
+        return character;
+    }
+
+    /**
+     * Reads every spec from the input, builds them and writes each characters sheet to the output
+     * in input order. Specs that can not be built are reported to standard error and skipped
+     *
+     * @param in the spec lines
+     * @param out where the character sheets are written
+     * @return the number of characters built
+     * @throws IOException if reading the specs or writing the sheets fails
+     */
+    public long run(Reader in, Writer out) throws IOException {
+        BufferedReader reader = new BufferedReader(in);
+        List<String> batch = new ArrayList<>(BATCH_SIZE);
+        long lineNumber = 0;
+        long firstLineOfBatch = 1;
+        long built = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            batch.add(line);
+            if (batch.size() == BATCH_SIZE) {
+                built += buildBatch(batch, firstLineOfBatch, out);
+                batch.clear();
+                firstLineOfBatch = lineNumber + 1;
+            }
+        }
+        built += buildBatch(batch, firstLineOfBatch, out);
+        out.flush();
+        return built;
+    }
+
+    private long buildBatch(List<String> lines, long firstLine, Writer out) throws IOException {
+        Object[] results = new Object[lines.size()];
+        IntStream.range(0, lines.size()).parallel().forEach(i -> {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                return;
+            }
+            try {
+                results[i] = build(line).toString();
+            } catch (IllegalArgumentException e) {
+                results[i] = e;
+            }
+        });
+
+        long built = 0;
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] instanceof String) {
+                out.write((String) results[i]);
+                built++;
+            } else if (results[i] != null) {
+                System.err.println("Skipping spec on line " + (firstLine + i) + ": "
+                        + ((IllegalArgumentException) results[i]).getMessage());
+            }
+        }
+        return built;
+    }
+
+    private void allocateStats(Character character, String allocation) {
+        List<Integer> numbersToAllocate = rulebook.getStatSpreadReference();
+        Map<String, PrimaryStat> primaryStats = new HashMap<>();
+        for (PrimaryStat primaryStat : character.getStat().primaries()) {
+            primaryStats.put(primaryStat.name(), primaryStat);
+        }
+
+        for (String assignment : allocation.split(",")) {
+            String[] parts = assignment.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("stat allocation '" + assignment.trim()
+                        + "' should look like stat=value");
+            }
+            String statName = parts[0].trim();
+            PrimaryStat primaryStat = primaryStats.remove(statName);
+            if (primaryStat == null) {
+                throw new IllegalArgumentException(statName
+                        + " is not a primary stat or was allocated twice");
+            }
+            Integer value;
+            try {
+                value = Integer.valueOf(parts[1].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("'" + parts[1].trim() + "' is not a number");
+            }
+            if (!numbersToAllocate.remove(value)) {
+                throw new IllegalArgumentException(value + " is not left in the stat spread "
+                        + rulebook.getStatSpreadReference());
+            }
+            primaryStat.setCurrentBase(value);
+        }
+        if (!primaryStats.isEmpty()) {
+            throw new IllegalArgumentException("no value was allocated to " + primaryStats.keySet());
+        }
+    }
+
+    private Specialty pickSpecialty(Character character, String specialtyName) {
+        Specialty specialty = specialties.get(specialtyName);
+        if (specialty == null) {
+            throw new IllegalArgumentException(specialtyName + " is not a specialty");
+        }
+        if (!rulebook.getSpecialtiesFilteredByRequirements(character).contains(specialty)) {
+            throw new IllegalArgumentException("the character does not meet the requirements of "
+                    + specialtyName);
+        }
+        character.addSpecialty(specialty);
+        return specialty;
+    }
+
+    private void pickFeatures(Character character, Specialty pickedSpecialty, String picks) {
+        // same rules as the interactive builder: no doubling up on the specialties features
+        // and downed is never a pick
+        List<Feature> featuresRef = rulebook.getFeaturesFilteredByRequirements(character);
+        featuresRef.removeAll(pickedSpecialty.getFeaturesView());
+        featuresRef.removeIf(feature -> feature.getName().equals("downed"));
+
+        List<Feature> pickedFeatures = new ArrayList<>();
+        for (String pick : picks.split(",")) {
+            String featureName = pick.trim();
+            if (featureName.isEmpty()) {
+                continue;
+            }
+            Feature feature = features.get(featureName);
+            if (feature == null) {
+                throw new IllegalArgumentException(featureName + " is not a feature");
+            }
+            if (!featuresRef.contains(feature)) {
+                throw new IllegalArgumentException(featureName + " can not be picked by this character");
+            }
+            if (pickedFeatures.contains(feature)) {
+                throw new IllegalArgumentException(featureName + " was picked twice");
+            }
+            pickedFeatures.add(feature);
+        }
+        int expected = Math.min(rulebook.getFeaturePickCount(), featuresRef.size());
+        if (pickedFeatures.size() != expected) {
+            throw new IllegalArgumentException("expected " + expected + " feature picks but found "
+                    + pickedFeatures.size());
+        }
+
+        for (Feature feature : pickedFeatures) {
+            character.addFeature(feature);
+        }
+    }
+}
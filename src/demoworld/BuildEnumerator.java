@@ -0,0 +1,288 @@
+package demoworld;
+
+import demoworld.model.Character;
+import demoworld.model.CharacterSnapshot;
+import demoworld.model.Feature;
+import demoworld.model.Hitpoints;
+import demoworld.model.PrimaryStat;
+import demoworld.model.RuleBook;
+import demoworld.model.Specialty;
+import demoworld.model.StatManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Walks every legal starting build of a rulebook: every distinct way to hand out the stat spread
+ * over the primary stats, every specialty the resulting character qualifies for, and every
+ * combination of eligible feature picks, the same rules the {@link CharacterBuilder} enforces.
+ * Each build is run through the real specialty and feature adjustments to get its stat totals.
+ * <p>
+ * Specialties whose requirements fail are pruned before any of their feature combinations are
+ * looked at, and features whose requirements fail never enter the combinations. The stat
+ * allocations are split across a fork join pool, one subtree per value given to the leading stats.
+ * <p>
+ * Builds are worked out on immutable character snapshots: each specialty is applied once per
+ * allocation, and each combination shares the state of the picks it has in common with the
+ * combination before it. Large rulebooks should use the streaming forms, enumerate with a
+ * consumer or count, which never hold more than one build per worker thread
+ */
+public class BuildEnumerator {
+    /**
+     * the number of trailing primary stats whose allocations are walked without forking
+     */
+    private static final int SEQUENTIAL_DEPTH = 3;
+    /**
+     * rulebook
+     */
+    private final RuleBook rulebook;
+    /**
+     * pool
+     */
+    private final ForkJoinPool pool;
+    /**
+     * a starting stat manager used to resolve stat handles
+     */
+    private final StatManager layout;
+    /**
+     * the slot of the hitpoints stat, or -1 if the rulebook has none
+     */
+    private final int hitpointsSlot;
+
+    /**
+     * Constructs a BuildEnumerator for the given rulebook that works on the common fork join pool
+     *
+     * @param rulebook the rulebook to enumerate the builds of
+     */
+    public BuildEnumerator(RuleBook rulebook) {
+        this(rulebook, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a BuildEnumerator for the given rulebook that works on the given pool
+     *
+     * @param rulebook the rulebook to enumerate the builds of
+     * @param pool the pool the enumeration is split across
+     */
+    public BuildEnumerator(RuleBook rulebook, ForkJoinPool pool) {
+        this.rulebook = rulebook;
+        this.pool = pool;
+        this.layout = rulebook.createCharacterStats();
+        int slot = -1;
+        for (int handle = 0; handle < layout.size(); handle++) {
+            if (layout.get(handle) instanceof Hitpoints) {
+                slot = handle;
+            }
+        }
+        this.hitpointsSlot = slot;
+    }
+
+    /**
+     * Enumerates every legal build
+     *
+     * @return every legal build
+     */
+    public List<CharacterBuild> enumerate() {
+        return enumerate(build -> true);
+    }
+
+    /**
+     * Enumerates every legal build the filter accepts, for example
+     * {@code enumerate(CharacterBuild.statAtLeast("analytical", 4))}
+     *
+     * @param filter decides which builds are kept
+     * @return every legal build the filter accepts
+     */
+    public List<CharacterBuild> enumerate(Predicate<CharacterBuild> filter) {
+        return pool.invoke(allocationTask(filter, null));
+    }
+
+    /**
+     * Enumerates every legal build the filter accepts and hands each one to the sink as soon as it
+     * is worked out, without keeping any of them. The sink is called from the threads of the pool,
+     * possibly at the same time, and in no particular order
+     *
+     * @param filter decides which builds are kept
+     * @param sink takes every build the filter accepts, it must be safe to call from several threads
+     */
+    public void enumerate(Predicate<CharacterBuild> filter, Consumer<CharacterBuild> sink) {
+        pool.invoke(allocationTask(filter, sink));
+    }
+
+    /**
+     * Counts the legal builds the filter accepts without keeping any of them
+     *
+     * @param filter decides which builds are counted
+     * @return the number of legal builds the filter accepts
+     */
+    public long count(Predicate<CharacterBuild> filter) {
+        LongAdder count = new LongAdder();
+        enumerate(filter, build -> count.increment());
+        return count.sum();
+    }
+
+    private AllocationTask allocationTask(Predicate<CharacterBuild> filter, Consumer<CharacterBuild> sink) {
+        // distinct spread values with how often each may still be handed out
+        TreeMap<Integer, Integer> spread = new TreeMap<>();
+        for (Integer value : rulebook.getStatSpreadReference()) {
+            spread.merge(value, 1, Integer::sum);
+        }
+        int[] values = new int[spread.size()];
+        int[] remaining = new int[spread.size()];
+        int i = 0;
+        for (Integer value : spread.keySet()) {
+            values[i] = value;
+            remaining[i++] = spread.get(value);
+        }
+
+        int primaries = Math.min(layout.primaryCount(), rulebook.getStatSpreadReference().size());
+        return new AllocationTask(filter, sink, values, remaining, new int[primaries], 0);
+    }
+
+    /**
+     * Hands out the remaining spread values to the primary stats from depth onwards. Without a sink
+     * the builds are collected and returned in allocation order, with one they are handed to it and
+     * null is returned. Tasks are never serialized
+     */
+    @SuppressWarnings("serial")
+    private final class AllocationTask extends RecursiveTask<List<CharacterBuild>> {
+        private final Predicate<CharacterBuild> filter;
+        private final Consumer<CharacterBuild> sink;
+        private final int[] values;
+        private final int[] remaining;
+        private final int[] allocation;
+        private final int depth;
+
+        private AllocationTask(Predicate<CharacterBuild> filter, Consumer<CharacterBuild> sink, int[] values,
+                               int[] remaining, int[] allocation, int depth) {
+            this.filter = filter;
+            this.sink = sink;
+            this.values = values;
+            this.remaining = remaining;
+            this.allocation = allocation;
+            this.depth = depth;
+        }
+
+        @Override
+        protected List<CharacterBuild> compute() {
+            List<CharacterBuild> builds = sink == null ? new ArrayList<>() : null;
+            if (allocation.length - depth <= SEQUENTIAL_DEPTH) {
+                allocate(depth, sink == null ? builds::add : sink);
+                return builds;
+            }
+
+            List<AllocationTask> subtasks = new ArrayList<>();
+            for (int v = 0; v < values.length; v++) {
+                if (remaining[v] == 0) {
+                    continue;
+                }
+                int[] nextRemaining = remaining.clone();
+                nextRemaining[v]--;
+                int[] nextAllocation = allocation.clone();
+                nextAllocation[depth] = values[v];
+                subtasks.add(new AllocationTask(filter, sink, values, nextRemaining, nextAllocation, depth + 1));
+            }
+            invokeAll(subtasks);
+            if (builds != null) {
+                for (AllocationTask subtask : subtasks) {
+                    builds.addAll(subtask.join());
+                }
+            }
+            return builds;
+        }
+
+        private void allocate(int at, Consumer<CharacterBuild> builds) {
+            if (at == allocation.length) {
+                buildsFor(allocation.clone(), filter, builds);
+                return;
+            }
+            for (int v = 0; v < values.length; v++) {
+                if (remaining[v] == 0) {
+                    continue;
+                }
+                remaining[v]--;
+                allocation[at] = values[v];
+                allocate(at + 1, builds);
+                remaining[v]++;
+            }
+        }
+    }
+
+    private void buildsFor(int[] allocation, Predicate<CharacterBuild> filter, Consumer<CharacterBuild> builds) {
+        Character allocated = allocatedCharacter(allocation);
+        CharacterSnapshot allocatedState = CharacterSnapshot.of(allocated);
+        for (Specialty specialty : rulebook.getSpecialtiesFilteredByRequirements(allocated)) {
+            CharacterSnapshot withSpecialty = allocatedState.withSpecialty(specialty).withoutHistory();
+
+            List<Feature> featuresRef = withSpecialty.getEligibleFeatures();
+            featuresRef.removeAll(specialty.getFeaturesView());
+            featuresRef.removeIf(feature -> feature.getName().equals("downed"));
+
+            int picks = Math.min(rulebook.getFeaturePickCount(), featuresRef.size());
+            int[] combination = new int[picks];
+            for (int i = 0; i < picks; i++) {
+                combination[i] = i;
+            }
+            // picked[i] is the state after the first i picks of the current combination, so the
+            // next combination only redoes the picks from the first one that changed
+            CharacterSnapshot[] picked = new CharacterSnapshot[picks + 1];
+            picked[0] = withSpecialty;
+            int changed = 0;
+            do {
+                for (int i = changed; i < picks; i++) {
+                    picked[i + 1] = picked[i].withFeature(featuresRef.get(combination[i])).withoutHistory();
+                }
+                List<Feature> pickedFeatures = new ArrayList<>(picks);
+                for (int index : combination) {
+                    pickedFeatures.add(featuresRef.get(index));
+                }
+                CharacterBuild build = record(allocation, specialty, pickedFeatures, picked[picks]);
+                if (filter.test(build)) {
+                    builds.accept(build);
+                }
+                changed = nextCombination(combination, featuresRef.size());
+            } while (changed >= 0);
+        }
+    }
+
+    private Character allocatedCharacter(int[] allocation) {
+        Character character = new Character("build", rulebook);
+        List<PrimaryStat> primaryStats = character.getStat().primaries();
+        for (int i = 0; i < allocation.length; i++) {
+            primaryStats.get(i).setCurrentBase(allocation[i]);
+        }
+        return character;
+    }
+
+    private CharacterBuild record(int[] allocation, Specialty specialty, List<Feature> picks,
+                                  CharacterSnapshot state) {
+        int maxHitpoints = hitpointsSlot < 0 ? 0 : state.getTotalMax(hitpointsSlot);
+        return new CharacterBuild(layout, allocation, specialty, picks, state.totals(),
+                maxHitpoints, state.maxExperience());
+    }
+
+    /**
+     * Advances to the next combination of indices in lexicographic order
+     *
+     * @return the first position that changed, or -1 once every combination has been visited
+     */
+    private static int nextCombination(int[] combination, int n) {
+        int k = combination.length;
+        for (int i = k - 1; i >= 0; i--) {
+            if (combination[i] < n - k + i) {
+                combination[i]++;
+                for (int j = i + 1; j < k; j++) {
+                    combination[j] = combination[j - 1] + 1;
+                }
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,162 @@
+package demoworld;
+
+import demoworld.model.Feature;
+import demoworld.model.Specialty;
+import demoworld.model.StatManager;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * One legal way to build a starting character, with the stat totals it ends up with once
+ * its specialty and features have adjusted it
+ */
+public class CharacterBuild {
+    /**
+     * the rulebooks stat layout, used to look stats up by name
+     */
+    private final StatManager layout;
+    /**
+     * the stat spread value given to each primary stat, in the order of allPrimaries
+     */
+    private final int[] allocation;
+    /**
+     * specialty
+     */
+    private final Specialty specialty;
+    /**
+     * the features picked on top of the specialties features
+     */
+    private final List<Feature> picks;
+    /**
+     * the total of every stat, indexed by stat handle
+     */
+    private final int[] totals;
+    /**
+     * the maximum total hitpoints
+     */
+    private final int maxHitpoints;
+    /**
+     * the experience needed to level up
+     */
+    private final int maxExperience;
+
+    /**
+     * Constructs a CharacterBuild
+     *
+     * @param layout the rulebooks stat layout
+     * @param allocation the stat spread value given to each primary stat
+     * @param specialty the picked specialty
+     * @param picks the picked features
+     * @param totals the total of every stat, indexed by stat handle
+     * @param maxHitpoints the maximum total hitpoints
+     * @param maxExperience the experience needed to level up
+     */
+    CharacterBuild(StatManager layout, int[] allocation, Specialty specialty, List<Feature> picks,
+                   int[] totals, int maxHitpoints, int maxExperience) {
+        this.layout = layout;
+        this.allocation = allocation;
+        this.specialty = specialty;
+        this.picks = List.copyOf(picks);
+        this.totals = totals;
+        this.maxHitpoints = maxHitpoints;
+        this.maxExperience = maxExperience;
+    }
+
+    /**
+     * Creates a filter that keeps builds whose total for the named stat is at least the threshold
+     *
+     * @param statName the name of the stat
+     * @param threshold the lowest total to keep
+     * @return the filter
+     */
+    public static Predicate<CharacterBuild> statAtLeast(String statName, int threshold) {
+        return build -> build.getTotal(statName) >= threshold;
+    }
+
+    /**
+     * Gets the stat spread value given to the primary stat at the given position of allPrimaries
+     *
+     * @param primary the position of the primary stat
+     * @return the allocated value
+     */
+    public int getAllocation(int primary) {
+        return allocation[primary];
+    }
+
+    /**
+     * Gets the picked specialty
+     *
+     * @return the picked specialty
+     */
+    public Specialty getSpecialty() {
+        return specialty;
+    }
+
+    /**
+     * Gets the features picked on top of the specialties features
+     *
+     * @return an unmodifiable list of the picked features
+     */
+    public List<Feature> getPicks() {
+        return picks;
+    }
+
+    /**
+     * Gets the total the named stat ends up with
+     *
+     * @param statName the name of the stat
+     * @return the total of the stat
+     * @throws IllegalStateException if the rulebook has no such stat
+     */
+    public int getTotal(String statName) throws IllegalStateException {
+        return totals[layout.handle(statName)];
+    }
+
+    /**
+     * Gets the total the stat with the given handle ends up with
+     *
+     * @param handle the handle of the stat
+     * @return the total of the stat
+     */
+    public int getTotal(int handle) {
+        return totals[handle];
+    }
+
+    /**
+     * Gets the maximum total hitpoints
+     *
+     * @return the maximum total hitpoints
+     */
+    public int getMaxHitpoints() {
+        return maxHitpoints;
+    }
+
+    /**
+     * Gets the experience needed to level up
+     *
+     * @return the experience needed to level up
+     */
+    public int getMaxExperience() {
+        return maxExperience;
+    }
+
+    /**
+     * Returns a string representation of the build
+     *
+     * @return a string representation of the build
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(specialty == null ? "no specialty" : specialty.getName()).append(" [");
+        for (int i = 0; i < picks.size(); i++) {
+            sb.append(i == 0 ? "" : ", ").append(picks.get(i).getName());
+        }
+        sb.append("]");
+        for (int handle = 0; handle < totals.length; handle++) {
+            sb.append(" ").append(layout.get(handle).name()).append("=").append(totals[handle]);
+        }
+        return sb.toString();
+    }
+}
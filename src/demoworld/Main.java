@@ -1,13 +1,123 @@
 package demoworld;
 
+import demoworld.model.Character;
 import demoworld.model.DemoWorld;
 import demoworld.model.RuleBook;
+import demoworld.rulebook.RuleBookTool;
+import demoworld.scribe.AsyncScribe;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 public class Main {
     public static void main(String[] args) {
         RuleBook rulebook = new DemoWorld();
+
+        // java demoworld.Main --rules <rules file or snapshot> [any of the options below]
+        if (args.length >= 2 && args[0].equals("--rules")) {
+            try {
+                rulebook = RuleBookTool.load(Paths.get(args[1]));
+            } catch (IOException | IllegalArgumentException | IllegalStateException e) {
+                System.err.println("An error occurred while loading the rules: " + e.getMessage());
+                return;
+            }
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
+
+        // java demoworld.Main --batch <spec file> [sheet file]
+        if (args.length >= 2 && args[0].equals("--batch")) {
+            runBatch(rulebook, args);
+            return;
+        }
+
+        // java demoworld.Main --export <count> <seed> <directory> [writers]
+        if (args.length >= 4 && args[0].equals("--export")) {
+            runExport(rulebook, args);
+            return;
+        }
+
         CharacterBuilder builder = new CharacterBuilder(rulebook);
 
         builder.start();
     }
-}
\ No newline at end of file
+
+    private static void runBatch(RuleBook rulebook, String[] args) {
+        BatchCharacterBuilder builder = new BatchCharacterBuilder(rulebook);
+        long start = System.nanoTime();
+        long built;
+        try (Reader in = Files.newBufferedReader(Paths.get(args[1]), StandardCharsets.UTF_8);
+             Writer out = args.length >= 3
+                     ? Files.newBufferedWriter(Paths.get(args[2]), StandardCharsets.UTF_8)
+                     : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+            built = builder.run(in, out);
+        } catch (IOException e) {
+            System.err.println("An error occurred while building the batch: " + e.getMessage());
+            return;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("Built %d characters in %.3fs (%.0f characters/second)%n",
+                built, seconds, built / seconds);
+    }
+
+    private static void runExport(RuleBook rulebook, String[] args) {
+        int count;
+        long seed;
+        int writers;
+        try {
+            count = Integer.parseInt(args[1]);
+            seed = Long.parseLong(args[2]);
+            writers = args.length >= 5 ? Integer.parseInt(args[4]) : 4;
+        } catch (NumberFormatException e) {
+            System.err.println("usage: --export <count> <seed> <directory> [writers], count, seed and writers are whole numbers");
+            return;
+        }
+        if (count < 0 || writers < 1) {
+            System.err.println("usage: --export <count> <seed> <directory> [writers], count can not be negative and writers must be at least 1");
+            return;
+        }
+        String directory = args[3];
+        long start = System.nanoTime();
+        int failed = 0;
+        try {
+            Files.createDirectories(Paths.get(directory));
+            List<Character> characters = new NpcGenerator(rulebook).generate(count, seed);
+            List<CompletableFuture<Path>> written = new ArrayList<>(count);
+            try (AsyncScribe scribe = new AsyncScribe(writers, 1024, false)) {
+                for (Character character : characters) {
+                    written.add(scribe.write(directory + "/" + character.getName(), character.toString(), 43442148));
+                }
+            }
+            for (CompletableFuture<Path> future : written) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    failed++;
+                    System.err.println("An error occurred while writing to the file: " + e.getCause().getMessage());
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("An error occurred while exporting: " + e.getMessage());
+            return;
+        } catch (InterruptedException e) {
+            // keep the interrupt for whoever called us, the sheets still queued are abandoned
+            Thread.currentThread().interrupt();
+            System.err.println("The export was interrupted");
+            return;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("Exported %d sheets (%d failed) in %.3fs (%.0f sheets/second)%n",
+                count - failed, failed, seconds, count / seconds);
+    }
+}
@@ -0,0 +1,130 @@
+package demoworld;
+
+import demoworld.model.Character;
+import demoworld.model.Feature;
+import demoworld.model.PrimaryStat;
+import demoworld.model.RuleBook;
+import demoworld.model.Specialty;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Generates random characters that follow the same rules as the {@link CharacterBuilder}:
+ * the stat spread is shuffled onto the primary stats, a specialty the character meets the
+ * requirements for is picked, then the rulebooks feature pick count of eligible features
+ * is picked, leaving out the specialties own features and downed.
+ * Characters are generated in parallel in fixed size chunks that each get their own random
+ * split from the seed in chunk order, so the result for a seed does not depend on how many
+ * threads did the work
+ */
+public class NpcGenerator {
+    /**
+     * the number of characters generated from one random split
+     */
+    private static final int CHUNK_SIZE = 4096;
+    /**
+     * rulebook
+     */
+    private final RuleBook rulebook;
+
+    /**
+     * Constructs an NpcGenerator for the given rulebook
+     *
+     * @param rulebook the rulebook the generated characters will be using
+     */
+    public NpcGenerator(RuleBook rulebook) {
+        this.rulebook = rulebook;
+    }
+
+    /**
+     * Generates the given number of random characters. The same seed always gives the same characters
+     *
+     * @param count the number of characters to generate
+     * @param seed the seed for the random choices
+     * @return the generated characters, named npc-0, npc-1 and so on
+     */
+    public List<Character> generate(int count, long seed) {
+        int chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[chunks];
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            randoms[chunk] = root.split();
+        }
+
+        Character[] characters = new Character[count];
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            SplittableRandom random = randoms[chunk];
+            int end = Math.min(count, (chunk + 1) * CHUNK_SIZE);
+            for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+                characters[i] = generate("npc-" + i, random);
+            }
+        });
+        return Arrays.asList(characters);
+    }
+
+    /**
+     * Generates one random character
+     *
+     * @param name the name of the character
+     * @param random the source of the random choices
+     * @return the generated character
+     */
+    public Character generate(String name, SplittableRandom random) {
+        Character character = new Character(name, rulebook);
+        allocateStats(character, random);
+        Specialty specialty = pickSpecialty(character, random);
+        pickFeatures(character, specialty, random);
+        return character;
+    }
+
+    private void allocateStats(Character character, SplittableRandom random) {
+        List<PrimaryStat> primaryStats = character.getStat().primaries();
+        Integer[] numbersToAllocate = rulebook.getStatSpreadReference().toArray(new Integer[0]);
+        shuffle(numbersToAllocate, numbersToAllocate.length, random);
+
+        int allocations = Math.min(primaryStats.size(), numbersToAllocate.length);
+        for (int i = 0; i < allocations; i++) {
+            primaryStats.get(i).setCurrentBase(numbersToAllocate[i]);
+        }
+    }
+
+    private Specialty pickSpecialty(Character character, SplittableRandom random) {
+        List<Specialty> specialties = rulebook.getSpecialtiesFilteredByRequirements(character);
+        if (specialties.isEmpty()) {
+            return null;
+        }
+        Specialty pickedSpecialty = specialties.get(random.nextInt(specialties.size()));
+        character.addSpecialty(pickedSpecialty);
+        return pickedSpecialty;
+    }
+
+    private void pickFeatures(Character character, Specialty pickedSpecialty, SplittableRandom random) {
+        List<Feature> featuresRef = rulebook.getFeaturesFilteredByRequirements(character);
+        if (pickedSpecialty != null) {
+            featuresRef.removeAll(pickedSpecialty.getFeaturesView());
+        }
+        featuresRef.removeIf(feature -> feature.getName().equals("downed"));
+
+        Feature[] candidates = featuresRef.toArray(new Feature[0]);
+        int picks = Math.min(rulebook.getFeaturePickCount(), candidates.length);
+        shuffle(candidates, picks, random);
+        for (int i = 0; i < picks; i++) {
+            character.addFeature(candidates[i]);
+        }
+    }
+
+    /**
+     * Moves a uniformly random selection of the items into the first {@code picks} positions
+     */
+    private static <T> void shuffle(T[] items, int picks, SplittableRandom random) {
+        for (int i = 0; i < picks; i++) {
+            int j = i + random.nextInt(items.length - i);
+            T item = items[i];
+            items[i] = items[j];
+            items[j] = item;
+        }
+    }
+}
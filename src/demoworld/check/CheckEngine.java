@@ -0,0 +1,241 @@
+package demoworld.check;
+
+import demoworld.model.Character;
+import demoworld.model.Feature;
+import demoworld.model.FeatureManager;
+import demoworld.model.RuleBook;
+import demoworld.model.Stat;
+import demoworld.model.StatManager;
+import demoworld.model.population.CharacterPopulation;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Resolves checks: the dice are rolled and a stats total is added, and the check passes if that reaches
+ * the difficulty. A character holding a feature the rulebook lists for the kind of check rolls twice and
+ * takes the best result. The exact outcomes for every number of rolls are worked out once when the engine
+ * is made, so the chance of passing any check is a table lookup rather than a simulation, and a single
+ * check is rolled from the same table with one random number.
+ * <p>
+ * Batches of checks are run in parallel in fixed size chunks that each get their own random split from
+ * the seed in chunk order, so the result for a seed does not depend on how many threads did the work
+ */
+public class CheckEngine {
+
+    /** the number of checks rolled from one random split */
+    private static final int CHUNK_SIZE = 4096;
+
+    private final RuleBook rulebook;
+    private final StatManager layout;
+    private final OutcomeTable[] tables;
+
+    /**
+     * Constructs a check engine
+     * @param rulebook the rulebook the characters being checked are built from
+     * @param diceCount the number of dice in a roll
+     * @param sides the number of sides on each die
+     * @param maxAdvantage the most extra rolls a check can get, tables are made for 0 up to this
+     */
+    public CheckEngine(RuleBook rulebook, int diceCount, int sides, int maxAdvantage){
+        if (maxAdvantage < 1) {
+            throw new IllegalArgumentException("A check engine needs room for at least one extra roll");
+        }
+        this.rulebook = rulebook;
+        this.layout = rulebook.createCharacterStats();
+        this.tables = new OutcomeTable[maxAdvantage + 1];
+        for (int advantage = 0; advantage <= maxAdvantage; advantage++) {
+            tables[advantage] = new OutcomeTable(diceCount, sides, advantage + 1);
+        }
+    }
+
+    /**
+     * Constructs a check engine rolling 2d6, with tables for up to two extra rolls
+     * @param rulebook the rulebook the characters being checked are built from
+     */
+    public CheckEngine(RuleBook rulebook){
+        this(rulebook, 2, 6, 2);
+    }
+
+    /**
+     * Gets the exact outcomes for a number of extra rolls
+     * @param advantage the number of extra rolls, 0 for a plain roll
+     * @return the outcome table
+     */
+    public OutcomeTable table(int advantage){
+        if (advantage < 0 || advantage >= tables.length) {
+            throw new IllegalArgumentException("No table for " + advantage + " extra rolls, the most is "
+                    + (tables.length - 1));
+        }
+        return tables[advantage];
+    }
+
+    /**
+     * Works out the extra rolls a character gets on a kind of check. The features all say roll twice and
+     * take the best result, so holding more than one of them still gives one extra roll
+     * @param character the character making the check
+     * @param check the kind of check, or null for a check no feature helps with
+     * @return 1 if the character holds a feature granting advantage on the check, otherwise 0
+     */
+    public int advantage(Character character, String check){
+        return check == null ? 0 : advantage(character, rulebook.getAdvantageFeatures(check));
+    }
+
+    /**
+     * Works out the chance a character passes a check, exactly
+     * @param character the character making the check
+     * @param stat the name of the stat added to the roll
+     * @param check the kind of check, or null for a check no feature helps with
+     * @param difficulty the total the roll and stat have to reach
+     * @return the chance of passing, from 0 to 1
+     */
+    public double probability(Character character, String stat, String check, int difficulty){
+        return tables[advantage(character, check)].probabilityAtLeast(difficulty - total(character, stat, handle(stat)));
+    }
+
+    /**
+     * Works out the chance of passing a check with a given stat total and number of extra rolls
+     * @param statTotal the total of the stat added to the roll
+     * @param advantage the number of extra rolls
+     * @param difficulty the total the roll and stat have to reach
+     * @return the chance of passing, from 0 to 1
+     */
+    public double probability(int statTotal, int advantage, int difficulty){
+        return table(advantage).probabilityAtLeast(difficulty - statTotal);
+    }
+
+    /**
+     * Rolls a check for a character
+     * @param character the character making the check
+     * @param stat the name of the stat added to the roll
+     * @param check the kind of check, or null for a check no feature helps with
+     * @param difficulty the total the roll and stat have to reach
+     * @param random the source of the roll
+     * @return true if the check passes
+     */
+    public boolean check(Character character, String stat, String check, int difficulty, SplittableRandom random){
+        return tables[advantage(character, check)].roll(random) + total(character, stat, handle(stat)) >= difficulty;
+    }
+
+    /**
+     * Works out the chance each character passes the same check, exactly, several characters at a time
+     * @param characters the characters making the check
+     * @param stat the name of the stat added to the roll
+     * @param check the kind of check, or null for a check no feature helps with
+     * @param difficulty the total the roll and stat have to reach
+     * @return the chance each character passes, in the order of the list
+     */
+    public double[] probabilities(List<Character> characters, String stat, String check, int difficulty){
+        int handle = handle(stat);
+        List<Feature> granting = check == null ? List.of() : rulebook.getAdvantageFeatures(check);
+        double[] chances = new double[characters.size()];
+        IntStream.range(0, chances.length).parallel().forEach(i -> {
+            Character character = characters.get(i);
+            chances[i] = tables[advantage(character, granting)]
+                    .probabilityAtLeast(difficulty - total(character, stat, handle));
+        });
+        return chances;
+    }
+
+    /**
+     * Rolls the same check for every character, several at a time. The same seed always gives the same rolls
+     * @param characters the characters making the check
+     * @param stat the name of the stat added to the roll
+     * @param check the kind of check, or null for a check no feature helps with
+     * @param difficulty the total the roll and stat have to reach
+     * @param seed the seed for the rolls
+     * @return whether each character passed, in the order of the list
+     */
+    public boolean[] checkAll(List<Character> characters, String stat, String check, int difficulty, long seed){
+        int handle = handle(stat);
+        List<Feature> granting = check == null ? List.of() : rulebook.getAdvantageFeatures(check);
+        boolean[] passed = new boolean[characters.size()];
+        SplittableRandom[] randoms = splits(passed.length, seed);
+        IntStream.range(0, randoms.length).parallel().forEach(chunk -> {
+            int end = Math.min(passed.length, (chunk + 1) * CHUNK_SIZE);
+            for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+                Character character = characters.get(i);
+                passed[i] = tables[advantage(character, granting)].roll(randoms[chunk])
+                        + total(character, stat, handle) >= difficulty;
+            }
+        });
+        return passed;
+    }
+
+    /**
+     * Works out the chance each member of a population passes the same check, exactly. Populations do not
+     * hold features, so the number of extra rolls is given
+     * @param population the population making the check
+     * @param slot the slot of the stat added to the roll
+     * @param advantage the number of extra rolls every member gets
+     * @param difficulty the total the roll and stat have to reach
+     * @return the chance each member passes, by id
+     */
+    public double[] probabilities(CharacterPopulation population, int slot, int advantage, int difficulty){
+        OutcomeTable table = table(advantage);
+        int[] totals = population.totals(slot, new int[population.size()]);
+        double[] chances = new double[population.size()];
+        IntStream.range(0, chances.length).parallel()
+                .forEach(id -> chances[id] = table.probabilityAtLeast(difficulty - totals[id]));
+        return chances;
+    }
+
+    /**
+     * Rolls the same check for every member of a population. The same seed always gives the same rolls
+     * @param population the population making the check
+     * @param slot the slot of the stat added to the roll
+     * @param advantage the number of extra rolls every member gets
+     * @param difficulty the total the roll and stat have to reach
+     * @param seed the seed for the rolls
+     * @return whether each member passed, by id
+     */
+    public boolean[] checkAll(CharacterPopulation population, int slot, int advantage, int difficulty, long seed){
+        OutcomeTable table = table(advantage);
+        int[] totals = population.totals(slot, new int[population.size()]);
+        boolean[] passed = new boolean[population.size()];
+        SplittableRandom[] randoms = splits(passed.length, seed);
+        IntStream.range(0, randoms.length).parallel().forEach(chunk -> {
+            int end = Math.min(passed.length, (chunk + 1) * CHUNK_SIZE);
+            for (int id = chunk * CHUNK_SIZE; id < end; id++) {
+                passed[id] = table.roll(randoms[chunk]) + totals[id] >= difficulty;
+            }
+        });
+        return passed;
+    }
+
+    private int advantage(Character character, List<Feature> granting){
+        if (granting.isEmpty()) {
+            return 0;
+        }
+        FeatureManager features = character.getFeature();
+        for (int i = 0; i < features.size(); i++) {
+            Feature feature = features.get(i);
+            for (int g = 0; g < granting.size(); g++) {
+                if (granting.get(g) == feature) {
+                    return 1;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private int handle(String stat){
+        return layout.handle(stat);
+    }
+
+    private int total(Character character, String stat, int handle){
+        StatManager stats = character.getStat();
+        Stat found = stats.sameLayout(layout) ? stats.get(handle) : stats.byName(stat);
+        return found.getTotal();
+    }
+
+    private static SplittableRandom[] splits(int count, long seed){
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[(count + CHUNK_SIZE - 1) / CHUNK_SIZE];
+        for (int chunk = 0; chunk < randoms.length; chunk++) {
+            randoms[chunk] = root.split();
+        }
+        return randoms;
+    }
+}
@@ -0,0 +1,179 @@
+package demoworld.check;
+
+import java.util.SplittableRandom;
+
+/**
+ * The exact outcomes of rolling some dice a number of times and keeping the best total. Every outcome
+ * is counted as a whole number out of all the ways the dice can land, so probabilities worked out from
+ * the table are exact rather than sampled. Tables never change once made and can be shared between threads
+ */
+public class OutcomeTable {
+
+    private final int diceCount;
+    private final int sides;
+    private final int rolls;
+    private final int min;
+    private final long total;
+    /** how many ways each result from min up can come out */
+    private final long[] counts;
+    /** how many ways a result of at least min + i can come out */
+    private final long[] atLeast;
+
+    /**
+     * Counts the outcomes of rolling the dice the given number of times and keeping the best total
+     * @param diceCount the number of dice in a roll
+     * @param sides the number of sides on each die
+     * @param rolls how many times the dice are rolled, 1 for a plain roll, 2 for roll twice and take the best
+     * @throws IllegalArgumentException if there are too many outcomes to count in a long
+     */
+    public OutcomeTable(int diceCount, int sides, int rolls){
+        if (diceCount < 1 || sides < 1 || rolls < 1) {
+            throw new IllegalArgumentException("A roll needs at least one die with one side, rolled at least once");
+        }
+        this.diceCount = diceCount;
+        this.sides = sides;
+        this.rolls = rolls;
+        this.min = diceCount;
+        int results = diceCount * (sides - 1) + 1;
+        try {
+            // the ways a single roll can total each result, one die at a time
+            long[] single = new long[results];
+            single[0] = 1;
+            int reach = 1;
+            for (int die = 0; die < diceCount; die++) {
+                long[] next = new long[results];
+                for (int i = 0; i < reach; i++) {
+                    if (single[i] == 0) {
+                        continue;
+                    }
+                    for (int face = 0; face < sides && i + face < results; face++) {
+                        next[i + face] = Math.addExact(next[i + face], single[i]);
+                    }
+                }
+                single = next;
+                reach = Math.min(results, reach + sides - 1);
+            }
+
+            // the best of several rolls is at most x when every roll is, so its count is the count of a
+            // single roll being at most x raised to the number of rolls
+            this.counts = new long[results];
+            long below = 0;
+            long previous = 0;
+            for (int i = 0; i < results; i++) {
+                below = Math.addExact(below, single[i]);
+                long atMost = power(below, rolls);
+                counts[i] = atMost - previous;
+                previous = atMost;
+            }
+            this.total = previous;
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Too many outcomes to count exactly for " + rolls + " rolls of "
+                    + diceCount + "d" + sides, e);
+        }
+        this.atLeast = new long[results + 1];
+        for (int i = results - 1; i >= 0; i--) {
+            atLeast[i] = atLeast[i + 1] + counts[i];
+        }
+    }
+
+    /**
+     * Gets the lowest result
+     * @return the lowest result
+     */
+    public int min(){
+        return min;
+    }
+
+    /**
+     * Gets the highest result
+     * @return the highest result
+     */
+    public int max(){
+        return min + counts.length - 1;
+    }
+
+    /**
+     * Gets how many times the dice are rolled
+     * @return how many times the dice are rolled
+     */
+    public int rolls(){
+        return rolls;
+    }
+
+    /**
+     * Gets the number of ways all the rolls can come out together
+     * @return the number of ways all the rolls can come out
+     */
+    public long total(){
+        return total;
+    }
+
+    /**
+     * Gets the number of ways the best result is exactly the given one
+     * @param result the result
+     * @return the number of ways to get it
+     */
+    public long count(int result){
+        return result < min || result > max() ? 0 : counts[result - min];
+    }
+
+    /**
+     * Gets the number of ways the best result is at least the given one
+     * @param result the result to reach
+     * @return the number of ways to reach it
+     */
+    public long countAtLeast(int result){
+        if (result <= min) {
+            return total;
+        }
+        return result > max() ? 0 : atLeast[result - min];
+    }
+
+    /**
+     * Gets the chance the best result is at least the given one
+     * @param result the result to reach
+     * @return the chance of reaching it, from 0 to 1
+     */
+    public double probabilityAtLeast(int result){
+        return (double) countAtLeast(result) / total;
+    }
+
+    /**
+     * Rolls once from the table, picking one of all the outcomes so the result comes out with exactly the
+     * tables chances, using a single random number however many dice and rolls there are
+     * @param random the source of the random number
+     * @return the best result
+     */
+    public int roll(SplittableRandom random){
+        long pick = random.nextLong(total);
+        // the highest result whose at least count is still above the pick
+        int low = 0;
+        int high = counts.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (atLeast[middle] > pick) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return min + low;
+    }
+
+    /**
+     * Returns the dice this table is for, like "2d6 best of 2"
+     * @return a description of the dice
+     */
+    @Override
+    public String toString(){
+        return diceCount + "d" + sides + (rolls > 1 ? " best of " + rolls : "");
+    }
+
+    private static long power(long base, int exponent){
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result = Math.multiplyExact(result, base);
+        }
+        return result;
+    }
+}
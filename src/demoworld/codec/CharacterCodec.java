@@ -0,0 +1,326 @@
+package demoworld.codec;
+
+import demoworld.model.Character;
+import demoworld.model.Experience;
+import demoworld.model.Feature;
+import demoworld.model.FeatureManager;
+import demoworld.model.Hitpoints;
+import demoworld.model.RuleBook;
+import demoworld.model.Specialty;
+import demoworld.model.SpecialtyManager;
+import demoworld.model.Stat;
+import demoworld.model.StatManager;
+import demoworld.model.Value;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Turns a Character into a compact run of bytes and back, for sending characters between processes
+ * or keeping them in a cache outside the heap. Encoding into a buffer the caller provides makes no objects.
+ * <p>
+ * An encoded character is: the magic and version, the rulebook name as a length prefixed UTF-8 string and
+ * the rulebook edition as the 8 bytes of the double, then the characters name as a length prefixed string
+ * of UTF-8 style chars, the number of stats followed by the base and modifier min, max and current of every stat in the
+ * rulebooks stat order, the temp hp, the experience min, max and current, then the number of features
+ * followed by their ids and the number of specialties followed by their ids, in the order the character
+ * has them. An id is the one the rulebook gave the feature or specialty, its position in the rulebooks list.
+ * Every number apart from the magic and edition is a zigzag varint, so the small numbers of a character
+ * take one byte each
+ */
+public class CharacterCodec {
+
+    private static final int MAGIC = 0x44574343;
+    private static final int VERSION = 1;
+
+    private final RuleBook rulebook;
+    private final byte[] rulebookName;
+    private final long edition;
+    private final List<Feature> features;
+    private final List<Specialty> specialties;
+    private final int statCount;
+
+    /**
+     * Constructs a codec for characters of the given rulebook
+     * @param rulebook the rulebook the characters are built from
+     */
+    public CharacterCodec(RuleBook rulebook){
+        this.rulebook = rulebook;
+        this.rulebookName = rulebook.getName().getBytes(StandardCharsets.UTF_8);
+        this.edition = Double.doubleToLongBits(rulebook.getEdition());
+        this.features = rulebook.getFeaturesReference();
+        this.specialties = rulebook.getSpecialtiesReference();
+        this.statCount = rulebook.createCharacterStats().size();
+    }
+
+    /**
+     * Writes a character into a buffer, starting at its position and leaving the position after the last
+     * byte written. Nothing is allocated
+     * @param character the character to write
+     * @param out the buffer to write into
+     * @throws BufferOverflowException if the character does not fit in the remaining space of out
+     * @throws IllegalStateException if the character has a feature or specialty the rulebook does not list,
+     * or its stats are not laid out the way the rulebooks are
+     */
+    public void encode(Character character, ByteBuffer out){
+        StatManager stats = character.getStat();
+        if (stats.size() != statCount) {
+            throw new IllegalStateException("Character " + character.getName() + " has " + stats.size()
+                    + " stats but rulebook " + rulebook.getName() + " has " + statCount);
+        }
+        out.putInt(MAGIC);
+        out.put((byte) VERSION);
+        putVarint(out, rulebookName.length);
+        out.put(rulebookName);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.put((byte) (edition >>> shift));
+        }
+
+        putString(out, character.getName());
+
+        int tempHp = 0;
+        putVarint(out, statCount);
+        for (int slot = 0; slot < statCount; slot++) {
+            Stat stat = stats.get(slot);
+            putValue(out, stat.getBase());
+            putValue(out, stat.getModifier());
+            if (stat instanceof Hitpoints) {
+                tempHp = ((Hitpoints) stat).getTempHp();
+            }
+        }
+        putZigzag(out, tempHp);
+        putValue(out, character.getExperience());
+
+        FeatureManager featureManager = character.getFeature();
+        putVarint(out, featureManager.size());
+        for (int i = 0; i < featureManager.size(); i++) {
+            Feature feature = featureManager.get(i);
+            int id = feature.getId();
+            if (id < 0 || id >= features.size() || features.get(id) != feature) {
+                throw notInRulebook("Feature " + feature.getName());
+            }
+            putVarint(out, id);
+        }
+        SpecialtyManager specialtyManager = character.getSpecialty();
+        putVarint(out, specialtyManager.size());
+        for (int i = 0; i < specialtyManager.size(); i++) {
+            Specialty specialty = specialtyManager.get(i);
+            int id = specialty.getId();
+            if (id < 0 || id >= specialties.size() || specialties.get(id) != specialty) {
+                throw notInRulebook("Specialty " + specialty.getName());
+            }
+            putVarint(out, id);
+        }
+    }
+
+    /**
+     * Writes a character into a new array sized to fit it
+     * @param character the character to write
+     * @return the encoded character
+     */
+    public byte[] encode(Character character){
+        ByteBuffer out = ByteBuffer.allocate(maxEncodedSize(character));
+        encode(character, out);
+        byte[] bytes = new byte[out.position()];
+        out.flip().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Works out how many bytes a character can take at most, enough room for encode never to overflow
+     * @param character the character to be written
+     * @return the most bytes encoding the character can take
+     */
+    public int maxEncodedSize(Character character){
+        return 5 + 5 + rulebookName.length + 8
+                + 5 + 3 * character.getName().length()
+                + 5 + statCount * 6 * 5 + 5 + 3 * 5
+                + 5 + character.getFeature().size() * 5
+                + 5 + character.getSpecialty().size() * 5;
+    }
+
+    /**
+     * Reads a character from a buffer, starting at its position and leaving the position after the
+     * last byte read. The features and specialties are attached without adjusting the character again,
+     * the stats already hold the adjusted values
+     * @param in the buffer to read from
+     * @return the character read
+     * @throws IllegalArgumentException if the bytes are not a character of this codecs rulebook
+     * @throws BufferUnderflowException if the buffer ends in the middle of the character
+     */
+    public Character decode(ByteBuffer in){
+        if (in.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Bytes are not an encoded character");
+        }
+        int version = in.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Encoded character is version " + version + ", expected " + VERSION);
+        }
+        if (!matchesRulebook(in)) {
+            throw new IllegalArgumentException("Encoded character is not from rulebook "
+                    + rulebook.getName() + " edition " + rulebook.getEdition());
+        }
+
+        Character character = new Character(getString(in), rulebook);
+        StatManager stats = character.getStat();
+        int count = getVarint(in);
+        if (count != statCount) {
+            throw new IllegalArgumentException("Encoded character has " + count + " stats but rulebook "
+                    + rulebook.getName() + " has " + statCount);
+        }
+        Hitpoints hitpoints = null;
+        for (int slot = 0; slot < statCount; slot++) {
+            Stat stat = stats.get(slot);
+            getValue(in, stat.getBase());
+            getValue(in, stat.getModifier());
+            if (stat instanceof Hitpoints) {
+                hitpoints = (Hitpoints) stat;
+            }
+        }
+        int tempHp = getZigzag(in);
+        if (hitpoints != null) {
+            hitpoints.setTempHp(tempHp);
+        }
+        Experience experience = character.getExperience();
+        getValue(in, experience);
+
+        int featureCount = getVarint(in);
+        for (int i = 0; i < featureCount; i++) {
+            character.getFeature().add(byId(features, getVarint(in), "Feature"));
+        }
+        int specialtyCount = getVarint(in);
+        for (int i = 0; i < specialtyCount; i++) {
+            character.getSpecialty().add(byId(specialties, getVarint(in), "Specialty"));
+        }
+        return character;
+    }
+
+    /**
+     * Reads a character from an array
+     * @param bytes the encoded character
+     * @return the character read
+     */
+    public Character decode(byte[] bytes){
+        return decode(ByteBuffer.wrap(bytes));
+    }
+
+    private boolean matchesRulebook(ByteBuffer in){
+        int length = getVarint(in);
+        boolean matches = length == rulebookName.length;
+        for (int i = 0; i < length; i++) {
+            byte b = in.get();
+            matches = matches && b == rulebookName[i];
+        }
+        long readEdition = 0;
+        for (int i = 0; i < 8; i++) {
+            readEdition = readEdition << 8 | (in.get() & 0xff);
+        }
+        return matches && readEdition == edition;
+    }
+
+    private static void putValue(ByteBuffer out, Value value){
+        putZigzag(out, value.min());
+        putZigzag(out, value.max());
+        putZigzag(out, value.current());
+    }
+
+    private static void getValue(ByteBuffer in, Value value){
+        int min = getZigzag(in);
+        int max = getZigzag(in);
+        int current = getZigzag(in);
+        value.set(min, max, current);
+    }
+
+    /**
+     * Writes a String as its byte length then each char as 1 to 3 bytes, the way UTF-8 writes chars below
+     * 0x10000. Surrogates are written one at a time rather than joined, so any String comes back exactly,
+     * unpaired surrogates included, and the bytes are plain UTF-8 for any name without surrogates
+     */
+    private static void putString(ByteBuffer out, String text){
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            length += c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+        }
+        putVarint(out, length);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | (c >> 6)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            } else {
+                out.put((byte) (0xE0 | (c >> 12)));
+                out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    private static String getString(ByteBuffer in){
+        int length = getVarint(in);
+        if (length < 0 || length > in.remaining()) {
+            throw new IllegalArgumentException("Encoded character has a malformed name");
+        }
+        char[] chars = new char[length];
+        int count = 0;
+        int end = in.position() + length;
+        while (in.position() < end) {
+            int b = in.get() & 0xff;
+            if (b < 0x80) {
+                chars[count++] = (char) b;
+            } else if (b >= 0xC0 && b < 0xE0 && in.position() < end) {
+                chars[count++] = (char) ((b & 0x1F) << 6 | (in.get() & 0x3F));
+            } else if (b >= 0xE0 && b < 0xF0 && in.position() + 1 < end) {
+                chars[count++] = (char) ((b & 0x0F) << 12 | (in.get() & 0x3F) << 6 | (in.get() & 0x3F));
+            } else {
+                throw new IllegalArgumentException("Encoded character has a malformed name");
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    private static void putZigzag(ByteBuffer out, int value){
+        putVarint(out, (value << 1) ^ (value >> 31));
+    }
+
+    private static int getZigzag(ByteBuffer in){
+        int raw = getVarint(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    private static void putVarint(ByteBuffer out, int value){
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static int getVarint(ByteBuffer in){
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Encoded character has a malformed number");
+    }
+
+    private IllegalStateException notInRulebook(String described){
+        return new IllegalStateException(described + " is not in rulebook " + rulebook.getName());
+    }
+
+    private static <T> T byId(List<T> items, int id, String kind){
+        if (id < 0 || id >= items.size()) {
+            throw new IllegalArgumentException("Encoded character has unknown " + kind.toLowerCase() + " id " + id);
+        }
+        return items.get(id);
+    }
+}
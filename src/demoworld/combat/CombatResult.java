@@ -0,0 +1,173 @@
+package demoworld.combat;
+
+/**
+ * The totals of a run of encounters
+ */
+public class CombatResult {
+
+    private long encounters;
+    private long firstSideWins;
+    private long secondSideWins;
+    private long draws;
+    private long ticks;
+    private long attacks;
+    private long guards;
+    private long damage;
+    private long absorbed;
+    private long downed;
+
+    /**
+     * Constructs an empty result
+     */
+    CombatResult(){
+    }
+
+    /**
+     * Adds another result to this one
+     * @param other the result to add
+     */
+    void add(CombatResult other){
+        encounters += other.encounters;
+        firstSideWins += other.firstSideWins;
+        secondSideWins += other.secondSideWins;
+        draws += other.draws;
+        ticks += other.ticks;
+        attacks += other.attacks;
+        guards += other.guards;
+        damage += other.damage;
+        absorbed += other.absorbed;
+        downed += other.downed;
+    }
+
+    /**
+     * Records the end of an encounter
+     * @param winner 0 if the first side won, 1 if the second side won, -1 for a draw
+     * @param encounterTicks the number of ticks the encounter took
+     */
+    void recordEncounter(int winner, int encounterTicks){
+        encounters++;
+        ticks += encounterTicks;
+        if (winner == 0) {
+            firstSideWins++;
+        } else if (winner == 1) {
+            secondSideWins++;
+        } else {
+            draws++;
+        }
+    }
+
+    /**
+     * Records one hit
+     * @param amount the damage of the hit
+     * @param soaked the part of it the temp hp took
+     * @param wasDowned true if the hit downed the target
+     */
+    void recordAttack(int amount, int soaked, boolean wasDowned){
+        attacks++;
+        damage += amount;
+        absorbed += soaked;
+        if (wasDowned) {
+            downed++;
+        }
+    }
+
+    /**
+     * Records a combatant guarding
+     */
+    void recordGuard(){
+        guards++;
+    }
+
+    /**
+     * Gets the number of encounters run
+     * @return the number of encounters run
+     */
+    public long getEncounters(){
+        return encounters;
+    }
+
+    /**
+     * Gets the number of encounters the first side won
+     * @return the number of encounters the first side won
+     */
+    public long getFirstSideWins(){
+        return firstSideWins;
+    }
+
+    /**
+     * Gets the number of encounters the second side won
+     * @return the number of encounters the second side won
+     */
+    public long getSecondSideWins(){
+        return secondSideWins;
+    }
+
+    /**
+     * Gets the number of encounters that ran out of ticks with both sides standing
+     * @return the number of draws
+     */
+    public long getDraws(){
+        return draws;
+    }
+
+    /**
+     * Gets the number of ticks over all encounters
+     * @return the number of ticks over all encounters
+     */
+    public long getTicks(){
+        return ticks;
+    }
+
+    /**
+     * Gets the number of hits, the damage events, over all encounters
+     * @return the number of hits over all encounters
+     */
+    public long getAttacks(){
+        return attacks;
+    }
+
+    /**
+     * Gets the number of times a combatant guarded over all encounters
+     * @return the number of guards over all encounters
+     */
+    public long getGuards(){
+        return guards;
+    }
+
+    /**
+     * Gets the total damage of every hit, including what temp hp took
+     * @return the total damage of every hit
+     */
+    public long getDamage(){
+        return damage;
+    }
+
+    /**
+     * Gets the damage temp hp took instead of the hitpoints
+     * @return the damage temp hp took
+     */
+    public long getAbsorbed(){
+        return absorbed;
+    }
+
+    /**
+     * Gets the number of combatants downed over all encounters
+     * @return the number of combatants downed
+     */
+    public long getDowned(){
+        return downed;
+    }
+
+    /**
+     * Returns a summary of the results
+     * @return a summary of the results
+     */
+    @Override
+    public String toString(){
+        return String.format("%d encounters: %d / %d / %d draws, %.2f ticks each, %d hits for %d damage"
+                        + " (%d absorbed), %d guards, %d downed",
+                encounters, firstSideWins, secondSideWins, draws,
+                encounters == 0 ? 0.0 : (double) ticks / encounters,
+                attacks, damage, absorbed, guards, downed);
+    }
+}
@@ -0,0 +1,87 @@
+package demoworld.combat;
+
+/**
+ * The rules an encounter is fought by. Every tick each combatant still standing either guards, setting
+ * its temp hp, or attacks a random standing opponent for a die roll plus one of its stats. Damage goes
+ * through the same steps as Hitpoints.damage, temp hp first then the base hitpoints
+ */
+public class CombatRules {
+
+    private final int dieSides;
+    private final String damageStat;
+    private final int guardPercent;
+    private final int guardTempHp;
+    private final int maxTicks;
+
+    /**
+     * Constructs the rules for an encounter
+     * @param dieSides the number of sides on the damage die, at least 1
+     * @param damageStat the name of the stat whose total is added to every hit, or null for none
+     * @param guardPercent the chance out of 100 that a combatant guards instead of attacking
+     * @param guardTempHp the temp hp a guarding combatant sets itself to
+     * @param maxTicks the number of ticks after which an encounter with both sides standing is a draw
+     */
+    public CombatRules(int dieSides,
+                       String damageStat,
+                       int guardPercent,
+                       int guardTempHp,
+                       int maxTicks){
+        if (dieSides < 1 || maxTicks < 1 || guardPercent < 0 || guardPercent > 100) {
+            throw new IllegalArgumentException("Combat rules need a die with a side, a tick and a guard chance from 0 to 100");
+        }
+        this.dieSides = dieSides;
+        this.damageStat = damageStat;
+        this.guardPercent = guardPercent;
+        this.guardTempHp = guardTempHp;
+        this.maxTicks = maxTicks;
+    }
+
+    /**
+     * The rules used when none are given: a d6 plus force, a one in ten chance to guard for 2 temp hp,
+     * and a draw after 100 ticks
+     * @return the default rules
+     */
+    public static CombatRules standard(){
+        return new CombatRules(6, "force", 10, 2, 100);
+    }
+
+    /**
+     * Gets the number of sides on the damage die
+     * @return the number of sides on the damage die
+     */
+    public int getDieSides(){
+        return dieSides;
+    }
+
+    /**
+     * Gets the name of the stat added to every hit
+     * @return the name of the stat added to every hit, or null for none
+     */
+    public String getDamageStat(){
+        return damageStat;
+    }
+
+    /**
+     * Gets the chance out of 100 that a combatant guards instead of attacking
+     * @return the chance out of 100 that a combatant guards
+     */
+    public int getGuardPercent(){
+        return guardPercent;
+    }
+
+    /**
+     * Gets the temp hp a guarding combatant sets itself to
+     * @return the temp hp a guarding combatant sets itself to
+     */
+    public int getGuardTempHp(){
+        return guardTempHp;
+    }
+
+    /**
+     * Gets the number of ticks after which an encounter is a draw
+     * @return the number of ticks after which an encounter is a draw
+     */
+    public int getMaxTicks(){
+        return maxTicks;
+    }
+}
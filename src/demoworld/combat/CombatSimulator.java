@@ -0,0 +1,232 @@
+package demoworld.combat;
+
+import demoworld.model.Character;
+import demoworld.model.Hitpoints;
+import demoworld.model.Stat;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Runs many independent encounters between two sides of characters at the same time and adds up what
+ * happened. The characters themselves are never changed: their hitpoints are copied into plain int arrays
+ * once, and each encounter starts again from those.
+ * <p>
+ * Damage follows Hitpoints exactly: temp hp takes a hit first and is used up before the base hitpoints
+ * take the rest, the base is kept within its minimum and maximum, and a combatant is downed once its
+ * total equals its total minimum, the same as Hitpoints.isDead. Damage and healing only ever move the
+ * base, so the modifier stays as the character had it.
+ * <p>
+ * Encounters are run in fixed size chunks that each get their own random split from the seed in chunk
+ * order, so the result for a seed does not depend on how many threads did the work
+ */
+public class CombatSimulator {
+
+    /** the number of encounters run from one random split */
+    private static final int CHUNK_SIZE = 1024;
+
+    private final CombatRules rules;
+    private final int count;
+    private final int[] side;
+    private final int[] order;
+    private final int[] baseMin;
+    private final int[] baseMax;
+    private final int[] startingBase;
+    private final int[] startingTempHp;
+    private final int[] modifierCurrent;
+    private final int[] downedTotal;
+    private final int[] bonus;
+
+    /**
+     * Constructs a simulator for encounters between two sides
+     * @param firstSide the characters on the first side
+     * @param secondSide the characters on the second side
+     * @param rules the rules the encounters are fought by
+     * @throws IllegalStateException if a character has no Hitpoints stat
+     */
+    public CombatSimulator(List<Character> firstSide, List<Character> secondSide, CombatRules rules)
+            throws IllegalStateException {
+        this.rules = rules;
+        this.count = firstSide.size() + secondSide.size();
+        this.side = new int[count];
+        this.baseMin = new int[count];
+        this.baseMax = new int[count];
+        this.startingBase = new int[count];
+        this.startingTempHp = new int[count];
+        this.modifierCurrent = new int[count];
+        this.downedTotal = new int[count];
+        this.bonus = new int[count];
+        for (int i = 0; i < count; i++) {
+            boolean first = i < firstSide.size();
+            Character character = first ? firstSide.get(i) : secondSide.get(i - firstSide.size());
+            Stat stat = character.getStatByName("hitpoints");
+            if (!(stat instanceof Hitpoints)) {
+                throw new IllegalStateException("Character " + character.getName() + " has no Hitpoints stat");
+            }
+            Hitpoints hitpoints = (Hitpoints) stat;
+            side[i] = first ? 0 : 1;
+            baseMin[i] = hitpoints.getBase().min();
+            baseMax[i] = hitpoints.getBase().max();
+            startingBase[i] = hitpoints.getBase().current();
+            startingTempHp[i] = hitpoints.getTempHp();
+            modifierCurrent[i] = hitpoints.getModifier().current();
+            downedTotal[i] = hitpoints.getTotalMin();
+            bonus[i] = rules.getDamageStat() == null ? 0 : character.getStatByName(rules.getDamageStat()).getTotal();
+        }
+        // the two sides take turns, first side first
+        this.order = new int[count];
+        int next = 0;
+        for (int i = 0; i < Math.max(firstSide.size(), secondSide.size()); i++) {
+            if (i < firstSide.size()) {
+                order[next++] = i;
+            }
+            if (i < secondSide.size()) {
+                order[next++] = firstSide.size() + i;
+            }
+        }
+    }
+
+    /**
+     * Runs the given number of encounters. The same seed always gives the same result
+     * @param encounters the number of encounters to run
+     * @param seed the seed for the random choices
+     * @return the totals of all the encounters
+     */
+    public CombatResult run(int encounters, long seed){
+        int chunks = (encounters + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[chunks];
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            randoms[chunk] = root.split();
+        }
+        CombatResult[] results = new CombatResult[chunks];
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            Arena arena = new Arena();
+            int end = Math.min(encounters, (chunk + 1) * CHUNK_SIZE);
+            for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+                arena.fight(randoms[chunk]);
+            }
+            results[chunk] = arena.result;
+        });
+        CombatResult total = new CombatResult();
+        for (CombatResult result : results) {
+            total.add(result);
+        }
+        return total;
+    }
+
+    /**
+     * Runs the given number of encounters from a random seed
+     * @param encounters the number of encounters to run
+     * @return the totals of all the encounters
+     */
+    public CombatResult run(int encounters){
+        return run(encounters, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Applies a hit to a combatant the way Hitpoints.damage does
+     * @param value the damage of the hit
+     * @param base the base hitpoints of every combatant, the target's is changed
+     * @param tempHp the temp hp of every combatant, the target's is changed
+     * @param target the combatant being hit
+     * @return the part of the hit the temp hp took
+     */
+    int damage(int value, int[] base, int[] tempHp, int target){
+        int temp = tempHp[target];
+        int soaked = 0;
+        if (temp > 0) {
+            if (value <= temp) {
+                tempHp[target] = Math.max(0, temp - value);
+                return value;
+            }
+            value -= temp;
+            soaked = temp;
+            tempHp[target] = 0;
+        }
+        int current = base[target] - value;
+        base[target] = current < baseMin[target] ? baseMin[target] : Math.min(current, baseMax[target]);
+        return soaked;
+    }
+
+    /**
+     * Checks a combatant the way Hitpoints.isDead does
+     * @param base the base hitpoints of every combatant
+     * @param target the combatant to check
+     * @return true if the combatant is downed
+     */
+    boolean isDowned(int[] base, int target){
+        return base[target] + modifierCurrent[target] == downedTotal[target];
+    }
+
+    /**
+     * The state of one encounter, reused from one encounter to the next by the thread running a chunk
+     */
+    private final class Arena {
+
+        private final int[] base = new int[count];
+        private final int[] tempHp = new int[count];
+        /** the standing combatants of each side, with where each one sits in its sides list */
+        private final int[][] standing = {new int[count], new int[count]};
+        private final int[] standingCount = new int[2];
+        private final int[] slot = new int[count];
+        private final boolean[] down = new boolean[count];
+        private final CombatResult result = new CombatResult();
+
+        void fight(SplittableRandom random){
+            standingCount[0] = 0;
+            standingCount[1] = 0;
+            for (int i = 0; i < count; i++) {
+                base[i] = startingBase[i];
+                tempHp[i] = startingTempHp[i];
+                down[i] = isDowned(base, i);
+                if (!down[i]) {
+                    int s = side[i];
+                    slot[i] = standingCount[s];
+                    standing[s][standingCount[s]++] = i;
+                }
+            }
+
+            int dieSides = rules.getDieSides();
+            int guardPercent = rules.getGuardPercent();
+            int guardTempHp = rules.getGuardTempHp();
+            int maxTicks = rules.getMaxTicks();
+            int ticks = 0;
+            while (standingCount[0] > 0 && standingCount[1] > 0 && ticks < maxTicks) {
+                ticks++;
+                for (int turn = 0; turn < count; turn++) {
+                    int attacker = order[turn];
+                    int own = side[attacker];
+                    int other = 1 - own;
+                    if (standingCount[other] == 0) {
+                        break;
+                    }
+                    if (down[attacker]) {
+                        continue;
+                    }
+                    if (guardPercent > 0 && random.nextInt(100) < guardPercent) {
+                        // setTempHp never goes below zero
+                        tempHp[attacker] = Math.max(0, guardTempHp);
+                        result.recordGuard();
+                        continue;
+                    }
+                    int target = standing[other][random.nextInt(standingCount[other])];
+                    int amount = Math.max(0, 1 + random.nextInt(dieSides) + bonus[attacker]);
+                    int soaked = damage(amount, base, tempHp, target);
+                    boolean downed = isDowned(base, target);
+                    if (downed) {
+                        down[target] = true;
+                        int last = standing[other][--standingCount[other]];
+                        standing[other][slot[target]] = last;
+                        slot[last] = slot[target];
+                    }
+                    result.recordAttack(amount, soaked, downed);
+                }
+            }
+            int winner = standingCount[1] == 0 && standingCount[0] > 0 ? 0
+                    : standingCount[0] == 0 && standingCount[1] > 0 ? 1 : -1;
+            result.recordEncounter(winner, ticks);
+        }
+    }
+}
@@ -0,0 +1,821 @@
+package demoworld.journal;
+
+import demoworld.codec.CharacterCodec;
+import demoworld.model.Character;
+import demoworld.model.CharacterListener;
+import demoworld.model.Experience;
+import demoworld.model.Feature;
+import demoworld.model.Hitpoints;
+import demoworld.model.RuleBook;
+import demoworld.model.Specialty;
+import demoworld.model.Stat;
+import demoworld.model.StatManager;
+import demoworld.model.Value;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * A write-ahead journal of the changes made to a set of characters, kept in a directory so the characters
+ * can be rebuilt after the program stops, however it stops.
+ * <p>
+ * Every change made to an attached character is added to the journal as a small entry: the character
+ * methods (addFeature, removeFeature, addSpecialty, damage, heal, adjustXp, setName) as themselves, and
+ * changes made directly to a Stat or the Experience as the state they left it in. Entries are collected
+ * in memory and written by one writer thread, which forces each batch to disk with a single fsync while
+ * the next batch collects, so the number of fsyncs follows the speed of the disk rather than the number
+ * of changes. Changing a character never waits for the disk unless the collected entries have filled the
+ * buffer, commit waits until everything added so far is durable.
+ * <p>
+ * The directory holds a checkpoint file, every attached character encoded with CharacterCodec together with
+ * the number of the log segment that follows it, and the log segments {@code journal-<n>.log}. Each entry
+ * in a segment is framed by its length and a CRC32 of its bytes, so opening the journal replays the
+ * checkpoint then the segments after it and stops at the first entry that was torn by a crash.
+ * <p>
+ * Different characters can be changed from different threads. A checkpoint has to be taken while no
+ * attached character is being changed, since a change made while its state is copied would be replayed twice
+ */
+public class Journal implements Closeable {
+
+    private static final int SEGMENT_MAGIC = 0x44574A4C;
+    private static final int CHECKPOINT_MAGIC = 0x44574A43;
+    private static final int VERSION = 1;
+    private static final int SEGMENT_HEADER_BYTES = 16;
+    private static final int FRAME_HEADER_BYTES = 8;
+    private static final String CHECKPOINT = "checkpoint";
+
+    /** the most bytes an entry other than CREATE or SET_NAME can take */
+    private static final int SMALL_ENTRY_BYTES = 64;
+
+    /** how many bytes of entries may wait for the writer before changes block */
+    private static final int DEFAULT_BUFFER_BYTES = 1 << 20;
+
+    static final byte CREATE = 1;
+    static final byte DELETE = 2;
+    static final byte SET_NAME = 3;
+    static final byte ADD_FEATURE = 4;
+    static final byte REMOVE_FEATURE = 5;
+    static final byte ADD_SPECIALTY = 6;
+    static final byte DAMAGE = 7;
+    static final byte HEAL = 8;
+    static final byte ADJUST_XP = 9;
+    static final byte SET_STAT = 10;
+    static final byte SET_XP = 11;
+
+    private final Path directory;
+    private final RuleBook rulebook;
+    private final CharacterCodec codec;
+    private final List<Feature> features;
+    private final List<Specialty> specialties;
+    private final int bufferBytes;
+
+    /** guards everything below, and is waited on for room in the buffer and for durability */
+    private final Object lock = new Object();
+    private final Map<Integer, Character> characters = new LinkedHashMap<>();
+    private final Map<Character, Integer> ids = new IdentityHashMap<>();
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer pending;
+    private ByteBuffer spare;
+    private int entryStart;
+    private long appended;
+    private long durable;
+    private long segmentNumber;
+    private FileChannel segment;
+    private int nextId;
+    private IOException failure;
+    private boolean closed;
+
+    private final Thread writer;
+
+    /**
+     * The listener attached to each character, turning its changes into entries
+     */
+    private final class Recorder implements CharacterListener {
+        private final int id;
+
+        Recorder(int id){
+            this.id = id;
+        }
+
+        @Override
+        public void nameChanged(Character character, String name){
+            synchronized (lock) {
+                ByteBuffer out = begin(id, SET_NAME, 5 + 3 * name.length());
+                putVarint(out, name.length());
+                for (int i = 0; i < name.length(); i++) {
+                    putVarint(out, name.charAt(i));
+                }
+                end();
+            }
+        }
+
+        @Override
+        public void featureAdded(Character character, Feature feature){
+            recordId(id, ADD_FEATURE, featureId(feature));
+        }
+
+        @Override
+        public void featureRemoved(Character character, Feature feature){
+            recordId(id, REMOVE_FEATURE, featureId(feature));
+        }
+
+        @Override
+        public void specialtyAdded(Character character, Specialty specialty){
+            int specialtyId = specialty.getId();
+            if (specialtyId < 0 || specialtyId >= specialties.size() || specialties.get(specialtyId) != specialty) {
+                throw new IllegalStateException("Specialty " + specialty.getName() + " is not in rulebook " + rulebook.getName());
+            }
+            recordId(id, ADD_SPECIALTY, specialtyId);
+        }
+
+        @Override
+        public void damaged(Character character, int value){
+            recordAmount(id, DAMAGE, value);
+        }
+
+        @Override
+        public void healed(Character character, int value){
+            recordAmount(id, HEAL, value);
+        }
+
+        @Override
+        public void experienceAdjusted(Character character, int value){
+            recordAmount(id, ADJUST_XP, value);
+        }
+
+        @Override
+        public void statChanged(Character character, int slot, Stat stat){
+            synchronized (lock) {
+                ByteBuffer out = begin(id, SET_STAT, SMALL_ENTRY_BYTES);
+                putVarint(out, slot);
+                putValue(out, stat.getBase());
+                putValue(out, stat.getModifier());
+                putZigzag(out, stat instanceof Hitpoints ? ((Hitpoints) stat).getTempHp() : 0);
+                end();
+            }
+        }
+
+        @Override
+        public void experienceChanged(Character character, Experience experience){
+            synchronized (lock) {
+                ByteBuffer out = begin(id, SET_XP, SMALL_ENTRY_BYTES);
+                putValue(out, experience);
+                end();
+            }
+        }
+    }
+
+    private Journal(Path directory, RuleBook rulebook, int bufferBytes){
+        this.directory = directory;
+        this.rulebook = rulebook;
+        this.codec = new CharacterCodec(rulebook);
+        this.features = rulebook.getFeaturesReference();
+        this.specialties = rulebook.getSpecialtiesReference();
+        this.bufferBytes = bufferBytes;
+        this.pending = ByteBuffer.allocate(bufferBytes);
+        this.spare = ByteBuffer.allocate(bufferBytes);
+        this.writer = new Thread(this::drain, "journal-writer");
+        // a journal left open does not keep the program running, only committed entries are promised anyway
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Opens the journal in a directory, creating it if there is none, and rebuilds the characters it holds
+     * from the latest checkpoint and the log after it. The rebuilt characters are attached, and a new
+     * checkpoint is taken so the log they were rebuilt from can be removed
+     * @param directory the directory holding the journal
+     * @param rulebook the rulebook the characters are built from
+     * @return the opened journal
+     * @throws IOException if the journal can not be read or written, or holds something that is not a journal
+     */
+    public static Journal open(Path directory, RuleBook rulebook)
+            throws IOException {
+        return open(directory, rulebook, DEFAULT_BUFFER_BYTES);
+    }
+
+    /**
+     * Opens the journal in a directory the same way as open(directory, rulebook), with a chosen amount of
+     * room for entries waiting to be written
+     * @param directory the directory holding the journal
+     * @param rulebook the rulebook the characters are built from
+     * @param bufferBytes how many bytes of entries may wait for the writer before changes to characters block
+     * @return the opened journal
+     * @throws IOException if the journal can not be read or written, or holds something that is not a journal
+     */
+    public static Journal open(Path directory, RuleBook rulebook, int bufferBytes)
+            throws IOException {
+        if (bufferBytes < SMALL_ENTRY_BYTES) {
+            throw new IllegalArgumentException("A journal needs room for at least " + SMALL_ENTRY_BYTES + " bytes of entries");
+        }
+        Files.createDirectories(directory);
+        Journal journal = new Journal(directory, rulebook, bufferBytes);
+        journal.recover();
+        synchronized (journal.lock) {
+            for (Map.Entry<Integer, Character> entry : journal.characters.entrySet()) {
+                journal.ids.put(entry.getValue(), entry.getKey());
+            }
+            journal.startSegment();
+        }
+        journal.writer.start();
+        for (Map.Entry<Integer, Character> entry : journal.characters.entrySet()) {
+            entry.getValue().setListener(journal.new Recorder(entry.getKey()));
+        }
+        return journal;
+    }
+
+    /**
+     * Adds a character to the journal, recording its current state and every change made to it from now on
+     * @param character the character to add, which must not be attached to another listener
+     * @return the id of the character in the journal
+     * @throws IllegalStateException if the character is already in the journal or the journal is closed
+     */
+    public int attach(Character character){
+        int id;
+        synchronized (lock) {
+            if (ids.containsKey(character)) {
+                throw new IllegalStateException("Character " + character.getName() + " is already in the journal");
+            }
+            id = nextId++;
+            ByteBuffer out = begin(id, CREATE, codec.maxEncodedSize(character));
+            codec.encode(character, out);
+            end();
+            characters.put(id, character);
+            ids.put(character, id);
+        }
+        character.setListener(new Recorder(id));
+        return id;
+    }
+
+    /**
+     * Removes a character from the journal, it is not rebuilt when the journal is opened again
+     * @param id the id of the character
+     * @throws IllegalStateException if there is no character with the id or the journal is closed
+     */
+    public void detach(int id){
+        Character character;
+        synchronized (lock) {
+            character = characters.get(id);
+            if (character == null) {
+                throw new IllegalStateException("There is no character " + id + " in the journal");
+            }
+            begin(id, DELETE, SMALL_ENTRY_BYTES);
+            end();
+            characters.remove(id);
+            ids.remove(character);
+        }
+        character.setListener(null);
+    }
+
+    /**
+     * Gets the character with the given id
+     * @param id the id of the character
+     * @return the character, or null if there is none with the id
+     */
+    public Character get(int id){
+        synchronized (lock) {
+            return characters.get(id);
+        }
+    }
+
+    /**
+     * Gets every character in the journal by id, in the order they were added
+     * @return a new unmodifiable map of the characters in the journal
+     */
+    public Map<Integer, Character> characters(){
+        synchronized (lock) {
+            return Collections.unmodifiableMap(new LinkedHashMap<>(characters));
+        }
+    }
+
+    /**
+     * Waits until every entry added so far has been forced to disk
+     * @throws IOException if the writer failed to write or force an entry
+     */
+    public void commit()
+            throws IOException {
+        synchronized (lock) {
+            long target = appended;
+            while (durable < target && failure == null) {
+                waitOnLock();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Writes a new checkpoint holding the current state of every character, starts a new log segment
+     * and removes the segments the checkpoint replaces. No attached character may be changed until this returns
+     * @throws IOException if the checkpoint can not be written
+     */
+    public void checkpoint()
+            throws IOException {
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            commit();
+            startSegment();
+        }
+    }
+
+    /**
+     * Writes out and forces every entry added so far, then stops the writer and detaches the characters
+     * @throws IOException if the last entries could not be written
+     */
+    @Override
+    public void close()
+            throws IOException {
+        List<Character> attached;
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            attached = new ArrayList<>(characters.values());
+            lock.notifyAll();
+        }
+        for (Character character : attached) {
+            character.setListener(null);
+        }
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (lock) {
+            segment.close();
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Loop run by the writer thread: takes everything collected, writes it and forces it as one batch
+     */
+    private void drain(){
+        while (true) {
+            ByteBuffer batch;
+            FileChannel channel;
+            long upTo;
+            synchronized (lock) {
+                while (pending.position() == 0 && !closed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        // only close stops the writer
+                    }
+                }
+                if (pending.position() == 0 || failure != null) {
+                    return;
+                }
+                batch = pending;
+                pending = spare;
+                spare = null;
+                channel = segment;
+                upTo = appended;
+                // room has opened up for appends waiting on a full buffer
+                lock.notifyAll();
+            }
+            IOException failed = null;
+            try {
+                batch.flip();
+                while (batch.hasRemaining()) {
+                    channel.write(batch);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                failed = e;
+            }
+            synchronized (lock) {
+                batch.clear();
+                if (batch.capacity() > bufferBytes) {
+                    batch = ByteBuffer.allocate(bufferBytes);
+                }
+                spare = batch;
+                if (failed == null) {
+                    durable = upTo;
+                } else {
+                    failure = failed;
+                }
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Starts an entry in the buffer, waiting for the writer when the buffer has no room for it.
+     * Must be called holding the lock, and followed by end once the entry is written
+     * @param id the id of the character the entry is about
+     * @param op what the entry records
+     * @param maxBytes the most bytes the rest of the entry can take
+     * @return the buffer to write the rest of the entry into
+     * @throws IllegalStateException if the journal is closed, before or while waiting for room
+     */
+    private ByteBuffer begin(int id, byte op, int maxBytes){
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Journal writer failed", failure);
+        }
+        int needed = FRAME_HEADER_BYTES + 5 + 1 + maxBytes;
+        while (pending.remaining() < needed && pending.position() > 0) {
+            waitOnLock();
+            // close may have come in while waiting, and the writer stops once the buffer is empty
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            if (failure != null) {
+                throw new UncheckedIOException("Journal writer failed", failure);
+            }
+        }
+        if (pending.remaining() < needed) {
+            // an entry larger than the whole buffer gets a buffer of its own
+            pending = ByteBuffer.allocate(needed);
+        }
+        entryStart = pending.position();
+        pending.position(entryStart + FRAME_HEADER_BYTES);
+        putVarint(pending, id);
+        pending.put(op);
+        return pending;
+    }
+
+    /**
+     * Finishes the entry started by begin, filling in its length and CRC
+     */
+    private void end(){
+        int start = entryStart;
+        int length = pending.position() - start - FRAME_HEADER_BYTES;
+        crc.reset();
+        crc.update(pending.array(), start + FRAME_HEADER_BYTES, length);
+        pending.putInt(start, length);
+        pending.putInt(start + 4, (int) crc.getValue());
+        appended++;
+        lock.notifyAll();
+    }
+
+    private void recordId(int id, byte op, int value){
+        synchronized (lock) {
+            putVarint(begin(id, op, SMALL_ENTRY_BYTES), value);
+            end();
+        }
+    }
+
+    private void recordAmount(int id, byte op, int value){
+        synchronized (lock) {
+            putZigzag(begin(id, op, SMALL_ENTRY_BYTES), value);
+            end();
+        }
+    }
+
+    private int featureId(Feature feature){
+        int id = feature.getId();
+        if (id < 0 || id >= features.size() || features.get(id) != feature) {
+            throw new IllegalStateException("Feature " + feature.getName() + " is not in rulebook " + rulebook.getName());
+        }
+        return id;
+    }
+
+    private void waitOnLock(){
+        try {
+            lock.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the journal writer");
+        }
+    }
+
+    /**
+     * Creates the next log segment, writes a checkpoint pointing at it, then switches to it and removes the
+     * older segments. A crash part way through leaves either the old checkpoint and segments, with an empty
+     * segment after them, or the new checkpoint and some segments it no longer needs. Must be called holding
+     * the lock with nothing waiting to be written
+     */
+    private void startSegment()
+            throws IOException {
+        long number = segmentNumber + 1;
+        FileChannel next = FileChannel.open(segmentPath(number),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES);
+            header.putInt(SEGMENT_MAGIC).putInt(VERSION).putLong(number).flip();
+            while (header.hasRemaining()) {
+                next.write(header);
+            }
+            next.force(false);
+            writeCheckpoint(number);
+        } catch (IOException | RuntimeException e) {
+            next.close();
+            throw e;
+        }
+        if (segment != null) {
+            segment.close();
+        }
+        segment = next;
+        segmentNumber = number;
+        for (long old : segmentNumbers()) {
+            if (old < number) {
+                Files.deleteIfExists(segmentPath(old));
+            }
+        }
+    }
+
+    private void writeCheckpoint(long number)
+            throws IOException {
+        int size = 4 + 4 + 8 + 4 + 4 + 4;
+        for (Character character : characters.values()) {
+            size += 8 + codec.maxEncodedSize(character);
+        }
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.putInt(CHECKPOINT_MAGIC).putInt(VERSION).putLong(number).putInt(nextId).putInt(characters.size());
+        for (Map.Entry<Integer, Character> entry : characters.entrySet()) {
+            out.putInt(entry.getKey());
+            int lengthAt = out.position();
+            out.position(lengthAt + 4);
+            codec.encode(entry.getValue(), out);
+            out.putInt(lengthAt, out.position() - lengthAt - 4);
+        }
+        CRC32 sum = new CRC32();
+        sum.update(out.array(), 0, out.position());
+        out.putInt((int) sum.getValue());
+        out.flip();
+
+        Path temp = directory.resolve(CHECKPOINT + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        // make the rename itself durable, where the platform lets a directory be forced
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // not every platform can open a directory, the rename is still atomic
+        }
+    }
+
+    /**
+     * Rebuilds the characters from the checkpoint, if there is one, and the log segments after it
+     */
+    private void recover()
+            throws IOException {
+        Path checkpoint = directory.resolve(CHECKPOINT);
+        long first = 0;
+        if (Files.exists(checkpoint)) {
+            first = readCheckpoint(checkpoint);
+        }
+        List<Long> numbers = segmentNumbers();
+        long last = first;
+        for (long number : numbers) {
+            last = Math.max(last, number);
+        }
+        for (long number : numbers) {
+            if (number < first) {
+                continue;
+            }
+            if (!replay(number)) {
+                // anything after a torn entry was never acknowledged
+                break;
+            }
+        }
+        segmentNumber = last;
+    }
+
+    private long readCheckpoint(Path checkpoint)
+            throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(checkpoint));
+        try {
+            if (in.remaining() < 28 || in.getInt() != CHECKPOINT_MAGIC || in.getInt() != VERSION) {
+                throw new IOException("File " + checkpoint + " is not a version " + VERSION + " journal checkpoint");
+            }
+            CRC32 sum = new CRC32();
+            sum.update(in.array(), 0, in.limit() - 4);
+            if ((int) sum.getValue() != in.getInt(in.limit() - 4)) {
+                throw new IOException("Journal checkpoint " + checkpoint + " is damaged");
+            }
+            long number = in.getLong();
+            nextId = in.getInt();
+            int count = in.getInt();
+            for (int i = 0; i < count; i++) {
+                int id = in.getInt();
+                int length = in.getInt();
+                ByteBuffer encoded = in.slice(in.position(), length);
+                characters.put(id, codec.decode(encoded));
+                in.position(in.position() + length);
+            }
+            return number;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Journal checkpoint " + checkpoint + " is damaged", e);
+        }
+    }
+
+    /**
+     * Replays every whole entry in a log segment
+     * @return true if the segment ended cleanly, false if it ended in a torn entry
+     */
+    private boolean replay(long number)
+            throws IOException {
+        Path path = segmentPath(number);
+        MappedByteBuffer in;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (in.remaining() < SEGMENT_HEADER_BYTES) {
+            return false;
+        }
+        if (in.getInt() != SEGMENT_MAGIC || in.getInt() != VERSION || in.getLong() != number) {
+            throw new IOException("File " + path + " is not a version " + VERSION + " journal segment");
+        }
+        CRC32 sum = new CRC32();
+        while (in.hasRemaining()) {
+            if (in.remaining() < FRAME_HEADER_BYTES) {
+                return false;
+            }
+            int length = in.getInt();
+            int expected = in.getInt();
+            if (length < 2 || length > in.remaining()) {
+                return false;
+            }
+            ByteBuffer entry = in.slice(in.position(), length);
+            sum.reset();
+            sum.update(entry.duplicate());
+            if ((int) sum.getValue() != expected) {
+                return false;
+            }
+            in.position(in.position() + length);
+            try {
+                apply(entry);
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                throw new IOException("Journal segment " + path + " holds an entry that can not be replayed", e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Applies one entry to the characters being rebuilt
+     */
+    private void apply(ByteBuffer in){
+        int id = getVarint(in);
+        byte op = in.get();
+        if (op == CREATE) {
+            characters.put(id, codec.decode(in));
+            nextId = Math.max(nextId, id + 1);
+            return;
+        }
+        Character character = characters.get(id);
+        if (character == null) {
+            throw new IllegalArgumentException("Entry for unknown character " + id);
+        }
+        switch (op) {
+            case DELETE:
+                characters.remove(id);
+                break;
+            case SET_NAME:
+                char[] name = new char[getVarint(in)];
+                for (int i = 0; i < name.length; i++) {
+                    name[i] = (char) getVarint(in);
+                }
+                character.setName(new String(name));
+                break;
+            case ADD_FEATURE:
+                character.addFeature(byId(features, getVarint(in), "feature"));
+                break;
+            case REMOVE_FEATURE:
+                character.removeFeature(byId(features, getVarint(in), "feature"));
+                break;
+            case ADD_SPECIALTY:
+                character.addSpecialty(byId(specialties, getVarint(in), "specialty"));
+                break;
+            case DAMAGE:
+                character.damage(getZigzag(in));
+                break;
+            case HEAL:
+                character.heal(getZigzag(in));
+                break;
+            case ADJUST_XP:
+                character.adjustXp(getZigzag(in));
+                break;
+            case SET_STAT:
+                StatManager stats = character.getStat();
+                int slot = getVarint(in);
+                if (slot < 0 || slot >= stats.size()) {
+                    throw new IllegalArgumentException("Entry for unknown stat " + slot);
+                }
+                Stat stat = stats.get(slot);
+                getValue(in, stat.getBase());
+                getValue(in, stat.getModifier());
+                int tempHp = getZigzag(in);
+                if (stat instanceof Hitpoints) {
+                    ((Hitpoints) stat).setTempHp(tempHp);
+                }
+                break;
+            case SET_XP:
+                getValue(in, character.getExperience());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown entry type " + op);
+        }
+    }
+
+    private Path segmentPath(long number){
+        return directory.resolve("journal-" + number + ".log");
+    }
+
+    private List<Long> segmentNumbers()
+            throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                String name = file.getFileName().toString();
+                if (name.startsWith("journal-") && name.endsWith(".log")) {
+                    try {
+                        numbers.add(Long.parseLong(name.substring(8, name.length() - 4)));
+                    } catch (NumberFormatException e) {
+                        // not one of ours
+                    }
+                }
+            });
+        }
+        Collections.sort(numbers);
+        return numbers;
+    }
+
+    private static void putValue(ByteBuffer out, Value value){
+        putZigzag(out, value.min());
+        putZigzag(out, value.max());
+        putZigzag(out, value.current());
+    }
+
+    private static void getValue(ByteBuffer in, Value value){
+        int min = getZigzag(in);
+        int max = getZigzag(in);
+        int current = getZigzag(in);
+        value.set(min, max, current);
+    }
+
+    private static void putZigzag(ByteBuffer out, int value){
+        putVarint(out, (value << 1) ^ (value >> 31));
+    }
+
+    private static int getZigzag(ByteBuffer in){
+        int raw = getVarint(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    private static void putVarint(ByteBuffer out, int value){
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static int getVarint(ByteBuffer in){
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed number in journal entry");
+    }
+
+    private static <T> T byId(List<T> items, int id, String kind){
+        if (id < 0 || id >= items.size()) {
+            throw new IllegalArgumentException("Entry for unknown " + kind + " id " + id);
+        }
+        return items.get(id);
+    }
+}
@@ -0,0 +1,201 @@
+package demoworld.model;
+
+import demoworld.model.adjustments.Adjustment;
+import demoworld.model.adjustments.MaxHpAdjustment;
+import demoworld.model.adjustments.MaxXpAdjustment;
+import demoworld.model.adjustments.StatAdjustment;
+
+import java.util.List;
+
+/**
+ * The Adjustments of a Feature or Specialty compiled into a flat list of steps against the stat slots of one
+ * StatManager layout, so applying them is one loop with no stat lookups by name and no casts.
+ * The steps run in the same order as the adjustments they came from and change the stats through the same
+ * Stat and Value methods, so clamping, and any listener attached to the stats, see exactly what adjusting
+ * one adjustment at a time would. Adjustments the program does not know are kept as calls to the adjustment
+ */
+public final class AdjustmentProgram {
+
+    private static final byte MODIFIER = 0;
+    private static final byte MAX_BASE = 1;
+    private static final byte MAX_XP = 2;
+    private static final byte CALL = 3;
+
+    private final StatManager layout;
+    private final byte[] kinds;
+    private final int[] slots;
+    private final int[] deltas;
+    private final Adjustment[] calls;
+    private final AdjustmentProgram[] parts;
+
+    private AdjustmentProgram(StatManager layout, byte[] kinds, int[] slots, int[] deltas, Adjustment[] calls,
+                              AdjustmentProgram[] parts){
+        this.layout = layout;
+        this.kinds = kinds;
+        this.slots = slots;
+        this.deltas = deltas;
+        this.calls = calls;
+        this.parts = parts;
+    }
+
+    /**
+     * Compiles a list of adjustments against a stat layout
+     * @param adjustments the adjustments, in the order they are applied
+     * @param layout a StatManager with the layout of the characters the program will be applied to
+     * @return the compiled program
+     */
+    public static AdjustmentProgram compile(List<Adjustment> adjustments, StatManager layout){
+        int count = adjustments.size();
+        byte[] kinds = new byte[count];
+        int[] slots = new int[count];
+        int[] deltas = new int[count];
+        Adjustment[] calls = new Adjustment[count];
+        for (int i = 0; i < count; i++) {
+            Adjustment adjustment = adjustments.get(i);
+            kinds[i] = CALL;
+            calls[i] = adjustment;
+            if (adjustment instanceof StatAdjustment) {
+                StatAdjustment stat = (StatAdjustment) adjustment;
+                int slot = slotOf(layout, stat.getStatKey(), false);
+                if (slot >= 0) {
+                    kinds[i] = MODIFIER;
+                    slots[i] = slot;
+                    deltas[i] = stat.getValue();
+                }
+            } else if (adjustment instanceof MaxHpAdjustment) {
+                int slot = slotOf(layout, "hitpoints", true);
+                if (slot >= 0) {
+                    kinds[i] = MAX_BASE;
+                    slots[i] = slot;
+                    deltas[i] = ((MaxHpAdjustment) adjustment).getValue();
+                }
+            } else if (adjustment instanceof MaxXpAdjustment) {
+                kinds[i] = MAX_XP;
+                deltas[i] = ((MaxXpAdjustment) adjustment).getValue();
+            }
+            if (kinds[i] != CALL) {
+                calls[i] = null;
+            }
+        }
+        return new AdjustmentProgram(new StatManager(layout), kinds, slots, deltas, calls, new AdjustmentProgram[0]);
+    }
+
+    /**
+     * Joins programs compiled against the same layout into one that runs their steps one program after another
+     * @param programs the programs to join, all compiled against the same layout
+     * @param layout a StatManager with the layout the programs were compiled against
+     * @return the joined program
+     */
+    public static AdjustmentProgram concat(List<AdjustmentProgram> programs, StatManager layout){
+        int count = 0;
+        for (AdjustmentProgram program : programs) {
+            count += program.size();
+        }
+        byte[] kinds = new byte[count];
+        int[] slots = new int[count];
+        int[] deltas = new int[count];
+        Adjustment[] calls = new Adjustment[count];
+        int at = 0;
+        for (AdjustmentProgram program : programs) {
+            int size = program.size();
+            System.arraycopy(program.kinds, 0, kinds, at, size);
+            System.arraycopy(program.slots, 0, slots, at, size);
+            System.arraycopy(program.deltas, 0, deltas, at, size);
+            System.arraycopy(program.calls, 0, calls, at, size);
+            at += size;
+        }
+        return new AdjustmentProgram(new StatManager(layout), kinds, slots, deltas, calls,
+                programs.toArray(new AdjustmentProgram[0]));
+    }
+
+    /**
+     * Gets the number of programs this one was joined from by concat
+     * @return the number of joined programs, 0 for a compiled program
+     */
+    int partCount(){
+        return parts.length;
+    }
+
+    /**
+     * Gets one of the programs this one was joined from by concat
+     * @param index the position of the program
+     * @return the program at that position
+     */
+    AdjustmentProgram part(int index){
+        return parts[index];
+    }
+
+    /**
+     * Gets the number of steps in the program
+     * @return the number of steps
+     */
+    public int size(){
+        return kinds.length;
+    }
+
+    /**
+     * Returns if the program was compiled against the stat layout of the given stat manager
+     * @param stats the stat manager to check
+     * @return true if the program can be applied to characters with these stats, false otherwise
+     */
+    public boolean fits(StatManager stats){
+        return layout.sameLayout(stats);
+    }
+
+    /**
+     * Applies every step to a character, the same as adjusting with each adjustment in order
+     * @param character the character to adjust, whose stats must fit the program
+     */
+    public void apply(Character character){
+        run(character, 1);
+    }
+
+    /**
+     * Undoes every step on a character, the same as unadjusting with each adjustment in order
+     * @param character the character to unadjust, whose stats must fit the program
+     */
+    public void unapply(Character character){
+        run(character, -1);
+    }
+
+    private void run(Character character, int sign){
+        StatManager stats = character.getStat();
+        for (int i = 0; i < kinds.length; i++) {
+            switch (kinds[i]) {
+                case MODIFIER:
+                    stats.get(slots[i]).addToCurrentModifier(sign * deltas[i]);
+                    break;
+                case MAX_BASE:
+                    stats.get(slots[i]).addToMaxBase(sign * deltas[i]);
+                    break;
+                case MAX_XP:
+                    Experience experience = character.getExperience();
+                    experience.setMax(experience.max() + sign * deltas[i]);
+                    break;
+                default:
+                    if (sign > 0) {
+                        calls[i].adjust(character);
+                    } else {
+                        calls[i].unadjust(character);
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Resolves the slot an adjustment targets, or -1 to leave it as a call so it fails the same way it always did
+     */
+    private static int slotOf(StatManager layout, String name, boolean hitpoints){
+        int slot;
+        try {
+            slot = layout.handle(name);
+        } catch (IllegalStateException e) {
+            return -1;
+        }
+        if (hitpoints && !(layout.get(slot) instanceof Hitpoints)) {
+            return -1;
+        }
+        return slot;
+    }
+}
@@ -1,5 +1,7 @@
 package demoworld.model;
 
+import java.util.List;
+
 /**
  * A representation of a characters state in a rpg game
  */
@@ -12,6 +14,17 @@ public class Character {
     private FeatureManager featureManager;
     private SpecialtyManager specialtyManager;
 
+    private boolean tracking;
+    private EligibilityTracker<Feature> eligibleFeatures;
+    private boolean hitpointsDirty;
+    private boolean dead;
+    private boolean experienceDirty;
+    private boolean canLevelUp;
+
+    private boolean watching;
+    private CharacterListener listener;
+    private int applying;
+
     /**
      * Constructs a new Character with the given initial name and rulebook
      * @param name the initial name for the character, which should be a String
@@ -21,8 +34,8 @@ public class Character {
 
         this.name = name;
         this.rulebook = rulebook;
-        this.statManager = rulebook.getStat();
-        this.experience = rulebook.getExperienceReference();
+        this.statManager = rulebook.createCharacterStats();
+        this.experience = rulebook.createCharacterExperience();
         this.featureManager = new FeatureManager();
         this.specialtyManager = new SpecialtyManager();
     }
@@ -33,6 +46,9 @@ public class Character {
      */
     public void setName(String name) {
         this.name = name;
+        if (listener != null) {
+            listener.nameChanged(this, name);
+        }
     }
 
     /**
@@ -43,6 +59,14 @@ public class Character {
         return name;
     }
 
+    /**
+     * Gets the rulebook the character refers to
+     * @return the characters rulebook
+     */
+    public RuleBook getRuleBook() {
+        return rulebook;
+    }
+
     /**
      * Gets the StatManager for the character
      * @return reference to the characters StatManager
@@ -89,10 +113,19 @@ public class Character {
      * @param specialty the Specialty being added to the character
      */
     public void addSpecialty(Specialty specialty){
-        specialtyManager.add(specialty);
-        specialty.adjust(this);
-        for (Feature feature : specialty.getFeatures()) {
-            addFeature(feature);
+        applying++;
+        try {
+            specialtyManager.add(specialty);
+            specialty.adjust(this);
+            List<Feature> granted = specialty.getFeaturesView();
+            for (int i = 0; i < granted.size(); i++) {
+                addFeature(granted.get(i));
+            }
+        } finally {
+            applying--;
+        }
+        if (listener != null && applying == 0) {
+            listener.specialtyAdded(this, specialty);
         }
     }
 
@@ -101,8 +134,16 @@ public class Character {
      * @param feature the Feature being added to the character
      */
     public void addFeature(Feature feature){
-        featureManager.add(feature);
-        feature.adjust(this);
+        applying++;
+        try {
+            featureManager.add(feature);
+            feature.adjust(this);
+        } finally {
+            applying--;
+        }
+        if (listener != null && applying == 0) {
+            listener.featureAdded(this, feature);
+        }
     }
 
     /**
@@ -110,8 +151,16 @@ public class Character {
      * @param feature the Feature being removed from the character
      */
     public void removeFeature(Feature feature){
-        featureManager.remove(feature);
-        feature.unadjust(this);
+        applying++;
+        try {
+            featureManager.remove(feature);
+            feature.unadjust(this);
+        } finally {
+            applying--;
+        }
+        if (listener != null && applying == 0) {
+            listener.featureRemoved(this, feature);
+        }
     }
 
     /**
@@ -121,10 +170,18 @@ public class Character {
     public void damage(int value){
         Hitpoints hpStat = (Hitpoints) getStatByName("hitpoints");
         if (hpStat != null) {
-            hpStat.damage(value);
+            applying++;
+            try {
+                hpStat.damage(value);
+            } finally {
+                applying--;
+            }
             if (hpStat.isDead()) {
                 // Handle character death, will develop later
             }
+            if (listener != null && applying == 0) {
+                listener.damaged(this, value);
+            }
         }
     }
 
@@ -135,7 +192,15 @@ public class Character {
     public void heal(int value){
         Hitpoints hpStat = (Hitpoints) getStatByName("hitpoints");
         if (hpStat != null) {
-            hpStat.heal(value);
+            applying++;
+            try {
+                hpStat.heal(value);
+            } finally {
+                applying--;
+            }
+            if (listener != null && applying == 0) {
+                listener.healed(this, value);
+            }
         }
     }
 
@@ -145,56 +210,129 @@ public class Character {
      * @param value the value to add to the characters current experience
      */
     public void adjustXp(int value){
-        experience.addToCurrent(value);
-        if (experience.canLevelUp()) {
-            experience.resetToMin();
+        applying++;
+        try {
+            experience.addToCurrent(value);
+            if (experience.canLevelUp()) {
+                experience.resetToMin();
+            }
+        } finally {
+            applying--;
+        }
+        if (listener != null && applying == 0) {
+            listener.experienceAdjusted(this, value);
         }
     }
 
     /**
-     * creates and returns a string representation of the characters current state
-     * @return the string representation of the characters current state
+     * Attaches a listener that is told about every change made to the character from now on, replacing
+     * any listener attached before. Stats added to the StatManager afterwards are not watched
+     * @param listener the listener to attach, or null to detach the current one
      */
-    @Override
-    public String toString() {
-        StringBuilder sb = new StringBuilder();
-
-        // Top bar
-        sb.append("  _______________________________________\n");
-        sb.append("/ \\                                      |\n");
-        sb.append("\\__|                                     |\n");
-
-        // Character name centered with padding
-        sb.append("   |             * ").append(name).append(" *                |\n");
-
-        // Padding for spacing
-        sb.append("   |                                     |\n");
-        sb.append("   |                                     |\n");
-
-        // Adding primary stats using StatManager's primaryToString() method
-        String[] statsLines = statManager.primaryToString().split("\n");
-        for (String line : statsLines) {
-            sb.append("   |      ").append(String.format("%-31s", line)).append("|\n");
+    public void setListener(CharacterListener listener){
+        this.listener = listener;
+        if (listener != null) {
+            watch();
         }
+    }
 
-        // Bottom border
-        sb.append("   |                                     |\n");
-        sb.append("   |  ___________________________________|__\n");
-        sb.append("   \\_/_____________________________________/\n");
+    /**
+     * Starts keeping the characters derived state (eligible features, whether it is dead and
+     * whether it can level up) cached, by listening for changes to its Stats and Experience.
+     * Each change only marks or updates the part of the derived state that depends on it.
+     * Characters do not track anything until this is called. Stats added to the StatManager
+     * afterwards are not tracked
+     */
+    public void trackDerivedState(){
+        if (tracking) {
+            return;
+        }
+        tracking = true;
+        EligibilityIndex<Feature> index = rulebook.getFeatureEligibility();
+        if (statManager.sameLayout(index.layout())) {
+            eligibleFeatures = index.tracker(this);
+        }
+        watch();
+        hitpointsDirty = true;
+        experienceDirty = true;
+    }
 
-        // Adding hitpoints
-        sb.append(getStatByName("hitpoints").toString());
+    /**
+     * Attaches the one StatListener and ValueListener the character uses for both its derived state and
+     * its CharacterListener, the first time either is needed
+     */
+    private void watch(){
+        if (watching) {
+            return;
+        }
+        watching = true;
+        for (int handle = 0; handle < statManager.size(); handle++) {
+            final int slot = handle;
+            statManager.get(handle).setListener((stat, previousTotal, total) -> {
+                if (tracking) {
+                    if (stat instanceof Hitpoints) {
+                        hitpointsDirty = true;
+                    }
+                    if (eligibleFeatures != null) {
+                        eligibleFeatures.update(slot, total);
+                    }
+                }
+                if (listener != null && applying == 0) {
+                    listener.statChanged(this, slot, stat);
+                }
+            });
+        }
+        experience.setListener(value -> {
+            experienceDirty = true;
+            if (listener != null && applying == 0) {
+                listener.experienceChanged(this, experience);
+            }
+        });
+    }
 
-        // Adding experience
-        sb.append(getExperience().toString());
+    /**
+     * Checks if the characters hitpoints indicate it is downed
+     * @return true if the character is dead, false otherwise
+     */
+    public boolean isDead(){
+        if (!tracking || hitpointsDirty) {
+            dead = ((Hitpoints) getStatByName("hitpoints")).isDead();
+            hitpointsDirty = !tracking;
+        }
+        return dead;
+    }
 
-        // Specialties
-        sb.append(getSpecialty().toString()).append("\n");
+    /**
+     * Checks if the characters experience bar is full
+     * @return true if the character can level up, false otherwise
+     */
+    public boolean canLevelUp(){
+        if (!tracking || experienceDirty) {
+            canLevelUp = experience.canLevelUp();
+            experienceDirty = !tracking;
+        }
+        return canLevelUp;
+    }
 
-        // Features
-        sb.append(getFeature().toString()).append("\n");
+    /**
+     * Gets the Features the character currently meets the requirements for, in rulebook order.
+     * While the characters derived state is tracked this is read from the cached eligibility
+     * @return a new List of the Features the character meets the requirements for
+     */
+    public List<Feature> getEligibleFeatures(){
+        if (eligibleFeatures != null) {
+            return eligibleFeatures.items();
+        }
+        return rulebook.getFeaturesFilteredByRequirements(this);
+    }
 
-        return sb.toString();
+    /**
+     * creates and returns a string representation of the characters current state
+     * @return the string representation of the characters current state
+     */
+    @Override
+    public String toString() {
+        return SheetRenderer.render(this);
     }
 
 }
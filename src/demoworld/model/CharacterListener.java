@@ -0,0 +1,75 @@
+package demoworld.model;
+
+/**
+ * Something implementing CharacterListener is told about every change made to a Character it is
+ * attached to. Changes made through the Character methods are reported as those methods, and the
+ * Stat and Experience changes they cause along the way are not reported on their own, so calling the
+ * same methods again on a copy of the character leaves it in the same state. Stat and Experience
+ * changes made directly through their setters are reported with the state they ended in
+ */
+public interface CharacterListener {
+
+    /**
+     * Called after the characters name was set
+     * @param character the character that changed
+     * @param name the new name
+     */
+    void nameChanged(Character character, String name);
+
+    /**
+     * Called after a feature was added to the character
+     * @param character the character that changed
+     * @param feature the feature added
+     */
+    void featureAdded(Character character, Feature feature);
+
+    /**
+     * Called after a feature was removed from the character
+     * @param character the character that changed
+     * @param feature the feature removed
+     */
+    void featureRemoved(Character character, Feature feature);
+
+    /**
+     * Called after a specialty, and with it its features, was added to the character
+     * @param character the character that changed
+     * @param specialty the specialty added
+     */
+    void specialtyAdded(Character character, Specialty specialty);
+
+    /**
+     * Called after the character was damaged
+     * @param character the character that changed
+     * @param value the damage
+     */
+    void damaged(Character character, int value);
+
+    /**
+     * Called after the character was healed
+     * @param character the character that changed
+     * @param value the healing
+     */
+    void healed(Character character, int value);
+
+    /**
+     * Called after the characters experience was adjusted
+     * @param character the character that changed
+     * @param value the experience added
+     */
+    void experienceAdjusted(Character character, int value);
+
+    /**
+     * Called after a stat was changed directly through its setters
+     * @param character the character that changed
+     * @param slot the slot of the stat in the characters StatManager
+     * @param stat the stat, in the state it was left in
+     */
+    void statChanged(Character character, int slot, Stat stat);
+
+    /**
+     * Called after the characters experience was changed directly through its setters
+     * @param character the character that changed
+     * @param experience the experience, in the state it was left in
+     */
+    void experienceChanged(Character character, Experience experience);
+}
@@ -0,0 +1,694 @@
+package demoworld.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable copy of the state of a Character, for trying out changes without touching the character.
+ * Every change returns a new snapshot and leaves the one it was made on as it was, so forking a what-if
+ * state is just keeping a reference, and the new snapshot shares everything the change did not touch:
+ * stats that did not change are the same arrays and the feature and specialty lists are shared links.
+ * Snapshots can be read and changed from any number of threads at once.
+ * <p>
+ * The changes work the same way as the Character methods of the same meaning, clamping included.
+ * A snapshot remembers the snapshot it was made from and the change that made it, so without(feature)
+ * can take out a feature added with withFeature by redoing the later changes on the state before it,
+ * rather than unadjusting, which is not exact once a Value has been clamped. Use withoutHistory to let go
+ * of the earlier snapshots once they are no longer needed
+ */
+public final class CharacterSnapshot {
+
+    /** the parts of a snapshot every snapshot made from the same character shares */
+    private static final class Shape {
+        final RuleBook rulebook;
+        final StatManager layout;
+        final int hitpointsSlot;
+
+        Shape(RuleBook rulebook, StatManager layout){
+            this.rulebook = rulebook;
+            this.layout = layout;
+            int slot = -1;
+            for (int i = 0; i < layout.size(); i++) {
+                if (layout.get(i) instanceof Hitpoints) {
+                    slot = i;
+                    break;
+                }
+            }
+            this.hitpointsSlot = slot;
+        }
+    }
+
+    /** one link of a list shared between snapshots, holding the items newest first */
+    private static final class Link<T> {
+        final T item;
+        final Link<T> next;
+
+        Link(T item, Link<T> next){
+            this.item = item;
+            this.next = next;
+        }
+    }
+
+    /** a change that can be made again on a different snapshot */
+    private interface Step {
+        CharacterSnapshot apply(CharacterSnapshot snapshot);
+    }
+
+    // positions of the numbers of a stat within its array
+    private static final int BASE = 0;
+    private static final int MODIFIER = 3;
+    private static final int MIN = 0;
+    private static final int MAX = 1;
+    private static final int CURRENT = 2;
+
+    private final Shape shape;
+    private final String name;
+    private final int[][] stats;
+    private final int tempHp;
+    private final int[] experience;
+    private final Link<Feature> features;
+    private final int featureCount;
+    private final Link<Specialty> specialties;
+    private final int specialtyCount;
+
+    private final CharacterSnapshot parent;
+    private final Step step;
+    private final Feature addedFeature;
+
+    private CharacterSnapshot(Shape shape, String name, int[][] stats, int tempHp, int[] experience,
+                              Link<Feature> features, int featureCount,
+                              Link<Specialty> specialties, int specialtyCount,
+                              CharacterSnapshot parent, Step step, Feature addedFeature){
+        this.shape = shape;
+        this.name = name;
+        this.stats = stats;
+        this.tempHp = tempHp;
+        this.experience = experience;
+        this.features = features;
+        this.featureCount = featureCount;
+        this.specialties = specialties;
+        this.specialtyCount = specialtyCount;
+        this.parent = parent;
+        this.step = step;
+        this.addedFeature = addedFeature;
+    }
+
+    /**
+     * Takes a snapshot of the current state of a character
+     * @param character the character to copy
+     * @return a snapshot of the character
+     */
+    public static CharacterSnapshot of(Character character){
+        StatManager source = character.getStat();
+        Shape shape = new Shape(character.getRuleBook(), new StatManager(source));
+        int[][] stats = new int[source.size()][];
+        int tempHp = 0;
+        for (int slot = 0; slot < stats.length; slot++) {
+            Stat stat = source.get(slot);
+            stats[slot] = read(stat);
+            if (stat instanceof Hitpoints && slot == shape.hitpointsSlot) {
+                tempHp = ((Hitpoints) stat).getTempHp();
+            }
+        }
+        Experience xp = character.getExperience();
+        Link<Feature> features = null;
+        FeatureManager featureManager = character.getFeature();
+        for (int i = 0; i < featureManager.size(); i++) {
+            features = new Link<>(featureManager.get(i), features);
+        }
+        Link<Specialty> specialties = null;
+        SpecialtyManager specialtyManager = character.getSpecialty();
+        for (int i = 0; i < specialtyManager.size(); i++) {
+            specialties = new Link<>(specialtyManager.get(i), specialties);
+        }
+        return new CharacterSnapshot(shape, character.getName(), stats, tempHp,
+                new int[]{xp.min(), xp.max(), xp.current()},
+                features, featureManager.size(), specialties, specialtyManager.size(), null, null, null);
+    }
+
+    /**
+     * Builds a new Character holding this state. The features and specialties are attached without
+     * adjusting the character again, the stats already hold the adjusted values
+     * @return a new character in this state
+     * @throws IllegalStateException if the rulebook no longer lays its stats out the way the snapshotted character had them
+     */
+    public Character toCharacter(){
+        Character character = new Character(name, shape.rulebook);
+        StatManager target = character.getStat();
+        if (!target.sameLayout(shape.layout)) {
+            throw new IllegalStateException("Character " + name + " was snapshotted with a different stat layout than rulebook "
+                    + shape.rulebook.getName() + " has now");
+        }
+        for (int slot = 0; slot < stats.length; slot++) {
+            Stat stat = target.get(slot);
+            int[] values = stats[slot];
+            stat.getBase().set(values[BASE + MIN], values[BASE + MAX], values[BASE + CURRENT]);
+            stat.getModifier().set(values[MODIFIER + MIN], values[MODIFIER + MAX], values[MODIFIER + CURRENT]);
+            if (slot == shape.hitpointsSlot && stat instanceof Hitpoints) {
+                ((Hitpoints) stat).setTempHp(tempHp);
+            }
+        }
+        character.getExperience().set(experience[MIN], experience[MAX], experience[CURRENT]);
+        for (Feature feature : getFeatures()) {
+            character.getFeature().add(feature);
+        }
+        for (Specialty specialty : getSpecialties()) {
+            character.getSpecialty().add(specialty);
+        }
+        return character;
+    }
+
+    /**
+     * Gets the name of the character
+     * @return the name of the character
+     */
+    public String getName(){
+        return name;
+    }
+
+    /**
+     * Gets the rulebook the character refers to
+     * @return the rulebook of the character
+     */
+    public RuleBook getRuleBook(){
+        return shape.rulebook;
+    }
+
+    /**
+     * Resolves the name of a Stat to the slot the other methods of the snapshot take
+     * @param name the name of the stat
+     * @return the slot of the first stat with a matching name
+     * @throws IllegalStateException if there is no such stat
+     */
+    public int handle(String name)
+            throws IllegalStateException {
+        return shape.layout.handle(name);
+    }
+
+    /**
+     * Gets the number of stats in the snapshot
+     * @return the number of stats
+     */
+    public int statCount(){
+        return stats.length;
+    }
+
+    /**
+     * Gets the total of the base and modifier current amounts of a stat
+     * @param slot the slot of the stat
+     * @return the total of the stat
+     */
+    public int getTotal(int slot){
+        return stats[slot][BASE + CURRENT] + stats[slot][MODIFIER + CURRENT];
+    }
+
+    /**
+     * Gets the total of the base and modifier minimum amounts of a stat
+     * @param slot the slot of the stat
+     * @return the total minimum of the stat
+     */
+    public int getTotalMin(int slot){
+        return stats[slot][BASE + MIN] + stats[slot][MODIFIER + MIN];
+    }
+
+    /**
+     * Gets the total of the base and modifier maximum amounts of a stat
+     * @param slot the slot of the stat
+     * @return the total maximum of the stat
+     */
+    public int getTotalMax(int slot){
+        return stats[slot][BASE + MAX] + stats[slot][MODIFIER + MAX];
+    }
+
+    /**
+     * Gets the current amount of the base Value of a stat
+     * @param slot the slot of the stat
+     * @return the current base amount
+     */
+    public int currentBase(int slot){
+        return stats[slot][BASE + CURRENT];
+    }
+
+    /**
+     * Gets the current amount of the modifier Value of a stat
+     * @param slot the slot of the stat
+     * @return the current modifier amount
+     */
+    public int currentModifier(int slot){
+        return stats[slot][MODIFIER + CURRENT];
+    }
+
+    /**
+     * Gets the totals of every stat, indexed by slot, the way EligibilityIndex and CompiledRequirementSet take them
+     * @return a new array of the stat totals
+     */
+    public int[] totals(){
+        int[] totals = new int[stats.length];
+        for (int slot = 0; slot < totals.length; slot++) {
+            totals[slot] = getTotal(slot);
+        }
+        return totals;
+    }
+
+    /**
+     * Gets the temporary hitpoints
+     * @return the temporary hitpoints
+     */
+    public int getTempHp(){
+        return tempHp;
+    }
+
+    /**
+     * Gets the current experience
+     * @return the current experience
+     */
+    public int currentExperience(){
+        return experience[CURRENT];
+    }
+
+    /**
+     * Gets the experience needed to level up
+     * @return the maximum experience
+     */
+    public int maxExperience(){
+        return experience[MAX];
+    }
+
+    /**
+     * Checks if the hitpoints indicate the character is downed, the same check as Character.isDead
+     * @return true if the character is dead, false otherwise
+     */
+    public boolean isDead(){
+        int slot = hitpointsSlot();
+        return getTotal(slot) == getTotalMin(slot);
+    }
+
+    /**
+     * Checks if the experience bar is full
+     * @return true if the character can level up, false otherwise
+     */
+    public boolean canLevelUp(){
+        return experience[CURRENT] == experience[MAX];
+    }
+
+    /**
+     * Gets the features of the character in the order they were added
+     * @return a new List of the features
+     */
+    public List<Feature> getFeatures(){
+        return toList(features, featureCount);
+    }
+
+    /**
+     * Gets the specialties of the character in the order they were added
+     * @return a new List of the specialties
+     */
+    public List<Specialty> getSpecialties(){
+        return toList(specialties, specialtyCount);
+    }
+
+    /**
+     * Gets the Features of the rulebook the character meets the requirements for, in rulebook order
+     * @return a new List of the features the character meets the requirements for
+     */
+    public List<Feature> getEligibleFeatures(){
+        EligibilityIndex<Feature> index = shape.rulebook.getFeatureEligibility();
+        if (shape.layout.sameLayout(index.layout())) {
+            return index.itemsIn(index.eligible(totals(), new long[index.words()]));
+        }
+        return shape.rulebook.getFeaturesFilteredByRequirements(toCharacter());
+    }
+
+    /**
+     * Gets a snapshot in the same state that does not remember how it was reached, so the snapshots it was
+     * made from can be collected. without can then only unadjust
+     * @return a snapshot in the same state without history
+     */
+    public CharacterSnapshot withoutHistory(){
+        return new CharacterSnapshot(shape, name, stats, tempHp, experience,
+                features, featureCount, specialties, specialtyCount, null, null, null);
+    }
+
+    /**
+     * Gets the state with a different name, like Character.setName
+     * @param name the new name
+     * @return the new state
+     */
+    public CharacterSnapshot withName(String name){
+        return record(snapshot -> snapshot.renamed(name), null);
+    }
+
+    /**
+     * Gets the state with a feature added, like Character.addFeature
+     * @param feature the feature to add
+     * @return the new state
+     */
+    public CharacterSnapshot withFeature(Feature feature){
+        return record(snapshot -> snapshot.featureAdded(feature), feature);
+    }
+
+    /**
+     * Gets the state without a feature, like Character.removeFeature. When the feature was added to this
+     * snapshot, or one it was made from, with withFeature, the result is the state before the latest such
+     * add with every later change made again, which is exact. Otherwise the first copy of the feature is
+     * taken out and its adjustments are undone, which is what Character.removeFeature does
+     * @param feature the feature to remove
+     * @return the new state
+     */
+    public CharacterSnapshot without(Feature feature){
+        List<CharacterSnapshot> later = new ArrayList<>();
+        for (CharacterSnapshot node = this; node.parent != null; node = node.parent) {
+            if (node.addedFeature == feature) {
+                CharacterSnapshot state = node.parent;
+                for (int i = later.size() - 1; i >= 0; i--) {
+                    state = state.record(later.get(i).step, later.get(i).addedFeature);
+                }
+                return state;
+            }
+            later.add(node);
+        }
+        return record(snapshot -> snapshot.featureRemoved(feature), null);
+    }
+
+    /**
+     * Gets the state with a specialty added, like Character.addSpecialty
+     * @param specialty the specialty to add
+     * @return the new state
+     */
+    public CharacterSnapshot withSpecialty(Specialty specialty){
+        return record(snapshot -> snapshot.specialtyAdded(specialty), null);
+    }
+
+    /**
+     * Gets the state after taking damage, like Character.damage
+     * @param value the amount of damage
+     * @return the new state
+     */
+    public CharacterSnapshot damaged(int value){
+        return record(snapshot -> snapshot.hitpointsDamaged(value), null);
+    }
+
+    /**
+     * Gets the state after healing, like Character.heal
+     * @param value the amount of hitpoints healed
+     * @return the new state
+     */
+    public CharacterSnapshot healed(int value){
+        return record(snapshot -> snapshot.hitpointsHealed(value), null);
+    }
+
+    /**
+     * Gets the state after gaining experience, like Character.adjustXp
+     * @param value the experience gained
+     * @return the new state
+     */
+    public CharacterSnapshot withXpAdjusted(int value){
+        return record(snapshot -> snapshot.experienceAdjusted(value), null);
+    }
+
+    /**
+     * Gets the state after adding to the current modifier of a stat, like Stat.addToCurrentModifier
+     * @param slot the slot of the stat
+     * @param value the amount to add
+     * @return the new state
+     */
+    public CharacterSnapshot addToCurrentModifier(int slot, int value){
+        return record(snapshot -> snapshot.valueSet(slot, MODIFIER + CURRENT,
+                snapshot.stats[slot][MODIFIER + CURRENT] + value), null);
+    }
+
+    /**
+     * Gets the state after adding to the maximum of the base of a stat, like Stat.addToMaxBase
+     * @param slot the slot of the stat
+     * @param value the amount to add
+     * @return the new state
+     */
+    public CharacterSnapshot addToMaxBase(int slot, int value){
+        return record(snapshot -> snapshot.valueSet(slot, BASE + MAX,
+                snapshot.stats[slot][BASE + MAX] + value), null);
+    }
+
+    /**
+     * Gets the state with a new maximum experience, like Experience.setMax
+     * @param max the new maximum experience
+     * @return the new state
+     */
+    public CharacterSnapshot setMaxExperience(int max){
+        return record(snapshot -> snapshot.experienceSet(MAX, max), null);
+    }
+
+    /**
+     * Gets the state after an adjuster changes it, by building a Character in this state, adjusting it and
+     * taking a snapshot again. Stats the adjuster left alone stay shared with this snapshot. This is how
+     * adjustments that do not know about snapshots are applied
+     * @param adjuster the adjuster to apply
+     * @return the new state
+     */
+    public CharacterSnapshot adjustedBy(Adjuster adjuster){
+        return record(snapshot -> snapshot.recaptured(adjuster.adjust(snapshot.toCharacter())), null);
+    }
+
+    /**
+     * Gets the state after an adjuster undoes its changes, the same way adjustedBy applies them
+     * @param adjuster the adjuster to undo
+     * @return the new state
+     */
+    public CharacterSnapshot unadjustedBy(Adjuster adjuster){
+        return record(snapshot -> snapshot.recaptured(adjuster.unadjust(snapshot.toCharacter())), null);
+    }
+
+    /**
+     * Makes a change and remembers it in the result, so without can make it again
+     */
+    private CharacterSnapshot record(Step change, Feature added){
+        CharacterSnapshot next = change.apply(this);
+        return new CharacterSnapshot(shape, next.name, next.stats, next.tempHp, next.experience,
+                next.features, next.featureCount, next.specialties, next.specialtyCount, this, change, added);
+    }
+
+    // The changes themselves. They return snapshots without history, record adds it
+
+    private CharacterSnapshot renamed(String name){
+        return new CharacterSnapshot(shape, name, stats, tempHp, experience,
+                features, featureCount, specialties, specialtyCount, null, null, null);
+    }
+
+    private CharacterSnapshot featureAdded(Feature feature){
+        CharacterSnapshot added = new CharacterSnapshot(shape, name, stats, tempHp, experience,
+                new Link<>(feature, features), featureCount + 1, specialties, specialtyCount, null, null, null);
+        return feature.adjust(added);
+    }
+
+    private CharacterSnapshot featureRemoved(Feature feature){
+        CharacterSnapshot removed = this;
+        Link<Feature> kept = removeFirst(features, feature);
+        if (kept != features) {
+            removed = new CharacterSnapshot(shape, name, stats, tempHp, experience,
+                    kept, featureCount - 1, specialties, specialtyCount, null, null, null);
+        }
+        return feature.unadjust(removed);
+    }
+
+    private CharacterSnapshot specialtyAdded(Specialty specialty){
+        CharacterSnapshot state = this;
+        if (!contains(specialties, specialty)) {
+            state = new CharacterSnapshot(shape, name, stats, tempHp, experience,
+                    features, featureCount, new Link<>(specialty, specialties), specialtyCount + 1, null, null, null);
+        }
+        // Character.addSpecialty runs Specialty.adjust, which adjusts for every feature, then adds each feature
+        List<Feature> granted = specialty.getFeaturesView();
+        for (Feature feature : granted) {
+            state = feature.adjust(state);
+        }
+        for (Feature feature : granted) {
+            state = state.featureAdded(feature);
+        }
+        return state;
+    }
+
+    private CharacterSnapshot hitpointsDamaged(int value){
+        int slot = hitpointsSlot();
+        int temp = tempHp;
+        if (temp > 0) {
+            if (value <= temp) {
+                return withTempHp(temp - value);
+            }
+            value -= temp;
+            temp = 0;
+        }
+        return withTempHp(temp).valueSet(slot, BASE + CURRENT, stats[slot][BASE + CURRENT] - value);
+    }
+
+    private CharacterSnapshot hitpointsHealed(int value){
+        int slot = hitpointsSlot();
+        return valueSet(slot, BASE + CURRENT, stats[slot][BASE + CURRENT] + value);
+    }
+
+    private CharacterSnapshot experienceAdjusted(int value){
+        CharacterSnapshot state = experienceSet(CURRENT, experience[CURRENT] + value);
+        if (state.canLevelUp()) {
+            state = state.experienceSet(CURRENT, state.experience[MIN]);
+        }
+        return state;
+    }
+
+    private CharacterSnapshot withTempHp(int tempHp){
+        if (tempHp == this.tempHp) {
+            return this;
+        }
+        return new CharacterSnapshot(shape, name, stats, tempHp, experience,
+                features, featureCount, specialties, specialtyCount, null, null, null);
+    }
+
+    /**
+     * Sets one number of one Value of a stat the way the Value setters do, copying only that stat
+     */
+    private CharacterSnapshot valueSet(int slot, int index, int amount){
+        int[] values = stats[slot].clone();
+        set(values, index, amount);
+        int[][] changed = stats.clone();
+        changed[slot] = values;
+        return new CharacterSnapshot(shape, name, changed, tempHp, experience,
+                features, featureCount, specialties, specialtyCount, null, null, null);
+    }
+
+    private CharacterSnapshot experienceSet(int index, int amount){
+        int[] values = experience.clone();
+        set(values, index, amount);
+        return new CharacterSnapshot(shape, name, stats, tempHp, values,
+                features, featureCount, specialties, specialtyCount, null, null, null);
+    }
+
+    /**
+     * Takes a snapshot of a character built from this one, keeping every part that did not change shared
+     */
+    private CharacterSnapshot recaptured(Character character){
+        CharacterSnapshot taken = of(character);
+        int[][] shared = taken.stats;
+        for (int slot = 0; slot < shared.length && slot < stats.length; slot++) {
+            if (Arrays.equals(shared[slot], stats[slot])) {
+                shared[slot] = stats[slot];
+            }
+        }
+        int[] xp = Arrays.equals(taken.experience, experience) ? experience : taken.experience;
+        Link<Feature> keptFeatures = sameItems(taken.features, features) ? features : taken.features;
+        Link<Specialty> keptSpecialties = sameItems(taken.specialties, specialties) ? specialties : taken.specialties;
+        return new CharacterSnapshot(shape, taken.name, shared, taken.tempHp, xp,
+                keptFeatures, taken.featureCount, keptSpecialties, taken.specialtyCount, null, null, null);
+    }
+
+    private int hitpointsSlot(){
+        if (shape.hitpointsSlot < 0) {
+            throw new IllegalStateException("Stat with name hitpoints not found");
+        }
+        return shape.hitpointsSlot;
+    }
+
+    /**
+     * Sets the min, max or current of the Value starting at the start of index, clamping the way Value does
+     */
+    private static void set(int[] values, int index, int amount){
+        int start = index - index % 3;
+        switch (index - start) {
+            case MIN:
+                values[start + MIN] = amount;
+                if (values[start + MAX] < amount) {
+                    values[start + MAX] = amount;
+                }
+                if (values[start + CURRENT] < amount) {
+                    values[start + CURRENT] = amount;
+                }
+                break;
+            case MAX:
+                values[start + MAX] = Math.max(amount, values[start + MIN]);
+                if (values[start + CURRENT] > values[start + MAX]) {
+                    values[start + CURRENT] = values[start + MAX];
+                }
+                break;
+            default:
+                values[start + CURRENT] = Math.min(Math.max(amount, values[start + MIN]), values[start + MAX]);
+                break;
+        }
+    }
+
+    private static int[] read(Stat stat){
+        Value base = stat.getBase();
+        Value modifier = stat.getModifier();
+        return new int[]{base.min(), base.max(), base.current(), modifier.min(), modifier.max(), modifier.current()};
+    }
+
+    private static <T> List<T> toList(Link<T> link, int count){
+        Object[] items = new Object[count];
+        for (int i = count - 1; link != null; link = link.next) {
+            items[i--] = link.item;
+        }
+        List<T> list = new ArrayList<>(count);
+        for (Object item : items) {
+            @SuppressWarnings("unchecked")
+            T typed = (T) item;
+            list.add(typed);
+        }
+        return list;
+    }
+
+    private static <T> boolean contains(Link<T> link, T item){
+        for (; link != null; link = link.next) {
+            if (link.item.equals(item)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <T> boolean sameItems(Link<T> a, Link<T> b){
+        while (a != null && b != null) {
+            if (a == b) {
+                return true;
+            }
+            if (a.item != b.item) {
+                return false;
+            }
+            a = a.next;
+            b = b.next;
+        }
+        return a == b;
+    }
+
+    /**
+     * Removes the oldest link holding the item, which is the first in the order they were added, copying
+     * only the links newer than it
+     */
+    private static <T> Link<T> removeFirst(Link<T> link, T item){
+        Link<T> oldest = null;
+        for (Link<T> at = link; at != null; at = at.next) {
+            if (at.item.equals(item)) {
+                oldest = at;
+            }
+        }
+        if (oldest == null) {
+            return link;
+        }
+        return copyUntil(link, oldest);
+    }
+
+    private static <T> Link<T> copyUntil(Link<T> link, Link<T> removed){
+        // the newer links are gathered first and relinked from the oldest up, so a long history can not run out of stack
+        int newer = 0;
+        for (Link<T> at = link; at != removed; at = at.next) {
+            newer++;
+        }
+        Object[] items = new Object[newer];
+        int i = 0;
+        for (Link<T> at = link; at != removed; at = at.next) {
+            items[i++] = at.item;
+        }
+        Link<T> copy = removed.next;
+        for (i = newer - 1; i >= 0; i--) {
+            @SuppressWarnings("unchecked")
+            T item = (T) items[i];
+            copy = new Link<>(item, copy);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,144 @@
+package demoworld.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A list of Requirements compiled against a StatManager layout into parallel arrays of stat handles
+ * and thresholds, so checking them is a loop over ints with no name lookups and no exceptions.
+ * A requirement on a stat the layout does not have can never pass, the same as {@link Requirement#check}
+ */
+public class CompiledRequirementSet {
+
+    private final StatManager layout;
+    private final List<Requirement> requirements;
+    private final int[] slots;
+    private final int[] thresholds;
+    private final boolean satisfiable;
+
+    private CompiledRequirementSet(StatManager layout,
+                                   List<Requirement> requirements,
+                                   int[] slots,
+                                   int[] thresholds,
+                                   boolean satisfiable){
+        this.layout = layout;
+        this.requirements = requirements;
+        this.slots = slots;
+        this.thresholds = thresholds;
+        this.satisfiable = satisfiable;
+    }
+
+    /**
+     * Compiles the given requirements against the layout of the given stat manager
+     * @param requirements the requirements that all have to pass
+     * @param layout a stat manager with the layout the requirements will be checked against
+     * @return the compiled requirements
+     */
+    public static CompiledRequirementSet compile(List<Requirement> requirements, StatManager layout){
+        int[] slots = new int[requirements.size()];
+        int[] thresholds = new int[requirements.size()];
+        boolean satisfiable = true;
+        int count = 0;
+        for (Requirement requirement : requirements) {
+            try {
+                slots[count] = layout.handle(requirement.getStatKey());
+                thresholds[count] = requirement.getThreshold();
+                count++;
+            } catch (IllegalStateException e) {
+                satisfiable = false;
+            }
+        }
+        return new CompiledRequirementSet(layout, List.copyOf(requirements),
+                Arrays.copyOf(slots, count), Arrays.copyOf(thresholds, count), satisfiable);
+    }
+
+    /**
+     * Gets the number of compiled requirements on stats the layout has
+     * @return the number of compiled requirements
+     */
+    public int size(){
+        return slots.length;
+    }
+
+    /**
+     * Gets the stat handle the requirement at the given position checks
+     * @param i the position of the requirement
+     * @return the stat handle
+     */
+    public int slot(int i){
+        return slots[i];
+    }
+
+    /**
+     * Gets the threshold of the requirement at the given position
+     * @param i the position of the requirement
+     * @return the threshold
+     */
+    public int threshold(int i){
+        return thresholds[i];
+    }
+
+    /**
+     * Returns false if a requirement is on a stat the layout does not have, as such a set never passes
+     * @return true if the set can pass, false otherwise
+     */
+    public boolean isSatisfiable(){
+        return satisfiable;
+    }
+
+    /**
+     * Returns if the given character meets every requirement. Characters whose stats were laid out
+     * differently from the compiled layout are checked through {@link Requirement#check} instead
+     * @param character the character whose state will be checked
+     * @return true if they do, false otherwise
+     */
+    public boolean test(Character character){
+        StatManager stats = character.getStat();
+        if (!stats.sameLayout(layout)) {
+            for (Requirement requirement : requirements) {
+                if (!requirement.check(character)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        boolean passes = satisfiable;
+        for (int i = 0; i < slots.length; i++) {
+            passes &= stats.get(slots[i]).getTotal() >= thresholds[i];
+        }
+        return passes;
+    }
+
+    /**
+     * Returns if a character with the given stat totals meets every requirement
+     * @param totals the characters stat totals indexed by stat handle
+     * @return true if they do, false otherwise
+     */
+    public boolean test(int[] totals){
+        boolean passes = satisfiable;
+        for (int i = 0; i < slots.length; i++) {
+            passes &= totals[slots[i]] >= thresholds[i];
+        }
+        return passes;
+    }
+
+    /**
+     * Checks many characters at once. Each requirement is applied to a whole column of totals
+     * before moving on to the next, which keeps the inner loop free of branches
+     * @param totalsBySlot for each stat handle, the totals of every character being checked
+     * @param count the number of characters being checked
+     * @param into receives for each character if it meets every requirement
+     * @return the given array
+     */
+    public boolean[] testAll(int[][] totalsBySlot, int count, boolean[] into){
+        Arrays.fill(into, 0, count, satisfiable);
+        for (int i = 0; i < slots.length; i++) {
+            int[] totals = totalsBySlot[slots[i]];
+            int threshold = thresholds[i];
+            for (int c = 0; c < count; c++) {
+                into[c] &= totals[c] >= threshold;
+            }
+        }
+        return into;
+    }
+}
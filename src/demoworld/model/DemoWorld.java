@@ -5,7 +5,9 @@ import demoworld.model.adjustments.MaxXpAdjustment;
 import demoworld.model.adjustments.StatAdjustment;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Holds a set of defaults used for characters using the demo world ruleset, this way the character
@@ -41,6 +43,18 @@ public class DemoWorld extends RuleBook {
         for (Specialty specialty : this.createAndGetSpecialties()) {
             this.specialties.add(specialty);
         }
+        assignIds();
+        freeze();
+
+        this.featureEligibility = new EligibilityIndex<>(this.features.all(),
+                Feature::getRequirementsView, this.stats);
+        this.specialtyEligibility = new EligibilityIndex<>(this.specialties.all(),
+                Specialty::getRequirementsView, this.stats);
+
+        this.advantages = new HashMap<>();
+        this.advantages.put("heat", List.of(this.features.byName("heat resistant")));
+        this.advantages.put("weather", List.of(this.features.byName("weather minded")));
+        this.advantages.put("violence", List.of(this.features.byName("violent")));
     }
 
     /**
@@ -371,7 +385,8 @@ public class DemoWorld extends RuleBook {
     }
 
     /**
-     * Gets a list of every {@link Stat} in the game.
+     * Gets a list of every {@link Stat} in the game. The stats are frozen once DemoWorld is built,
+     * {@link #createCharacterStats()} gives copies that can be changed.
      *
      * @return a List of every stat that exists for this ruleset.
      */
@@ -402,13 +417,7 @@ public class DemoWorld extends RuleBook {
     @Override
     public List<Specialty> getSpecialtiesFilteredByRequirements(Character character)
             throws IllegalStateException {
-        List<Specialty> specialtiesFilteredByRequirements = new ArrayList<>();
-        for (Specialty specialty : this.getSpecialtiesReference()) {
-            if (specialty.meetsRequirements(character)) {
-                specialtiesFilteredByRequirements.add(specialty);
-            }
-        }
-        return specialtiesFilteredByRequirements;
+        return this.specialtyEligibility.filter(character);
     }
 
     /**
@@ -421,17 +430,53 @@ public class DemoWorld extends RuleBook {
      * is qualified for.
      */
     public List<Feature> getFeaturesFilteredByRequirements(Character character) {
-        List<Feature> featuresFilteredByRequirements = new ArrayList<>();
-        for (Feature feature : this.getFeaturesReference()) {
-            if (feature.meetsRequirements(character)) {
-                featuresFilteredByRequirements.add(feature);
-            }
-        }
-        return featuresFilteredByRequirements;
+        return this.featureEligibility.filter(character);
     }
 
     /**
-     * Get the rulebooks initial {@link Experience} reference.
+     * Gets the {@link EligibilityIndex} over every {@link Feature} in the game.
+     *
+     * @return the {@link EligibilityIndex} over every {@link Feature} in the game.
+     */
+    @Override
+    public EligibilityIndex<Feature> getFeatureEligibility() {
+        return this.featureEligibility;
+    }
+
+    /**
+     * Gets the {@link EligibilityIndex} over every {@link Specialty} in the game.
+     *
+     * @return the {@link EligibilityIndex} over every {@link Specialty} in the game.
+     */
+    @Override
+    public EligibilityIndex<Specialty> getSpecialtyEligibility() {
+        return this.specialtyEligibility;
+    }
+
+    /**
+     * Returns the features that let a character roll twice and take the best result on checks of the
+     * given kind. DemoWorld has heat resistant for "heat", weather minded for "weather" and violent
+     * for "violence"
+     * @param check the kind of check
+     * @return the features granting advantage on that kind of check, empty if there are none
+     */
+    @Override
+    public List<Feature> getAdvantageFeatures(String check) {
+        return this.advantages.getOrDefault(check, List.of());
+    }
+
+    /**
+     * Returns the kinds of check DemoWorld has advantage features for, "heat", "weather" and "violence"
+     * @return the kinds of check with advantage features
+     */
+    @Override
+    public List<String> getAdvantageChecks() {
+        return List.of("heat", "weather", "violence");
+    }
+
+    /**
+     * Get the rulebooks initial {@link Experience} reference, frozen once DemoWorld is built.
+     * {@link #createCharacterExperience()} gives a copy that can be changed.
      *
      * @return the rulebooks initial {@link Experience} reference.
      */
@@ -468,6 +513,21 @@ public class DemoWorld extends RuleBook {
      */
     private final SpecialtyManager specialties;
 
+    /**
+     * the Requirements of every Feature indexed against the stat template
+     */
+    private final EligibilityIndex<Feature> featureEligibility;
+
+    /**
+     * the Requirements of every Specialty indexed against the stat template
+     */
+    private final EligibilityIndex<Specialty> specialtyEligibility;
+
+    /**
+     * the Features granting advantage on each kind of check
+     */
+    private final Map<String, List<Feature>> advantages;
+
     /**
      * experience
      */
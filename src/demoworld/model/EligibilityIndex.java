@@ -0,0 +1,275 @@
+package demoworld.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Answers which items of a catalog (Features or Specialties) a Character meets the Requirements for
+ * with bit operations instead of checking every Requirement of every item.
+ * <p>
+ * For every stat the index keeps the distinct thresholds items require of it, and for each of
+ * those a mask of the items that are blocked while the stat total is below it. The eligible items
+ * are the satisfiable items minus, for each stat, the mask picked by where its total falls among
+ * the thresholds. Bit i of a mask stands for the item at position i of {@link #items()}
+ * @param <T> the type of the items
+ */
+public class EligibilityIndex<T> {
+
+    private final List<T> items;
+    private final CompiledRequirementSet[] requirements;
+    private final StatManager layout;
+    private final int words;
+    private final long[] satisfiable;
+    private final int[] gatedSlots;
+    private final int[][] cuts;
+    private final long[][][] blocked;
+    private final int[][] entryThresholds;
+    private final int[][] entryItems;
+
+    /**
+     * Builds an index over the given items
+     * @param items the catalog of items
+     * @param requirementsOf gives the Requirements of an item
+     * @param layout a stat manager with the layout of the characters that will be checked
+     */
+    public EligibilityIndex(List<T> items, Function<T, List<Requirement>> requirementsOf, StatManager layout){
+        this.items = List.copyOf(items);
+        this.layout = layout;
+        this.words = (items.size() + 63) >>> 6;
+        this.requirements = new CompiledRequirementSet[items.size()];
+        this.satisfiable = new long[words];
+
+        int statCount = layout.size();
+        List<List<int[]>> entries = new ArrayList<>();
+        for (int slot = 0; slot < statCount; slot++) {
+            entries.add(new ArrayList<>());
+        }
+        for (int item = 0; item < items.size(); item++) {
+            CompiledRequirementSet compiled = CompiledRequirementSet.compile(
+                    requirementsOf.apply(items.get(item)), layout);
+            requirements[item] = compiled;
+            if (compiled.isSatisfiable()) {
+                satisfiable[item >>> 6] |= 1L << item;
+            }
+            for (int i = 0; i < compiled.size(); i++) {
+                entries.get(compiled.slot(i)).add(new int[]{compiled.threshold(i), item});
+            }
+        }
+
+        int gated = 0;
+        for (List<int[]> slotEntries : entries) {
+            gated += slotEntries.isEmpty() ? 0 : 1;
+        }
+        this.gatedSlots = new int[gated];
+        this.cuts = new int[statCount][];
+        this.blocked = new long[statCount][][];
+        this.entryThresholds = new int[statCount][];
+        this.entryItems = new int[statCount][];
+        gated = 0;
+        for (int slot = 0; slot < statCount; slot++) {
+            List<int[]> slotEntries = entries.get(slot);
+            slotEntries.sort((a, b) -> Integer.compare(a[0], b[0]));
+            entryThresholds[slot] = new int[slotEntries.size()];
+            entryItems[slot] = new int[slotEntries.size()];
+            TreeSet<Integer> distinct = new TreeSet<>();
+            for (int e = 0; e < slotEntries.size(); e++) {
+                entryThresholds[slot][e] = slotEntries.get(e)[0];
+                entryItems[slot][e] = slotEntries.get(e)[1];
+                distinct.add(slotEntries.get(e)[0]);
+            }
+            if (!slotEntries.isEmpty()) {
+                gatedSlots[gated++] = slot;
+            }
+
+            // blocked[slot][c] holds the items needing more than the c lowest distinct thresholds
+            cuts[slot] = distinct.stream().mapToInt(Integer::intValue).toArray();
+            blocked[slot] = new long[cuts[slot].length][words];
+            for (int e = slotEntries.size() - 1, c = cuts[slot].length - 1; c >= 0; c--) {
+                if (c + 1 < cuts[slot].length) {
+                    System.arraycopy(blocked[slot][c + 1], 0, blocked[slot][c], 0, words);
+                }
+                for (; e >= 0 && entryThresholds[slot][e] == cuts[slot][c]; e--) {
+                    int item = entryItems[slot][e];
+                    blocked[slot][c][item >>> 6] |= 1L << item;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the items of the index, bit i of a mask stands for the item at position i
+     * @return an unmodifiable list of the items
+     */
+    public List<T> items(){
+        return items;
+    }
+
+    /**
+     * Gets the number of longs in a mask
+     * @return the number of longs in a mask
+     */
+    public int words(){
+        return words;
+    }
+
+    /**
+     * Gets the stat manager layout the index was built against
+     * @return the stat manager layout the index was built against
+     */
+    StatManager layout(){
+        return layout;
+    }
+
+    /**
+     * Writes the mask of items a character with the given stat totals meets the Requirements for
+     * @param totals the characters stat totals indexed by stat handle
+     * @param into the mask to write into, at least {@link #words()} long
+     * @return the given mask
+     */
+    public long[] eligible(int[] totals, long[] into){
+        System.arraycopy(satisfiable, 0, into, 0, words);
+        for (int slot : gatedSlots) {
+            andNotBlocked(slot, totals[slot], into);
+        }
+        return into;
+    }
+
+    /**
+     * Writes the mask of items the given character meets the Requirements for
+     * @param character the character whose state will be checked
+     * @param into the mask to write into, at least {@link #words()} long
+     * @return the given mask
+     */
+    public long[] eligible(Character character, long[] into){
+        StatManager stats = character.getStat();
+        if (!stats.sameLayout(layout)) {
+            Arrays.fill(into, 0, words, 0L);
+            for (int item = 0; item < requirements.length; item++) {
+                if (requirements[item].test(character)) {
+                    into[item >>> 6] |= 1L << item;
+                }
+            }
+            return into;
+        }
+        System.arraycopy(satisfiable, 0, into, 0, words);
+        for (int slot : gatedSlots) {
+            andNotBlocked(slot, stats.get(slot).getTotal(), into);
+        }
+        return into;
+    }
+
+    /**
+     * Gets the set of items the given character meets the Requirements for
+     * @param character the character whose state will be checked
+     * @return a BitSet where bit i is set if the character meets the Requirements of item i
+     */
+    public BitSet eligible(Character character){
+        return BitSet.valueOf(eligible(character, new long[words]));
+    }
+
+    /**
+     * Gets the items the given character meets the Requirements for, in catalog order
+     * @param character the character whose state will be checked
+     * @return a new List of the items the character meets the Requirements for
+     */
+    public List<T> filter(Character character){
+        return itemsIn(eligible(character, new long[words]));
+    }
+
+    /**
+     * Gets the items whose bits are set in the given mask, in catalog order
+     * @param mask a mask built by this index
+     * @return a new List of the items in the mask
+     */
+    public List<T> itemsIn(long[] mask){
+        List<T> found = new ArrayList<>();
+        for (int word = 0; word < words; word++) {
+            long bits = mask[word];
+            while (bits != 0) {
+                found.add(items.get((word << 6) + Long.numberOfTrailingZeros(bits)));
+                bits &= bits - 1;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Creates a tracker that keeps the mask of the given character up to date one stat change at a time
+     * @param character the character to track
+     * @return a tracker holding the characters current mask
+     */
+    public EligibilityTracker<T> tracker(Character character){
+        StatManager stats = character.getStat();
+        int[] totals = new int[layout.size()];
+        for (int slot = 0; slot < totals.length; slot++) {
+            totals[slot] = stats.get(slot).getTotal();
+        }
+        int[] failing = new int[items.size()];
+        for (int slot : gatedSlots) {
+            int[] thresholds = entryThresholds[slot];
+            for (int e = thresholds.length - 1; e >= 0 && thresholds[e] > totals[slot]; e--) {
+                failing[entryItems[slot][e]]++;
+            }
+        }
+        return new EligibilityTracker<>(this, totals, failing, eligible(totals, new long[words]));
+    }
+
+    /**
+     * Gets the thresholds required of a stat, sorted from lowest to highest
+     * @param slot the stat handle
+     * @return the thresholds, shared with the index so it must not be modified
+     */
+    int[] entryThresholds(int slot){
+        return entryThresholds[slot];
+    }
+
+    /**
+     * Gets the item requiring each threshold of {@link #entryThresholds(int)}
+     * @param slot the stat handle
+     * @return the items, shared with the index so it must not be modified
+     */
+    int[] entryItems(int slot){
+        return entryItems[slot];
+    }
+
+    /**
+     * Returns if the item at the given position can ever be eligible
+     * @param item the position of the item
+     * @return true if it can, false otherwise
+     */
+    boolean isSatisfiable(int item){
+        return (satisfiable[item >>> 6] & 1L << item) != 0;
+    }
+
+    private void andNotBlocked(int slot, int total, long[] into){
+        int[] slotCuts = cuts[slot];
+        int c = upperBound(slotCuts, total);
+        if (c < slotCuts.length) {
+            long[] mask = blocked[slot][c];
+            for (int word = 0; word < words; word++) {
+                into[word] &= ~mask[word];
+            }
+        }
+    }
+
+    /**
+     * Returns the number of values in the sorted array that are less than or equal to the key
+     */
+    static int upperBound(int[] sorted, int key){
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
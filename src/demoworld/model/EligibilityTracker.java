@@ -0,0 +1,86 @@
+package demoworld.model;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Keeps the eligibility mask of one Character up to date as its stat totals change.
+ * Each item counts how many of its Requirements currently fail, and a change to one stat
+ * only revisits the Requirements whose threshold lies between the old and the new total
+ * @param <T> the type of the items
+ */
+public class EligibilityTracker<T> {
+
+    private final EligibilityIndex<T> index;
+    private final int[] totals;
+    private final int[] failing;
+    private final long[] mask;
+
+    /**
+     * Constructs a tracker, use {@link EligibilityIndex#tracker(Character)} to create one
+     * @param index the index being tracked against
+     * @param totals the characters stat totals indexed by stat handle
+     * @param failing the number of failing requirements of each item
+     * @param mask the current mask
+     */
+    EligibilityTracker(EligibilityIndex<T> index, int[] totals, int[] failing, long[] mask){
+        this.index = index;
+        this.totals = totals;
+        this.failing = failing;
+        this.mask = mask;
+    }
+
+    /**
+     * Records a new total for a stat and updates the eligibility of the items gated by it
+     * @param slot the handle of the stat that changed
+     * @param total the new total of the stat
+     */
+    public void update(int slot, int total){
+        int old = totals[slot];
+        if (old == total) {
+            return;
+        }
+        totals[slot] = total;
+        int[] thresholds = index.entryThresholds(slot);
+        int[] items = index.entryItems(slot);
+        // the requirements with a threshold in (low, high] changed from failing to passing or back
+        int low = Math.min(old, total);
+        int high = Math.max(old, total);
+        int end = EligibilityIndex.upperBound(thresholds, high);
+        for (int e = EligibilityIndex.upperBound(thresholds, low); e < end; e++) {
+            int item = items[e];
+            if (total > old) {
+                if (--failing[item] == 0 && index.isSatisfiable(item)) {
+                    mask[item >>> 6] |= 1L << item;
+                }
+            } else if (failing[item]++ == 0) {
+                mask[item >>> 6] &= ~(1L << item);
+            }
+        }
+    }
+
+    /**
+     * Returns if the character currently meets the Requirements of the item at the given position
+     * @param item the position of the item in the index
+     * @return true if it does, false otherwise
+     */
+    public boolean isEligible(int item){
+        return (mask[item >>> 6] & 1L << item) != 0;
+    }
+
+    /**
+     * Gets the current set of eligible items
+     * @return a BitSet where bit i is set if the character meets the Requirements of item i
+     */
+    public BitSet eligible(){
+        return BitSet.valueOf(mask);
+    }
+
+    /**
+     * Gets the items the character currently meets the Requirements for, in catalog order
+     * @return a new List of the eligible items
+     */
+    public List<T> items(){
+        return index.itemsIn(mask);
+    }
+}
@@ -1,5 +1,7 @@
 package demoworld.model;
 
+import java.io.IOException;
+
 /**
  * The Experience class represents a character current experience and how far they are from hitting a level up.
  * It extends the Value class to manage the experience value, the minimum should always be 0
@@ -16,6 +18,14 @@ public class Experience extends Value{
         super(0, max, current);
     }
 
+    /**
+     * Constructs a new experience object holding the same state as the given experience
+     * @param other the experience to copy
+     */
+    public Experience(Experience other){
+        super(other);
+    }
+
     /**
      * Checks if experience bar is full
      * @return true if the current experience is equal to the maximum experience, false otherwise
@@ -37,21 +47,27 @@ public class Experience extends Value{
      */
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
+        return SheetRenderer.toString(this::render);
+    }
 
+    /**
+     * Writes the experience block of the sheet, the same text toString returns
+     * @param out where to write
+     * @throws IOException if out fails to accept the text
+     */
+    void render(Appendable out)
+            throws IOException {
+        int current = current();
         // XP display in "XP: current/max" format
-        sb.append("XP: ").append(current()).append("/").append(max()).append("\n");
+        out.append("XP: ");
+        SheetRenderer.appendInt(out, current);
+        out.append('/');
+        SheetRenderer.appendInt(out, max());
+        out.append('\n');
 
         // Visual representation of the XP bar
-        for (int i = 0; i < current(); i++) {
-            sb.append("[*] ");
-        }
-        for (int i = current(); i < max(); i++) {
-            sb.append("[ ] ");
-        }
-        sb.append("\n");
-
-        return sb.toString();
+        SheetRenderer.appendBar(out, current, max());
+        out.append('\n');
     }
 
 }
@@ -2,7 +2,9 @@ package demoworld.model;
 
 import demoworld.model.adjustments.Adjustment;
 import demoworld.model.Requirement;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -13,8 +15,14 @@ public class Feature implements Adjuster{
 
     private String name;
     private String description;
+    private String displayName;
     private List<Adjustment> adjustments;
     private List<Requirement> requirements;
+    private List<Requirement> requirementsView;
+    private List<Adjustment> adjustmentsView;
+    private AdjustmentProgram program;
+    private int id = -1;
+    private boolean frozen;
 
     /**
      * Constructs a feature that can hold Adjustments and Requirement related to that feature
@@ -26,8 +34,8 @@ public class Feature implements Adjuster{
 
         this.name = name;
         this.description = description;
-        this.adjustments = new ArrayList<>();
-        this.requirements = new ArrayList<>();
+        this.adjustments = new ArrayList<>(0);
+        this.requirements = new ArrayList<>(0);
     }
 
     /**
@@ -38,6 +46,27 @@ public class Feature implements Adjuster{
         return name;
     }
 
+    /**
+     * Gets the id the rulebook gave the feature, its position in the rulebooks list of features
+     * @return the id of the feature, or -1 if it is not in a rulebook
+     */
+    public int getId(){
+        return id;
+    }
+
+    /**
+     * Gives the feature its id in a rulebook
+     * @param id the position of the feature in the rulebooks list
+     * @throws IllegalStateException if the feature already has a different id from another rulebook
+     */
+    void assignId(int id)
+            throws IllegalStateException {
+        if (this.id >= 0 && this.id != id) {
+            throw new IllegalStateException("Feature " + name + " already has id " + this.id + " in another rulebook");
+        }
+        this.id = id;
+    }
+
     /**
      * Gets the text description of the feature
      * @return text description of the feature
@@ -49,19 +78,56 @@ public class Feature implements Adjuster{
     /**
      * Adds an Adjustment to the adjustments this feature uses
      * @param adjustment the adjustment
+     * @throws IllegalStateException if the feature has been frozen
      */
-    public void addAdjustment(Adjustment adjustment){
+    public void addAdjustment(Adjustment adjustment)
+            throws IllegalStateException {
+        checkNotFrozen();
         adjustments.add(adjustment);
+        program = null;
     }
 
     /**
      * Adds a Requirement to the requirements this feature uses
      * @param requirement the requirement to be added to the feature
+     * @throws IllegalStateException if the feature has been frozen
      */
-    public void addRequirement(Requirement requirement){
+    public void addRequirement(Requirement requirement)
+            throws IllegalStateException {
+        checkNotFrozen();
         requirements.add(requirement);
     }
 
+    /**
+     * Stops the feature from being changed, swapping its adjustments and requirements for immutable
+     * copies. Done by the rulebook once its catalog is built, freezing twice does nothing
+     */
+    void freeze(){
+        if (frozen) {
+            return;
+        }
+        adjustments = List.copyOf(adjustments);
+        requirements = List.copyOf(requirements);
+        requirementsView = requirements;
+        adjustmentsView = adjustments;
+        frozen = true;
+    }
+
+    /**
+     * Returns if the feature has been frozen by its rulebook and can no longer be changed
+     * @return true if the feature is frozen, false otherwise
+     */
+    public boolean isFrozen(){
+        return frozen;
+    }
+
+    private void checkNotFrozen()
+            throws IllegalStateException {
+        if (frozen) {
+            throw new IllegalStateException("Feature " + name + " is part of a frozen rulebook and can not be changed");
+        }
+    }
+
     /**
      * Returns if the given Character meets the requirements for this feature
      * @param character Character whos state will be checked to determine if they meet
@@ -85,15 +151,39 @@ public class Feature implements Adjuster{
         return new ArrayList<>(requirements);
     }
 
+    /**
+     * Returns a read only view of the Requirements stored in this feature, without copying. The view is made the first time it is asked for
+     * @return an unmodifiable List of the requirements
+     */
+    public List<Requirement> getRequirementsView(){
+        List<Requirement> view = requirementsView;
+        if (view == null) {
+            view = Collections.unmodifiableList(requirements);
+            requirementsView = view;
+        }
+        return view;
+    }
+
+    /**
+     * Returns a read only view of the Adjustments stored in this feature, in the order they are applied, without copying. The view is made the first time it is asked for
+     * @return an unmodifiable List of the adjustments
+     */
+    public List<Adjustment> getAdjustmentsView(){
+        List<Adjustment> view = adjustmentsView;
+        if (view == null) {
+            view = Collections.unmodifiableList(adjustments);
+            adjustmentsView = view;
+        }
+        return view;
+    }
+
     /**
      * Applies all adjusts required by the feature
      * @param character the Character to adjust
      * @return the adjusted character
      */
     public Character adjust(Character character){
-        for (Adjustment adjustment : adjustments) {
-            character = adjustment.adjust(character);
-        }
+        program(character.getStat()).apply(character);
         return character;
     }
 
@@ -103,10 +193,49 @@ public class Feature implements Adjuster{
      * @return the unadjusted character
      */
     public Character unadjust(Character character){
+        program(character.getStat()).unapply(character);
+        return character;
+    }
+
+    /**
+     * Gets the adjustments of the feature compiled against the layout of the given stats, compiling them
+     * the first time they are needed for that layout. Only the program for the last layout is kept.
+     * Threads sharing a frozen feature may each compile and store a program, which is harmless as
+     * programs only have final fields and any of them gives the same result
+     * @param stats the stats of the character the program is for
+     * @return the compiled adjustments
+     */
+    AdjustmentProgram program(StatManager stats){
+        AdjustmentProgram compiled = program;
+        if (compiled == null || !compiled.fits(stats)) {
+            compiled = AdjustmentProgram.compile(adjustments, stats);
+            program = compiled;
+        }
+        return compiled;
+    }
+
+    /**
+     * Applies all adjusts required by the feature to a snapshot
+     * @param snapshot the state to adjust
+     * @return the adjusted state
+     */
+    public CharacterSnapshot adjust(CharacterSnapshot snapshot){
         for (Adjustment adjustment : adjustments) {
-            character = adjustment.unadjust(character);
+            snapshot = adjustment.adjust(snapshot);
         }
-        return character;
+        return snapshot;
+    }
+
+    /**
+     * Applies all unadjusts required by the feature to a snapshot
+     * @param snapshot the state to unadjust
+     * @return the unadjusted state
+     */
+    public CharacterSnapshot unadjust(CharacterSnapshot snapshot){
+        for (Adjustment adjustment : adjustments) {
+            snapshot = adjustment.unadjust(snapshot);
+        }
+        return snapshot;
     }
 
     /**
@@ -115,29 +244,47 @@ public class Feature implements Adjuster{
      */
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
+        return SheetRenderer.toString(this::render);
+    }
 
+    /**
+     * Gets the name of the feature in upper case the way sheets show it, worked out once and kept
+     * @return the upper case name of the feature
+     */
+    String getDisplayName(){
+        if (displayName == null) {
+            displayName = name.toUpperCase();
+        }
+        return displayName;
+    }
+
+    /**
+     * Writes the sheet entry of this feature, the same text toString returns
+     * @param out where to write
+     * @throws IOException if out fails to accept the text
+     */
+    void render(Appendable out)
+            throws IOException {
         // Format the name
-        sb.append(name.toUpperCase());
-        sb.append(" [");
+        out.append(getDisplayName());
+        out.append(" [");
 
         // Append markers based on the number of adjustments
-        if (!adjustments.isEmpty()) {
-            sb.append("*".repeat(adjustments.size()));
-        }
-        sb.append("]");
+        SheetRenderer.appendStars(out, adjustments.size());
+        out.append(']');
 
         // Add requirements
         if (!requirements.isEmpty()) {
-            sb.append("\nrequires: ");
-            for (Requirement req : requirements) {
-                sb.append(req.getStatKey()).append(" >= ").append(req.getThreshold()).append(" ");
+            out.append("\nrequires: ");
+            for (int i = 0; i < requirements.size(); i++) {
+                Requirement req = requirements.get(i);
+                out.append(req.getStatKey()).append(" >= ");
+                SheetRenderer.appendInt(out, req.getThreshold());
+                out.append(' ');
             }
         }
 
         // Add description
-        sb.append("\n\"").append(description).append("\"\n");
-
-        return sb.toString();
+        out.append("\n\"").append(description).append("\"\n");
     }
 }
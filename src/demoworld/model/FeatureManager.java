@@ -1,27 +1,56 @@
 package demoworld.model;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
- * Responsible for holding and managing access to various Features of a Character or RuleBook
+ * Responsible for holding and managing access to various Features of a Character or RuleBook.
+ * Alongside the Features in the order they were added it keeps a bitset of their rulebook ids, so checking
+ * whether a Feature is held takes one word whatever the size of the catalog. Features without an id,
+ * ones that are not in a rulebook, are only found by looking through the list
  */
 public class FeatureManager {
     private List<Feature> features;
+    private List<Feature> view;
+    private boolean frozen;
+    private Map<String, Feature> names;
+    private IdBitSet held;
+    private IdBitSet repeated;
+    private int unnumbered;
 
     /**
      * Constructs an empty requirements manager
      */
     public FeatureManager(){
         this.features = new ArrayList<>();
+        this.view = Collections.unmodifiableList(features);
+        this.held = new IdBitSet();
+        this.repeated = new IdBitSet();
     }
 
     /**
      * Adds a Feature to the FeatureManager
      * @param feature the feature being added to the FeatureManager
+     * @throws IllegalStateException if the FeatureManager has been frozen
      */
-    public void add(Feature feature){
+    public void add(Feature feature)
+            throws IllegalStateException {
+        checkNotFrozen();
         features.add(feature);
+        if (names != null) {
+            names.putIfAbsent(feature.getName(), feature);
+        }
+        int id = feature.getId();
+        if (id < 0) {
+            unnumbered++;
+        } else if (!held.add(id)) {
+            repeated.add(id);
+        }
     }
 
     /**
@@ -34,20 +63,168 @@ public class FeatureManager {
      */
     public Feature byName(String name)
             throws IllegalStateException{
-        for (Feature feature : features) {
-            if (feature.getName().equals(name)) {
-                return feature;
+        Feature feature = names().get(name);
+        if (feature == null) {
+            throw new IllegalStateException("Feature with name " + name + " not found");
+        }
+        return feature;
+    }
+
+    /**
+     * Gets the index from names to the first Feature added with that name, building it from the list the
+     * first time it is needed so managers that are never searched by name do not pay for it. A frozen manager
+     * keeps the index behind an unmodifiable wrapper, whose final field lets threads that race to build it
+     * share whichever copy is kept
+     */
+    private Map<String, Feature> names(){
+        Map<String, Feature> index = names;
+        if (index == null) {
+            index = new HashMap<>();
+            for (Feature feature : features) {
+                index.putIfAbsent(feature.getName(), feature);
+            }
+            if (frozen) {
+                index = Collections.unmodifiableMap(index);
             }
+            names = index;
         }
-        throw new IllegalStateException("Feature with name " + name + " not found");
+        return index;
     }
 
     /**
-     * Removes a given Feature from the FeatureManager
+     * Removes a given Feature from the FeatureManager, the first copy of it when it is held more than once.
+     * A Feature that is not held is turned away by its id bit without looking at the list, and a Feature
+     * held once is looked for from the end of the list, so taking back the latest Feature added, as
+     * what-if changes and specialties do, does not scan or shift the list at all
      * @param feature the feature to remove from the FeatureManager
+     * @throws IllegalStateException if the FeatureManager has been frozen
+     */
+    public void remove(Feature feature)
+            throws IllegalStateException {
+        checkNotFrozen();
+        int id = feature.getId();
+        if (id >= 0 && !held.contains(id)) {
+            return;
+        }
+        int at = id >= 0 && !repeated.contains(id) ? features.lastIndexOf(feature) : features.indexOf(feature);
+        if (at < 0) {
+            return;
+        }
+        features.remove(at);
+        if (names != null && names.get(feature.getName()) == feature) {
+            // another Feature with the same name may have to take its place
+            names = null;
+        }
+        if (id < 0) {
+            unnumbered--;
+        } else if (!repeated.contains(id)) {
+            held.remove(id);
+        } else if (count(feature) == 1) {
+            // only the copy the list still holds is left
+            repeated.remove(id);
+        }
+    }
+
+    /**
+     * Returns if the FeatureManager holds the given Feature
+     * @param feature the feature to look for
+     * @return true if the feature is held, false otherwise
+     */
+    public boolean contains(Feature feature){
+        int id = feature.getId();
+        if (id >= 0) {
+            return held.contains(id);
+        }
+        return unnumbered > 0 && features.contains(feature);
+    }
+
+    /**
+     * Returns if the FeatureManager holds a Feature with the given rulebook id
+     * @param id the id of the feature
+     * @return true if a feature with the id is held, false otherwise
+     */
+    public boolean contains(int id){
+        return held.contains(id);
+    }
+
+    /**
+     * Returns if the FeatureManager holds any of the Features whose ids are set in a mask,
+     * such as one built by an EligibilityIndex over the rulebooks features
+     * @param mask the mask, bit i standing for the feature with id i
+     * @return true if any feature in the mask is held, false otherwise
+     */
+    public boolean intersects(long[] mask){
+        return held.intersects(mask);
+    }
+
+    /**
+     * Returns if the FeatureManager holds every Feature whose id is set in a mask
+     * @param mask the mask, bit i standing for the feature with id i
+     * @return true if every feature in the mask is held, false otherwise
+     */
+    public boolean containsAll(long[] mask){
+        return held.containsAll(mask);
+    }
+
+    /**
+     * Gets the number of words the bitset of held feature ids uses
+     * @return the number of words
+     */
+    public int idWords(){
+        return held.words();
+    }
+
+    /**
+     * Gets one word of the bitset of held feature ids, zero past the last word it uses
+     * @param index the position of the word
+     * @return the bits of the features with ids 64 * index to 64 * index + 63
+     */
+    public long idWord(int index){
+        return held.word(index);
+    }
+
+    /**
+     * Rebuilds the bitset from the list, for when the held Features were given ids after being added
      */
-    public void remove(Feature feature){
-        features.remove(feature);
+    void reindex(){
+        held = new IdBitSet();
+        repeated = new IdBitSet();
+        unnumbered = 0;
+        for (Feature feature : features) {
+            int id = feature.getId();
+            if (id < 0) {
+                unnumbered++;
+            } else if (!held.add(id)) {
+                repeated.add(id);
+            }
+        }
+    }
+
+    private int count(Feature feature){
+        int count = 0;
+        for (Feature other : features) {
+            if (other == feature) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of Features managed by the FeatureManager
+     * @return the number of Features managed by the FeatureManager
+     */
+    public int size(){
+        return features.size();
+    }
+
+    /**
+     * Gets the Feature at the given position, in the order they were added, without copying the list
+     * @param index the position of the Feature
+     * @return the Feature at that position
+     */
+    public Feature get(int index){
+        return features.get(index);
     }
 
     /**
@@ -58,24 +235,79 @@ public class FeatureManager {
         return new ArrayList<>(features);
     }
 
+    /**
+     * Stops the FeatureManager from being changed, swapping its list for an immutable copy. Done by the
+     * rulebook once its catalog is built, freezing twice does nothing
+     */
+    void freeze(){
+        if (frozen) {
+            return;
+        }
+        features = List.copyOf(features);
+        view = features;
+        names = null;
+        frozen = true;
+    }
+
+    /**
+     * Returns if the FeatureManager has been frozen by its rulebook and can no longer be changed
+     * @return true if the FeatureManager is frozen, false otherwise
+     */
+    public boolean isFrozen(){
+        return frozen;
+    }
+
+    private void checkNotFrozen()
+            throws IllegalStateException {
+        if (frozen) {
+            throw new IllegalStateException("FeatureManager of a frozen rulebook can not be changed");
+        }
+    }
+
+    /**
+     * Returns a read only view of the Features managed by the FeatureManager, which follows later changes
+     * without copying
+     * @return an unmodifiable List of the Features managed by the FeatureManager
+     */
+    public List<Feature> view(){
+        return view;
+    }
+
+    /**
+     * Runs an action on every Feature managed by the FeatureManager, in the order they were added
+     * @param action the action to run
+     */
+    public void forEach(Consumer<? super Feature> action){
+        for (int i = 0; i < features.size(); i++) {
+            action.accept(features.get(i));
+        }
+    }
+
     /**
      * Returns a string representation of the contents of the feature manager
      * @return a string representation of the contents of the feature manager
      */
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
-
-        sb.append("        |===========================\\\n");
-        sb.append("[0]#####>-------- FEATURES ---------->\n");
-        sb.append("        |===========================/\n");
+        return SheetRenderer.toString(this::render);
+    }
 
-        int index = 1;
+    /**
+     * Writes the features block of the sheet, the same text toString returns
+     * @param out where to write
+     * @throws IOException if out fails to accept the text
+     */
+    void render(Appendable out)
+            throws IOException {
+        out.append("        |===========================\\\n");
+        out.append("[0]#####>-------- FEATURES ---------->\n");
+        out.append("        |===========================/\n");
 
-        for (Feature feature : features) {
-            sb.append(index++).append(". ").append(feature.toString()).append("\n");
+        for (int i = 0; i < features.size(); i++) {
+            SheetRenderer.appendInt(out, i + 1);
+            out.append(". ");
+            features.get(i).render(out);
+            out.append('\n');
         }
-
-        return sb.toString();
     }
 }
@@ -1,5 +1,7 @@
 package demoworld.model;
 
+import java.io.IOException;
+
 /**
  * Hitpoints represents the hitpoints of a Character.
  * It extends the Stat class and provides methods to manage the characters hitpoints
@@ -19,6 +21,35 @@ public class Hitpoints extends Stat{
         this.tempHp = 0;
     }
 
+    /**
+     * Constructs a Hitpoints instance holding its own copy of the given hitpoints state
+     * @param other the Hitpoints to copy
+     */
+    protected Hitpoints(Hitpoints other){
+        super(other);
+        this.tempHp = other.getTempHp();
+    }
+
+    /**
+     * Constructs a Hitpoints instance around existing base and modifier Values
+     * @param base the base Value of the hitpoints
+     * @param modifier the modifier Value of the hitpoints
+     */
+    protected Hitpoints(Value base,
+                        Value modifier){
+        super("hitpoints", "Represents the hitpoints of the character", base, modifier);
+        this.tempHp = 0;
+    }
+
+    /**
+     * Creates a copy of these hitpoints that shares no mutable state with them
+     * @return a copy of these hitpoints
+     */
+    @Override
+    public Hitpoints copy(){
+        return new Hitpoints(this);
+    }
+
     /**
      * Checks if the hitpoints state would indicate the character is downed
      * @return true if the current hit points are equal to the minimum hit points, false otherwise
@@ -34,13 +65,14 @@ public class Hitpoints extends Stat{
      * @return the new total hitpoints
      */
     public int damage(int value){
+        int tempHp = getTempHp();
         if (tempHp > 0) {
             if (value <= tempHp) {
-                tempHp -= value;
+                setTempHp(tempHp - value);
                 return getTotal();
             } else {
                 value -= tempHp;
-                tempHp = 0;
+                setTempHp(0);
             }
         }
         setCurrentBase(getBase().current() - value);
@@ -61,13 +93,19 @@ public class Hitpoints extends Stat{
      * Sets the temporary hitpoints for the Character.
      * This can never be set to a negative number, if its given a negative number turns it to 0
      * @param value the temporary hitpoints to set
+     * @throws IllegalStateException if the hitpoints are frozen
      */
-    public void setTempHp(int value){
+    public void setTempHp(int value)
+            throws IllegalStateException {
+        if (isFrozen()) {
+            throw new IllegalStateException("Hitpoints of a frozen rulebook can not be changed");
+        }
         if (value < 0) {
             tempHp = 0;
         } else {
             tempHp = value;
         }
+        notifyListener();
     }
 
     /**
@@ -82,7 +120,7 @@ public class Hitpoints extends Stat{
      * Resets the temporary hit points to zero
      */
     public void resetTempHp(){
-        tempHp = 0;
+        setTempHp(0);
     }
 
     /**
@@ -91,20 +129,29 @@ public class Hitpoints extends Stat{
      */
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
-
-        sb.append("HITPOINTS: ").append(getTotal()).append("/").append(getTotalMax()).append("\n");
+        return SheetRenderer.toString(this::render);
+    }
 
-        for (int i = 0; i < getTotal(); i++) {
-            sb.append("[*] ");
-        }
-        for (int i = getTotal(); i < getTotalMax(); i++) {
-            sb.append("[ ] ");
-        }
-        sb.append("\n");
+    /**
+     * Writes the hitpoints block of the sheet, the same text toString returns
+     * @param out where to write
+     * @throws IOException if out fails to accept the text
+     */
+    @Override
+    void render(Appendable out)
+            throws IOException {
+        int total = getTotal();
+        out.append("HITPOINTS: ");
+        SheetRenderer.appendInt(out, total);
+        out.append('/');
+        SheetRenderer.appendInt(out, getTotalMax());
+        out.append('\n');
 
-        sb.append("TEMP HP: ").append(tempHp).append("\n");
+        SheetRenderer.appendBar(out, total, getTotalMax());
+        out.append('\n');
 
-        return sb.toString();
+        out.append("TEMP HP: ");
+        SheetRenderer.appendInt(out, getTempHp());
+        out.append('\n');
     }
 }
@@ -0,0 +1,98 @@
+package demoworld.model;
+
+/**
+ * A set of the ids a RuleBook gives its Features or Specialties, kept as one bit per id in a long array
+ * that grows to fit the largest id added. Adding, removing and testing an id touch one word, and
+ * comparing against a mask, such as one from an EligibilityIndex, works a word at a time
+ */
+final class IdBitSet {
+
+    private static final long[] EMPTY = new long[0];
+
+    private long[] words = EMPTY;
+
+    /**
+     * Adds an id to the set
+     * @param id the id to add
+     * @return true if the id was not in the set before, false otherwise
+     */
+    boolean add(int id){
+        int word = id >>> 6;
+        if (word >= words.length) {
+            long[] grown = new long[Math.max(word + 1, words.length * 2)];
+            System.arraycopy(words, 0, grown, 0, words.length);
+            words = grown;
+        }
+        long bit = 1L << id;
+        boolean absent = (words[word] & bit) == 0;
+        words[word] |= bit;
+        return absent;
+    }
+
+    /**
+     * Removes an id from the set
+     * @param id the id to remove
+     */
+    void remove(int id){
+        int word = id >>> 6;
+        if (word < words.length) {
+            words[word] &= ~(1L << id);
+        }
+    }
+
+    /**
+     * Returns if an id is in the set
+     * @param id the id to check
+     * @return true if the id is in the set, false otherwise
+     */
+    boolean contains(int id){
+        int word = id >>> 6;
+        return id >= 0 && word < words.length && (words[word] & 1L << id) != 0;
+    }
+
+    /**
+     * Gets the number of words the set currently uses
+     * @return the number of words
+     */
+    int words(){
+        return words.length;
+    }
+
+    /**
+     * Gets one word of the set, zero past the last word it uses
+     * @param index the position of the word
+     * @return the bits of ids 64 * index to 64 * index + 63
+     */
+    long word(int index){
+        return index < words.length ? words[index] : 0L;
+    }
+
+    /**
+     * Returns if the set holds any id set in a mask
+     * @param mask the mask, bit i standing for id i
+     * @return true if the set and the mask share an id, false otherwise
+     */
+    boolean intersects(long[] mask){
+        int shared = Math.min(mask.length, words.length);
+        for (int i = 0; i < shared; i++) {
+            if ((words[i] & mask[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns if the set holds every id set in a mask
+     * @param mask the mask, bit i standing for id i
+     * @return true if every id in the mask is in the set, false otherwise
+     */
+    boolean containsAll(long[] mask){
+        for (int i = 0; i < mask.length; i++) {
+            if ((mask[i] & ~word(i)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -21,4 +21,35 @@ public class PrimaryStat extends Stat{
         super(name, description, min, max, current);
     }
 
+    /**
+     * Constructs a primary stat holding its own copy of the given primary stats state
+     * @param other the PrimaryStat to copy
+     */
+    protected PrimaryStat(PrimaryStat other){
+        super(other);
+    }
+
+    /**
+     * Constructs a primary stat around existing base and modifier Values
+     * @param name name of the PrimaryStat
+     * @param description description of the PrimaryStat
+     * @param base the base Value of the PrimaryStat
+     * @param modifier the modifier Value of the PrimaryStat
+     */
+    protected PrimaryStat(String name,
+                          String description,
+                          Value base,
+                          Value modifier){
+        super(name, description, base, modifier);
+    }
+
+    /**
+     * Creates a copy of this primary stat that shares no mutable state with it
+     * @return a copy of this primary stat
+     */
+    @Override
+    public PrimaryStat copy(){
+        return new PrimaryStat(this);
+    }
+
 }
@@ -6,9 +6,9 @@ package demoworld.model;
  */
 public class Requirement {
 
-    private String name;
-    private String statKey;
-    private int threshold;
+    private final String name;
+    private final String statKey;
+    private final int threshold;
 
     /**
      * Construct a new requirement with a given name, statKey and threshold
@@ -32,6 +32,22 @@ public class Requirement {
         return name;
     }
 
+    /**
+     * Gets the name of the Stat the Requirement checks against
+     * @return name of the Stat the Requirement checks against
+     */
+    public String getStatKey(){
+        return statKey;
+    }
+
+    /**
+     * Gets how much the Stat Value current total amount needs to be equal to or above
+     * @return the threshold of the Requirement
+     */
+    public int getThreshold(){
+        return threshold;
+    }
+
     /**
      * Returns if the Character current state fulfills the criteria of this specific Requirement
      * @param character the character state that will be checked
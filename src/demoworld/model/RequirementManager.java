@@ -1,7 +1,11 @@
 package demoworld.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Responsible for holding and managing access to various Requirements of a RuleBook or Feature
@@ -9,20 +13,30 @@ import java.util.List;
 public class RequirementManager {
 
     private List<Requirement> requirements;
+    private List<Requirement> view;
+    private boolean frozen;
+    private Map<String, Requirement> names;
 
     /**
      * Constructs an empty requirements manager
      */
     public RequirementManager(){
         this.requirements = new ArrayList<>();
+        this.view = Collections.unmodifiableList(requirements);
     }
 
     /**
      * Adds a Requirement to the RequirementManager
      * @param requirement requirement to add to the RequirementManager
+     * @throws IllegalStateException if the RequirementManager has been frozen
      */
-    public void add(Requirement requirement){
+    public void add(Requirement requirement)
+            throws IllegalStateException {
+        checkNotFrozen();
         requirements.add(requirement);
+        if (names != null) {
+            names.putIfAbsent(requirement.getName(), requirement);
+        }
     }
 
     /**
@@ -35,20 +49,45 @@ public class RequirementManager {
      */
     public Requirement byName(String name)
             throws IllegalStateException{
-        for (Requirement requirement : requirements) {
-            if (requirement.getName().equals(name)) {
-                return requirement;
+        Requirement requirement = names().get(name);
+        if (requirement == null) {
+            throw new IllegalStateException("Requirement with name " + name + " not found");
+        }
+        return requirement;
+    }
+
+    /**
+     * Gets the index from names to the first Requirement added with that name, building it from the list the
+     * first time it is needed so managers that are never searched by name do not pay for it. A frozen manager
+     * keeps the index behind an unmodifiable wrapper, whose final field lets threads that race to build it
+     * share whichever copy is kept
+     */
+    private Map<String, Requirement> names(){
+        Map<String, Requirement> index = names;
+        if (index == null) {
+            index = new HashMap<>();
+            for (Requirement requirement : requirements) {
+                index.putIfAbsent(requirement.getName(), requirement);
+            }
+            if (frozen) {
+                index = Collections.unmodifiableMap(index);
             }
+            names = index;
         }
-        throw new IllegalStateException("Requirement with name " + name + " not found");
+        return index;
     }
 
     /**
      * Removes a given Requirement from the RequirementManager
      * @param requirement the requirement to be removed from the RequirementManager
+     * @throws IllegalStateException if the RequirementManager has been frozen
      */
-    public void remove(Requirement requirement){
-        requirements.remove(requirement);
+    public void remove(Requirement requirement)
+            throws IllegalStateException {
+        checkNotFrozen();
+        if (requirements.remove(requirement)) {
+            names = null;
+        }
     }
 
     /**
@@ -59,4 +98,69 @@ public class RequirementManager {
     public List<Requirement> all(){
         return new ArrayList<>(requirements);
     }
+
+    /**
+     * Gets the number of Requirements managed by the RequirementManager
+     * @return the number of Requirements managed by the RequirementManager
+     */
+    public int size(){
+        return requirements.size();
+    }
+
+    /**
+     * Gets the Requirement at the given position, in the order they were added, without copying the list
+     * @param index the position of the Requirement
+     * @return the Requirement at that position
+     */
+    public Requirement get(int index){
+        return requirements.get(index);
+    }
+
+    /**
+     * Stops the RequirementManager from being changed, swapping its list for an immutable copy. Done by the
+     * rulebook once its catalog is built, freezing twice does nothing
+     */
+    void freeze(){
+        if (frozen) {
+            return;
+        }
+        requirements = List.copyOf(requirements);
+        view = requirements;
+        names = null;
+        frozen = true;
+    }
+
+    /**
+     * Returns if the RequirementManager has been frozen by its rulebook and can no longer be changed
+     * @return true if the RequirementManager is frozen, false otherwise
+     */
+    public boolean isFrozen(){
+        return frozen;
+    }
+
+    private void checkNotFrozen()
+            throws IllegalStateException {
+        if (frozen) {
+            throw new IllegalStateException("RequirementManager of a frozen rulebook can not be changed");
+        }
+    }
+
+    /**
+     * Returns a read only view of the Requirements managed by the RequirementManager, which follows later changes
+     * without copying
+     * @return an unmodifiable List of the Requirements managed by the RequirementManager
+     */
+    public List<Requirement> view(){
+        return view;
+    }
+
+    /**
+     * Runs an action on every Requirement managed by the RequirementManager, in the order they were added
+     * @param action the action to run
+     */
+    public void forEach(Consumer<? super Requirement> action){
+        for (int i = 0; i < requirements.size(); i++) {
+            action.accept(requirements.get(i));
+        }
+    }
 }
@@ -7,6 +7,9 @@ import java.util.List;
  * Abstract class spelling out what a Rulebook will have at the minimum for methods
  */
 public abstract class RuleBook {
+
+    private volatile boolean frozen;
+
     /**
      * Gets the name of the rulebook.
      *
@@ -29,7 +32,8 @@ public abstract class RuleBook {
     public abstract List<Feature> getFeaturesReference();
 
     /**
-     * Get the rulebooks initial {@link Experience} reference.
+     * Get the rulebooks initial {@link Experience} reference. Once the rulebook is frozen it can no longer be
+     * changed, {@link #createCharacterExperience()} gives a copy that can.
      *
      * @return the rulebooks initial {@link Experience} reference.
      */
@@ -67,6 +71,45 @@ public abstract class RuleBook {
      */
     public abstract List<Feature> getFeaturesFilteredByRequirements(Character character);
 
+    /**
+     * Returns the {@link EligibilityIndex} over every {@link Feature} in the game, for answering
+     * which features a {@link Character} meets the requirements for as a bit mask
+     * @return the {@link EligibilityIndex} over every {@link Feature} in the game
+     */
+    public abstract EligibilityIndex<Feature> getFeatureEligibility();
+
+    /**
+     * Returns the {@link EligibilityIndex} over every {@link Specialty} in the game, for answering
+     * which specialties a {@link Character} meets the requirements for as a bit mask
+     * @return the {@link EligibilityIndex} over every {@link Specialty} in the game
+     */
+    public abstract EligibilityIndex<Specialty> getSpecialtyEligibility();
+
+    /**
+     * Returns the {@link Feature}s that let a {@link Character} roll twice and take the best result
+     * on checks of the given kind, such as "heat" or "violence"
+     * @param check the kind of check
+     * @return the features granting advantage on that kind of check, empty if there are none
+     */
+    public abstract List<Feature> getAdvantageFeatures(String check);
+
+    /**
+     * Returns the kinds of check, such as "heat" or "violence", that {@link #getAdvantageFeatures(String)}
+     * has features for. Rulebooks without advantage features do not need to override this
+     * @return the kinds of check with advantage features, empty by default
+     */
+    public List<String> getAdvantageChecks(){
+        return List.of();
+    }
+
+    /**
+     * Gets a list of every {@link Requirement} in the rulebooks {@link RequirementManager}
+     * @return a new List of every requirement of the rulebook
+     */
+    public List<Requirement> getRequirementsReference(){
+        return getRequirement().all();
+    }
+
     /**
      * creates a {@code List} of the initial {@link Stat}s for a starting {@link Character}.
      * @return  a {@code List} of the initial {@link Stat}s for a starting {@link Character}.
@@ -131,7 +174,7 @@ public abstract class RuleBook {
     protected abstract RequirementManager getRequirement();
 
     /**
-     * Returns List of Stats
+     * Returns List of Stats, which can no longer be changed once the rulebook is frozen
      * @return List of Stats
      */
     protected abstract List<Stat> getStatReference();
@@ -140,6 +183,81 @@ public abstract class RuleBook {
      * Returns List of {@link Specialty}'s
      * @return List of {@link Specialty}
      */
-    protected abstract List<Specialty> getSpecialtiesReference();
+    public abstract List<Specialty> getSpecialtiesReference();
+
+    /**
+     * Gives every {@link Feature} and {@link Specialty} of the rulebook a dense id, its position in
+     * {@link #getFeaturesReference()} or {@link #getSpecialtiesReference()}. Rulebooks call this once
+     * their catalog is built, before any {@link Character} is made from them
+     * @throws IllegalStateException if a feature or specialty already has a different id from another rulebook
+     */
+    protected void assignIds()
+            throws IllegalStateException {
+        List<Feature> features = getFeaturesReference();
+        for (int i = 0; i < features.size(); i++) {
+            features.get(i).assignId(i);
+        }
+        List<Specialty> specialties = getSpecialtiesReference();
+        for (int i = 0; i < specialties.size(); i++) {
+            specialties.get(i).assignId(i);
+        }
+        getFeature().reindex();
+        getSpecialty().reindex();
+    }
+
+    /**
+     * Freezes the rulebooks catalog: its {@link StatManager}, {@link RequirementManager},
+     * {@link FeatureManager} and {@link SpecialtyManager}, and every {@link Feature} and {@link Specialty}
+     * in it, swap their lists for immutable copies, and the starting {@link Stat}s and {@link Experience}
+     * stop accepting changes, so each throws an {@link IllegalStateException} from then on when anything
+     * tries to change it. Rulebooks call this at the end of building their catalog, after
+     * {@link #assignIds()}. A rulebook that freezes in its constructor and keeps its managers in final fields
+     * can then be shared by any number of threads reading it at once with no locking or copying
+     */
+    protected void freeze(){
+        if (frozen) {
+            return;
+        }
+        getStat().freeze();
+        getExperienceReference().freeze();
+        getRequirement().freeze();
+        FeatureManager features = getFeature();
+        for (int i = 0; i < features.size(); i++) {
+            features.get(i).freeze();
+        }
+        features.freeze();
+        SpecialtyManager specialties = getSpecialty();
+        for (int i = 0; i < specialties.size(); i++) {
+            specialties.get(i).freeze();
+        }
+        specialties.freeze();
+        frozen = true;
+    }
+
+    /**
+     * Returns if the rulebooks catalog has been frozen and can no longer be changed
+     * @return true if the rulebook is frozen, false otherwise
+     */
+    public boolean isFrozen(){
+        return frozen;
+    }
+
+    /**
+     * Creates a new {@link StatManager} for a starting {@link Character} by copying the rulebooks
+     * stat template. Every character gets its own copy so the template itself is never modified
+     * @return a new {@link StatManager} holding the starting {@link Stat}s
+     */
+    public StatManager createCharacterStats(){
+        return new StatManager(getStat());
+    }
+
+    /**
+     * Creates a new {@link Experience} for a starting {@link Character} by copying the rulebooks
+     * initial {@link Experience} so the rulebooks copy is never modified
+     * @return a new {@link Experience} holding the starting experience
+     */
+    public Experience createCharacterExperience(){
+        return new Experience(getExperienceReference());
+    }
 
 }
\ No newline at end of file
@@ -0,0 +1,298 @@
+package demoworld.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes character sheets straight into an Appendable, a Writer or a ByteBuffer. The output is the
+ * same as the toString methods of the model have always produced, those now use this class as well.
+ * Numbers, padding and the [*] bars are written without building any intermediate Strings, and a bar
+ * is written as slices of a cached run of 256 cells rather than one append per point. Bars have no upper
+ * clamp, so the number of appends still grows with the size of the bar, just 256 times slower
+ */
+public final class SheetRenderer {
+
+    /** how many cells each cached bar run holds */
+    private static final int BAR_RUN = 256;
+    private static final String FULL_BAR = "[*] ".repeat(BAR_RUN);
+    private static final String EMPTY_BAR = "[ ] ".repeat(BAR_RUN);
+    private static final String STARS = "*".repeat(BAR_RUN);
+    private static final String SPACES = " ".repeat(64);
+
+    /** the width primary stat lines are padded to inside the sheet border */
+    private static final int PRIMARY_WIDTH = 31;
+
+    /**
+     * Something that can write itself into an Appendable
+     */
+    interface Part {
+        /**
+         * Writes this part
+         * @param out where to write
+         * @throws IOException if out fails to accept the text
+         */
+        void render(Appendable out)
+                throws IOException;
+    }
+
+    private SheetRenderer(){
+    }
+
+    /**
+     * Writes the full character sheet of the given character
+     * @param character the character to write the sheet of
+     * @param out where to write the sheet
+     * @throws IOException if out fails to accept the text
+     */
+    public static void render(Character character, Appendable out)
+            throws IOException {
+        out.append("  _______________________________________\n");
+        out.append("/ \\                                      |\n");
+        out.append("\\__|                                     |\n");
+
+        out.append("   |             * ").append(character.getName()).append(" *                |\n");
+
+        out.append("   |                                     |\n");
+        out.append("   |                                     |\n");
+
+        StatManager stats = character.getStat();
+        boolean anyPrimary = false;
+        for (int i = 0; i < stats.size(); i++) {
+            Stat stat = stats.get(i);
+            if (stat instanceof PrimaryStat) {
+                out.append("   |      ");
+                stat.render(out);
+                pad(out, stat.renderedLength(), PRIMARY_WIDTH);
+                out.append("|\n");
+                anyPrimary = true;
+            }
+        }
+        if (!anyPrimary) {
+            // an empty stat block still came out as one blank line
+            out.append("   |      ");
+            pad(out, 0, PRIMARY_WIDTH);
+            out.append("|\n");
+        }
+
+        out.append("   |                                     |\n");
+        out.append("   |  ___________________________________|__\n");
+        out.append("   \\_/_____________________________________/\n");
+
+        character.getStatByName("hitpoints").render(out);
+        character.getExperience().render(out);
+        character.getSpecialty().render(out);
+        out.append('\n');
+        character.getFeature().render(out);
+        out.append('\n');
+    }
+
+    /**
+     * Writes the full character sheet of the given character as UTF-8 into a ByteBuffer, starting at its
+     * position and leaving the position after the last byte written
+     * @param character the character to write the sheet of
+     * @param out where to write the sheet
+     * @throws BufferOverflowException if the sheet does not fit in the remaining space of out
+     */
+    public static void render(Character character, ByteBuffer out){
+        Utf8Sink sink = new Utf8Sink(out);
+        try {
+            render(character, sink);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        sink.finish();
+    }
+
+    /**
+     * Writes the full character sheet of the given character into a String
+     * @param character the character to write the sheet of
+     * @return the character sheet
+     */
+    public static String render(Character character){
+        return toString(out -> render(character, out));
+    }
+
+    /**
+     * Writes a part into a new String
+     * @param part the part to write
+     * @return the written text
+     */
+    static String toString(Part part){
+        StringBuilder sb = new StringBuilder();
+        try {
+            part.render(sb);
+        } catch (IOException e) {
+            // a StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes an int in decimal
+     * @param out where to write
+     * @param value the int to write
+     * @throws IOException if out fails to accept the text
+     */
+    static void appendInt(Appendable out, int value)
+            throws IOException {
+        if (out instanceof StringBuilder) {
+            ((StringBuilder) out).append(value);
+            return;
+        }
+        long remaining = value;
+        if (remaining < 0) {
+            out.append('-');
+            remaining = -remaining;
+        }
+        long divisor = 1;
+        while (divisor * 10 <= remaining) {
+            divisor *= 10;
+        }
+        while (divisor > 0) {
+            out.append((char) ('0' + remaining / divisor % 10));
+            divisor /= 10;
+        }
+    }
+
+    /**
+     * Counts the characters appendInt writes for an int
+     * @param value the int
+     * @return the number of characters in its decimal form
+     */
+    static int intLength(int value){
+        long remaining = value;
+        int length = 1;
+        if (remaining < 0) {
+            length++;
+            remaining = -remaining;
+        }
+        while (remaining >= 10) {
+            remaining /= 10;
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Writes a bar of filled cells followed by empty cells up to the maximum, the same cells a loop
+     * from 0 to current and then from current to max would write. It takes ceil(current / 256) appends
+     * for the filled cells and ceil((max - current) / 256) for the empty ones, so a pool of up to 256
+     * points is at most two appends, but a larger pool still costs one append for every 256 points
+     * @param out where to write
+     * @param current the number of filled cells
+     * @param max the total number of cells
+     * @throws IOException if out fails to accept the text
+     */
+    static void appendBar(Appendable out, int current, int max)
+            throws IOException {
+        repeat(out, FULL_BAR, 4, Math.max(0, current));
+        repeat(out, EMPTY_BAR, 4, Math.max(0, (long) max - current));
+    }
+
+    /**
+     * Writes the given number of stars
+     * @param out where to write
+     * @param count how many stars
+     * @throws IOException if out fails to accept the text
+     */
+    static void appendStars(Appendable out, int count)
+            throws IOException {
+        repeat(out, STARS, 1, count);
+    }
+
+    /**
+     * Writes spaces after a piece of text until it reaches the given width, nothing if it is already that wide
+     * @param out where to write
+     * @param length the length of the text already written
+     * @param width the width to pad to
+     * @throws IOException if out fails to accept the text
+     */
+    static void pad(Appendable out, int length, int width)
+            throws IOException {
+        repeat(out, SPACES, 1, width - length);
+    }
+
+    private static void repeat(Appendable out, String run, int cellLength, long cells)
+            throws IOException {
+        int runCells = run.length() / cellLength;
+        while (cells > 0) {
+            int now = (int) Math.min(cells, runCells);
+            out.append(run, 0, now * cellLength);
+            cells -= now;
+        }
+    }
+
+    /**
+     * An Appendable that encodes into a ByteBuffer as UTF-8, unpaired surrogates become '?' the same
+     * as String.getBytes does
+     */
+    private static final class Utf8Sink implements Appendable {
+
+        private final ByteBuffer out;
+        private char pendingHigh;
+
+        Utf8Sink(ByteBuffer out){
+            this.out = out;
+        }
+
+        @Override
+        public Appendable append(CharSequence csq){
+            CharSequence text = csq == null ? "null" : csq;
+            return append(text, 0, text.length());
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end){
+            CharSequence text = csq == null ? "null" : csq;
+            for (int i = start; i < end; i++) {
+                append(text.charAt(i));
+            }
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c){
+            if (pendingHigh != 0) {
+                char high = pendingHigh;
+                pendingHigh = 0;
+                if (java.lang.Character.isLowSurrogate(c)) {
+                    int codePoint = java.lang.Character.toCodePoint(high, c);
+                    out.put((byte) (0xF0 | (codePoint >> 18)));
+                    out.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                    out.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                    out.put((byte) (0x80 | (codePoint & 0x3F)));
+                    return this;
+                }
+                out.put((byte) '?');
+            }
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | (c >> 6)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            } else if (java.lang.Character.isHighSurrogate(c)) {
+                pendingHigh = c;
+            } else if (java.lang.Character.isLowSurrogate(c)) {
+                out.put((byte) '?');
+            } else {
+                out.put((byte) (0xE0 | (c >> 12)));
+                out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            }
+            return this;
+        }
+
+        /**
+         * Writes out a high surrogate left waiting for a partner at the end of the text
+         */
+        void finish(){
+            if (pendingHigh != 0) {
+                pendingHigh = 0;
+                out.put((byte) '?');
+            }
+        }
+    }
+}
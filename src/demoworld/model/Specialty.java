@@ -1,6 +1,8 @@
 package demoworld.model;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -11,8 +13,14 @@ public class Specialty implements Adjuster{
 
     private String name;
     private String description;
+    private String displayName;
     private List<Feature> features;
     private List<Requirement> requirements;
+    private List<Feature> featuresView;
+    private List<Requirement> requirementsView;
+    private AdjustmentProgram program;
+    private int id = -1;
+    private boolean frozen;
 
     /**
      * Constructs a specialty that can hold Features and Requirement related to that specialty.
@@ -23,8 +31,8 @@ public class Specialty implements Adjuster{
                      String description){
         this.name = name;
         this.description = description;
-        this.features = new ArrayList<>();
-        this.requirements = new ArrayList<>();
+        this.features = new ArrayList<>(0);
+        this.requirements = new ArrayList<>(0);
     }
 
     /**
@@ -35,6 +43,27 @@ public class Specialty implements Adjuster{
         return name;
     }
 
+    /**
+     * Gets the id the rulebook gave the specialty, its position in the rulebooks list of specialties
+     * @return the id of the specialty, or -1 if it is not in a rulebook
+     */
+    public int getId(){
+        return id;
+    }
+
+    /**
+     * Gives the specialty its id in a rulebook
+     * @param id the position of the specialty in the rulebooks list
+     * @throws IllegalStateException if the specialty already has a different id from another rulebook
+     */
+    void assignId(int id)
+            throws IllegalStateException {
+        if (this.id >= 0 && this.id != id) {
+            throw new IllegalStateException("Specialty " + name + " already has id " + this.id + " in another rulebook");
+        }
+        this.id = id;
+    }
+
     /**
      * Gets the text description of the specialty
      * @return text description of the specialty
@@ -46,19 +75,59 @@ public class Specialty implements Adjuster{
     /**
      * Adds a Feature to the requirements this specialty uses
      * @param feature the feature being added to this specialty
+     * @throws IllegalStateException if the specialty has been frozen
      */
-    public void addFeature(Feature feature){
+    public void addFeature(Feature feature)
+            throws IllegalStateException {
+        checkNotFrozen();
         features.add(feature);
+        program = null;
     }
 
     /**
      * Adds a Requirement to the requirements this feature uses
      * @param requirement the requirement being added to this specialty
+     * @throws IllegalStateException if the specialty has been frozen
      */
-    public void addRequirement(Requirement requirement){
+    public void addRequirement(Requirement requirement)
+            throws IllegalStateException {
+        checkNotFrozen();
         requirements.add(requirement);
     }
 
+    /**
+     * Stops the specialty and every feature it holds from being changed, swapping its features and
+     * requirements for immutable copies. Done by the rulebook once its catalog is built, freezing twice does nothing
+     */
+    void freeze(){
+        if (frozen) {
+            return;
+        }
+        for (Feature feature : features) {
+            feature.freeze();
+        }
+        features = List.copyOf(features);
+        requirements = List.copyOf(requirements);
+        featuresView = features;
+        requirementsView = requirements;
+        frozen = true;
+    }
+
+    /**
+     * Returns if the specialty has been frozen by its rulebook and can no longer be changed
+     * @return true if the specialty is frozen, false otherwise
+     */
+    public boolean isFrozen(){
+        return frozen;
+    }
+
+    private void checkNotFrozen()
+            throws IllegalStateException {
+        if (frozen) {
+            throw new IllegalStateException("Specialty " + name + " is part of a frozen rulebook and can not be changed");
+        }
+    }
+
     /**
      * Returns a new list of references to the Requirements stored in this specialty
      * @return new List of requirements
@@ -67,6 +136,19 @@ public class Specialty implements Adjuster{
         return new ArrayList<>(requirements);
     }
 
+    /**
+     * Returns a read only view of the Requirements stored in this specialty, without copying. The view is made the first time it is asked for
+     * @return an unmodifiable List of the requirements
+     */
+    public List<Requirement> getRequirementsView(){
+        List<Requirement> view = requirementsView;
+        if (view == null) {
+            view = Collections.unmodifiableList(requirements);
+            requirementsView = view;
+        }
+        return view;
+    }
+
     /**
      * Returns a new list of references to the Features stored in this specialty
      * @return new List of features
@@ -75,6 +157,19 @@ public class Specialty implements Adjuster{
         return new ArrayList<>(features);
     }
 
+    /**
+     * Returns a read only view of the Features stored in this specialty, without copying. The view is made the first time it is asked for
+     * @return an unmodifiable List of the features
+     */
+    public List<Feature> getFeaturesView(){
+        List<Feature> view = featuresView;
+        if (view == null) {
+            view = Collections.unmodifiableList(features);
+            featuresView = view;
+        }
+        return view;
+    }
+
     /**
      * Returns if the given character meets the requirements for this specialty
      * @param character the character being checked for requirements
@@ -95,41 +190,77 @@ public class Specialty implements Adjuster{
      * @return the adjusted character
      */
     public Character adjust(Character character) {
-        if (!character.getSpecialty().all().contains(this)) {
+        if (!character.getSpecialty().contains(this)) {
             character.getSpecialty().add(this);
         }
 
-        for (Feature feature : features) {
-            character = feature.adjust(character);
-        }
+        program(character.getStat()).apply(character);
         return character;
     }
 
     /**
-     * Remove the specialties features from the Character
+     * Removes the specialty from the Character and undoes the adjustments of its features
      * @param character the Character to unadjust
      * @return the unadjusted character
      */
     public Character unadjust(Character character) {
-        character.getSpecialty().all().remove(this);
+        character.getSpecialty().remove(this);
 
-        for (Feature feature : features) {
-            character = feature.unadjust(character);
-        }
+        program(character.getStat()).unapply(character);
         return character;
     }
 
+    /**
+     * Gets the adjustments of every feature of the specialty joined into one program for the layout of the
+     * given stats. The joined program is kept until a feature is added or one of the features recompiles
+     * @param stats the stats of the character the program is for
+     * @return the joined program
+     */
+    AdjustmentProgram program(StatManager stats){
+        AdjustmentProgram compiled = program;
+        boolean current = compiled != null && compiled.fits(stats) && compiled.partCount() == features.size();
+        for (int i = 0; current && i < features.size(); i++) {
+            current = features.get(i).program(stats) == compiled.part(i);
+        }
+        if (!current) {
+            List<AdjustmentProgram> parts = new ArrayList<>(features.size());
+            for (Feature feature : features) {
+                parts.add(feature.program(stats));
+            }
+            compiled = AdjustmentProgram.concat(parts, stats);
+            program = compiled;
+        }
+        return compiled;
+    }
+
     /**
      * Returns a string representation of the specialty
      * @return a string representation of the specialty
      */
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
+        return SheetRenderer.toString(this::render);
+    }
 
-        sb.append(name.toUpperCase());
-        sb.append("\n").append(description).append("\n");
+    /**
+     * Gets the name of the specialty in upper case the way sheets show it, worked out once and kept
+     * @return the upper case name of the specialty
+     */
+    String getDisplayName(){
+        if (displayName == null) {
+            displayName = name.toUpperCase();
+        }
+        return displayName;
+    }
 
-        return sb.toString();
+    /**
+     * Writes the sheet entry of this specialty, the same text toString returns
+     * @param out where to write
+     * @throws IOException if out fails to accept the text
+     */
+    void render(Appendable out)
+            throws IOException {
+        out.append(getDisplayName());
+        out.append('\n').append(description).append('\n');
     }
 }
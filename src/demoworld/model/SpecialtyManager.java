@@ -1,32 +1,152 @@
 package demoworld.model;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
- * Responsible for holding and managing access to various Specialty of a Character or RuleBook
+ * Responsible for holding and managing access to various Specialty of a Character or RuleBook.
+ * Alongside the Specialties in the order they were added it keeps a bitset of their rulebook ids, so checking
+ * whether a Specialty is held takes one word. Specialties without an id are only found by looking through the list
  */
 public class SpecialtyManager {
 
     private List<Specialty> specialties;
+    private List<Specialty> view;
+    private boolean frozen;
+    private IdBitSet held;
+    private int unnumbered;
 
     /**
      * Constructs a new empty SpecialtyManager
      */
     public SpecialtyManager(){
         this.specialties = new ArrayList<>();
+        this.view = Collections.unmodifiableList(specialties);
+        this.held = new IdBitSet();
     }
 
     /**
-     * Adds a Specialty to the SpecialtyManager
+     * Adds a Specialty to the SpecialtyManager, unless it is already held
      * @param specialty the specialty being added to the SpecialtyManager
+     * @throws IllegalStateException if the SpecialtyManager has been frozen
      */
-    public void add(Specialty specialty) {
-        if (!specialties.contains(specialty)) {
+    public void add(Specialty specialty)
+            throws IllegalStateException {
+        checkNotFrozen();
+        int id = specialty.getId();
+        if (id >= 0) {
+            if (held.add(id)) {
+                specialties.add(specialty);
+            }
+        } else if (!specialties.contains(specialty)) {
             specialties.add(specialty);
+            unnumbered++;
         }
     }
 
+    /**
+     * Removes a given Specialty from the SpecialtyManager. A Specialty that is not held is turned away by its
+     * id bit, and the list is searched from the end, so removing the latest Specialty added is constant time
+     * @param specialty the specialty to remove from the SpecialtyManager
+     * @throws IllegalStateException if the SpecialtyManager has been frozen
+     */
+    public void remove(Specialty specialty)
+            throws IllegalStateException {
+        checkNotFrozen();
+        int id = specialty.getId();
+        if (id >= 0 && !held.contains(id)) {
+            return;
+        }
+        int at = specialties.lastIndexOf(specialty);
+        if (at < 0) {
+            return;
+        }
+        specialties.remove(at);
+        if (id < 0) {
+            unnumbered--;
+        } else {
+            held.remove(id);
+        }
+    }
+
+    /**
+     * Returns if the SpecialtyManager holds the given Specialty
+     * @param specialty the specialty to look for
+     * @return true if the specialty is held, false otherwise
+     */
+    public boolean contains(Specialty specialty){
+        int id = specialty.getId();
+        if (id >= 0) {
+            return held.contains(id);
+        }
+        return unnumbered > 0 && specialties.contains(specialty);
+    }
+
+    /**
+     * Returns if the SpecialtyManager holds a Specialty with the given rulebook id
+     * @param id the id of the specialty
+     * @return true if a specialty with the id is held, false otherwise
+     */
+    public boolean contains(int id){
+        return held.contains(id);
+    }
+
+    /**
+     * Returns if the SpecialtyManager holds any of the Specialties whose ids are set in a mask,
+     * such as one built by an EligibilityIndex over the rulebooks specialties
+     * @param mask the mask, bit i standing for the specialty with id i
+     * @return true if any specialty in the mask is held, false otherwise
+     */
+    public boolean intersects(long[] mask){
+        return held.intersects(mask);
+    }
+
+    /**
+     * Returns if the SpecialtyManager holds every Specialty whose id is set in a mask
+     * @param mask the mask, bit i standing for the specialty with id i
+     * @return true if every specialty in the mask is held, false otherwise
+     */
+    public boolean containsAll(long[] mask){
+        return held.containsAll(mask);
+    }
+
+    /**
+     * Gets the number of words the bitset of held specialty ids uses
+     * @return the number of words
+     */
+    public int idWords(){
+        return held.words();
+    }
+
+    /**
+     * Gets one word of the bitset of held specialty ids, zero past the last word it uses
+     * @param index the position of the word
+     * @return the bits of the specialties with ids 64 * index to 64 * index + 63
+     */
+    public long idWord(int index){
+        return held.word(index);
+    }
+
+    /**
+     * Gets the number of Specialties managed by the SpecialtyManager
+     * @return the number of Specialties managed by the SpecialtyManager
+     */
+    public int size(){
+        return specialties.size();
+    }
+
+    /**
+     * Gets the Specialty at the given position, in the order they were added, without copying the list
+     * @param index the position of the Specialty
+     * @return the Specialty at that position
+     */
+    public Specialty get(int index){
+        return specialties.get(index);
+    }
+
     /**
      * Creates a new List holding references to all the Specialty managed by the SpecialtyManager and returns it
      * @return a new List holding references to all the Specialty managed by the SpecialtyManager
@@ -35,24 +155,93 @@ public class SpecialtyManager {
         return new ArrayList<>(specialties);
     }
 
+    /**
+     * Stops the SpecialtyManager from being changed, swapping its list for an immutable copy. Done by the
+     * rulebook once its catalog is built, freezing twice does nothing
+     */
+    void freeze(){
+        if (frozen) {
+            return;
+        }
+        specialties = List.copyOf(specialties);
+        view = specialties;
+        frozen = true;
+    }
+
+    /**
+     * Returns if the SpecialtyManager has been frozen by its rulebook and can no longer be changed
+     * @return true if the SpecialtyManager is frozen, false otherwise
+     */
+    public boolean isFrozen(){
+        return frozen;
+    }
+
+    private void checkNotFrozen()
+            throws IllegalStateException {
+        if (frozen) {
+            throw new IllegalStateException("SpecialtyManager of a frozen rulebook can not be changed");
+        }
+    }
+
+    /**
+     * Returns a read only view of the Specialties managed by the SpecialtyManager, which follows later changes
+     * without copying
+     * @return an unmodifiable List of the Specialties managed by the SpecialtyManager
+     */
+    public List<Specialty> view(){
+        return view;
+    }
+
+    /**
+     * Runs an action on every Specialty managed by the SpecialtyManager, in the order they were added
+     * @param action the action to run
+     */
+    public void forEach(Consumer<? super Specialty> action){
+        for (int i = 0; i < specialties.size(); i++) {
+            action.accept(specialties.get(i));
+        }
+    }
+
+    /**
+     * Rebuilds the bitset from the list, for when the held Specialties were given ids after being added
+     */
+    void reindex(){
+        held = new IdBitSet();
+        unnumbered = 0;
+        for (Specialty specialty : specialties) {
+            if (specialty.getId() < 0) {
+                unnumbered++;
+            } else {
+                held.add(specialty.getId());
+            }
+        }
+    }
+
     /**
      * Returns a string representation of the contents of the specialty manager
      * @return a string representation of the contents of the specialty manager
      */
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
+        return SheetRenderer.toString(this::render);
+    }
 
-        sb.append("        |==============================\\\n");
-        sb.append("[0]#####>-------- SPECIALTIES ---------->\n");
-        sb.append("        |==============================/\n");
+    /**
+     * Writes the specialties block of the sheet, the same text toString returns
+     * @param out where to write
+     * @throws IOException if out fails to accept the text
+     */
+    void render(Appendable out)
+            throws IOException {
+        out.append("        |==============================\\\n");
+        out.append("[0]#####>-------- SPECIALTIES ---------->\n");
+        out.append("        |==============================/\n");
 
-        int index = 1;
-        for (Specialty specialty : specialties) {
-            sb.append(index++).append(". ").append(specialty.getName().toUpperCase()).append("\n");
-            sb.append(specialty.getDescription()).append("\n\n");
+        for (int i = 0; i < specialties.size(); i++) {
+            Specialty specialty = specialties.get(i);
+            SheetRenderer.appendInt(out, i + 1);
+            out.append(". ").append(specialty.getDisplayName()).append('\n');
+            out.append(specialty.getDescription()).append("\n\n");
         }
-
-        return sb.toString();
     }
 }
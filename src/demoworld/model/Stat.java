@@ -1,5 +1,7 @@
 package demoworld.model;
 
+import java.io.IOException;
+
 /**
  * Representation of a game stat, an object constructed from multiple Value with a name and a description
  */
@@ -9,6 +11,9 @@ public class Stat {
     private String description;
     private Value base;
     private Value modifier;
+    private StatListener listener;
+    private int lastTotal;
+    private String displayName;
 
 
     /**
@@ -31,6 +36,106 @@ public class Stat {
         this.modifier = new Value(min, max, current);
     }
 
+    /**
+     * Constructs a Stat holding its own copy of the given stats base and modifier Values
+     * @param other the stat to copy
+     */
+    protected Stat(Stat other){
+        this.name = other.name;
+        this.description = other.description;
+        this.base = new Value(other.base);
+        this.modifier = new Value(other.modifier);
+    }
+
+    /**
+     * Constructs a Stat around existing base and modifier Values, which lets a subclass
+     * supply Values that are stored somewhere other than in their own fields
+     * @param name the name of the new stat
+     * @param description the description of the new stat
+     * @param base the base Value of the new stat
+     * @param modifier the modifier Value of the new stat
+     */
+    protected Stat(String name,
+                   String description,
+                   Value base,
+                   Value modifier){
+        this.name = name;
+        this.description = description;
+        this.base = base;
+        this.modifier = modifier;
+    }
+
+    /**
+     * Creates a copy of this stat that shares no mutable state with it
+     * @return a copy of this stat
+     */
+    public Stat copy(){
+        return new Stat(this);
+    }
+
+    /**
+     * Stops the stat from being changed by freezing its base and modifier Values, done by the rulebook to
+     * its starting stats. Copies made with copy can be changed as usual
+     */
+    void freeze(){
+        base.freeze();
+        modifier.freeze();
+    }
+
+    /**
+     * Returns if the stat belongs to a frozen rulebook and can no longer be changed
+     * @return true if the stat is frozen, false otherwise
+     */
+    public boolean isFrozen(){
+        return base.isFrozen();
+    }
+
+    /**
+     * Attaches a listener that is told after every change to the base or modifier Value,
+     * replacing any listener attached before. Stats start without a listener and cost nothing
+     * extra until one is attached
+     * @param listener the listener to attach, or null to detach the current one
+     * @throws IllegalStateException if the stat is frozen
+     */
+    public void setListener(StatListener listener)
+            throws IllegalStateException {
+        if (isFrozen()) {
+            throw new IllegalStateException("Stat " + name + " of a frozen rulebook can not be changed");
+        }
+        this.listener = listener;
+        if (listener == null) {
+            base.setListener(null);
+            modifier.setListener(null);
+        } else {
+            lastTotal = getTotal();
+            ValueListener forward = value -> notifyListener();
+            base.setListener(forward);
+            modifier.setListener(forward);
+        }
+    }
+
+    /**
+     * Tells the attached listener, if any, that the stat has changed
+     */
+    protected void notifyListener(){
+        if (listener != null) {
+            int previousTotal = lastTotal;
+            lastTotal = getTotal();
+            listener.statChanged(this, previousTotal, lastTotal);
+        }
+    }
+
+    /**
+     * Takes the current total as the one the next change is reported against. Stats whose Values are moved
+     * onto other state, like the population views, call it after moving so a listener is not given the
+     * total of whatever they viewed before as the previous total
+     */
+    protected void rememberTotal(){
+        if (listener != null) {
+            lastTotal = getTotal();
+        }
+    }
+
     /**
      * Gets the name of the stat
      * @return name the name of the stat
@@ -157,6 +262,44 @@ public class Stat {
      */
     @Override
     public String toString(){
-        return String.format("%-1s %d: (%d + %d)", name.toUpperCase(), getTotal(), base.current(), modifier.current());
+        return SheetRenderer.toString(this::render);
+    }
+
+    /**
+     * Gets the name of the stat in upper case the way sheets show it, worked out once and kept
+     * @return the upper case name of the stat
+     */
+    String getDisplayName(){
+        if (displayName == null) {
+            displayName = name.toUpperCase();
+        }
+        return displayName;
+    }
+
+    /**
+     * Writes the sheet line of this stat, the same text toString returns
+     * @param out where to write
+     * @throws IOException if out fails to accept the text
+     */
+    void render(Appendable out)
+            throws IOException {
+        String shown = getDisplayName();
+        out.append(shown.isEmpty() ? " " : shown).append(' ');
+        SheetRenderer.appendInt(out, getTotal());
+        out.append(": (");
+        SheetRenderer.appendInt(out, base.current());
+        out.append(" + ");
+        SheetRenderer.appendInt(out, modifier.current());
+        out.append(')');
+    }
+
+    /**
+     * Counts the characters render writes for this stat, so the sheet can pad the line without building it first
+     * @return the length of the sheet line of this stat
+     */
+    int renderedLength(){
+        return Math.max(1, getDisplayName().length()) + 1 + SheetRenderer.intLength(getTotal())
+                + 3 + SheetRenderer.intLength(base.current())
+                + 3 + SheetRenderer.intLength(modifier.current()) + 1;
     }
 }
@@ -0,0 +1,16 @@
+package demoworld.model;
+
+/**
+ * Something implementing StatListener is told whenever the base or modifier Value of a Stat
+ * it is attached to is changed
+ */
+public interface StatListener {
+
+    /**
+     * Called after the base or modifier Value of the stat was set
+     * @param stat the Stat that was changed
+     * @param previousTotal the total of the stat before the change
+     * @param total the total of the stat after the change
+     */
+    void statChanged(Stat stat, int previousTotal, int total);
+}
@@ -1,7 +1,11 @@
 package demoworld.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Responsible for holding and managing access to the various Stats of a Character
@@ -9,20 +13,50 @@ import java.util.List;
 public class StatManager {
 
     private List<Stat> stats;
+    private List<Stat> view;
+    private boolean frozen;
+    private Map<String, Integer> slots;
+    private List<PrimaryStat> primaries;
 
     /**
      * Constructs a new empty StatManager
      */
     public StatManager(){
         this.stats = new ArrayList<>();
+        this.view = Collections.unmodifiableList(stats);
+        this.slots = new HashMap<>();
+    }
+
+    /**
+     * Constructs a new StatManager holding a copy of every Stat in the given template.
+     * The copies share no mutable state with the template, but the name index is shared as it
+     * is never modified in place, so handles resolved against the template stay valid for the copy
+     * @param template the StatManager to copy the Stats from
+     */
+    public StatManager(StatManager template){
+        this.stats = new ArrayList<>(template.stats.size());
+        for (Stat stat : template.stats) {
+            stats.add(stat.copy());
+        }
+        this.view = Collections.unmodifiableList(stats);
+        this.slots = template.slots;
     }
 
     /**
      * Add the given Stat to the stat manager for it to manage
      * @param stat the given Stat to the stat manager for it to manage
+     * @throws IllegalStateException if the stat manager has been frozen
      */
-    public void add(Stat stat){
+    public void add(Stat stat)
+            throws IllegalStateException {
+        checkNotFrozen();
         stats.add(stat);
+        primaries = null;
+        if (!slots.containsKey(stat.name())) {
+            Map<String, Integer> indexed = new HashMap<>(slots);
+            indexed.put(stat.name(), stats.size() - 1);
+            slots = indexed;
+        }
     }
 
     /**
@@ -39,6 +73,44 @@ public class StatManager {
         return primaryStats;
     }
 
+    /**
+     * Returns the PrimaryStats held by the StatManager, in order, without copying. The list is worked out
+     * the first time it is asked for and kept until a Stat is added or removed. The Stats in it can be
+     * changed, the list itself can not
+     * @return an unmodifiable List of the PrimaryStats held by the StatManager
+     */
+    public List<PrimaryStat> primaries(){
+        List<PrimaryStat> found = primaries;
+        if (found == null) {
+            List<PrimaryStat> collected = new ArrayList<>();
+            for (Stat stat : stats) {
+                if (stat instanceof PrimaryStat) {
+                    collected.add((PrimaryStat) stat);
+                }
+            }
+            found = List.copyOf(collected);
+            primaries = found;
+        }
+        return found;
+    }
+
+    /**
+     * Gets the number of PrimaryStats held by the StatManager
+     * @return the number of PrimaryStats
+     */
+    public int primaryCount(){
+        return primaries().size();
+    }
+
+    /**
+     * Gets a PrimaryStat by its position among the PrimaryStats
+     * @param index the position of the PrimaryStat
+     * @return the PrimaryStat at that position
+     */
+    public PrimaryStat primary(int index){
+        return primaries().get(index);
+    }
+
     /**
      * Get the first Stat with a matching name and return it
      * @param name the name of the Stat you are looking for
@@ -49,12 +121,53 @@ public class StatManager {
      */
     public Stat byName(String name)
             throws IllegalStateException {
-        for (Stat stat : stats) {
-            if (stat.name().equals(name)) {
-                return stat;
-            }
+        return stats.get(handle(name));
+    }
+
+    /**
+     * Resolves the name of a Stat to an integer handle that can be passed to {@link #get(int)}.
+     * Resolve a handle once and keep it to skip the name lookup on every access.
+     * Handles stay valid until a Stat is removed from the stat manager
+     * @param name the name of the Stat you are looking for
+     * @return the handle of the first Stat with a matching name
+     * @throws IllegalStateException throw an illegalStateException
+     *         if it can't find any such stat as that indicates there
+     *         is a potential misalignment of the expected state between systems
+     */
+    public int handle(String name)
+            throws IllegalStateException {
+        Integer slot = slots.get(name);
+        if (slot == null) {
+            throw new IllegalStateException("Stat with name " + name + " not found");
         }
-        throw new IllegalStateException("Stat with name " + name + " not found");
+        return slot;
+    }
+
+    /**
+     * Gets the Stat for a handle previously resolved with {@link #handle(String)}
+     * @param handle the handle of the Stat
+     * @return the Stat held at that handle
+     */
+    public Stat get(int handle){
+        return stats.get(handle);
+    }
+
+    /**
+     * Returns if the given stat manager resolves every stat name to the same handle as this one,
+     * which is always the case for stat managers copied from the same template
+     * @param other the stat manager to compare against
+     * @return true if handles resolved against one are valid for the other, false otherwise
+     */
+    public boolean sameLayout(StatManager other){
+        return slots == other.slots;
+    }
+
+    /**
+     * Gets the number of Stats held by the stat manager
+     * @return the number of Stats held by the stat manager
+     */
+    public int size(){
+        return stats.size();
     }
 
     /**
@@ -65,12 +178,77 @@ public class StatManager {
         return new ArrayList<>(stats);
     }
 
+    /**
+     * Stops the stat manager from being changed, swapping its list for an immutable copy and freezing every
+     * stat in it. Done by the rulebook once its catalog is built, freezing twice does nothing
+     */
+    void freeze(){
+        if (frozen) {
+            return;
+        }
+        stats = List.copyOf(stats);
+        for (Stat stat : stats) {
+            stat.freeze();
+        }
+        view = stats;
+        primaries();
+        frozen = true;
+    }
+
+    /**
+     * Returns if the stat manager has been frozen by its rulebook and can no longer be changed
+     * @return true if the stat manager is frozen, false otherwise
+     */
+    public boolean isFrozen(){
+        return frozen;
+    }
+
+    private void checkNotFrozen()
+            throws IllegalStateException {
+        if (frozen) {
+            throw new IllegalStateException("StatManager of a frozen rulebook can not be changed");
+        }
+    }
+
+    /**
+     * Returns a read only view of the Stats managed by the stat manager, which follows later changes
+     * without copying
+     * @return an unmodifiable List of the Stats managed by the stat manager
+     */
+    public List<Stat> view(){
+        return view;
+    }
+
+    /**
+     * Runs an action on every Stat managed by the stat manager, in order
+     * @param action the action to run
+     */
+    public void forEach(Consumer<? super Stat> action){
+        for (int i = 0; i < stats.size(); i++) {
+            action.accept(stats.get(i));
+        }
+    }
+
     /**
      * Remove the given Stat from the stat manager
      * @param stat the given Stat from the stat manager
+     * @throws IllegalStateException if the stat manager has been frozen
      */
-    public void remove(Stat stat){
-        stats.remove(stat);
+    public void remove(Stat stat)
+            throws IllegalStateException {
+        checkNotFrozen();
+        if (stats.remove(stat)) {
+            primaries = null;
+            reindex();
+        }
+    }
+
+    private void reindex(){
+        Map<String, Integer> indexed = new HashMap<>();
+        for (int i = 0; i < stats.size(); i++) {
+            indexed.putIfAbsent(stats.get(i).name(), i);
+        }
+        slots = indexed;
     }
 
     /**
@@ -78,10 +256,13 @@ public class StatManager {
      * @return a string representation of the contents of the primary Stats in stat manager
      */
     public String primaryToString(){
-        StringBuilder sb = new StringBuilder();
-        for (PrimaryStat primaryStat : allPrimaries()) {
-            sb.append(primaryStat.toString()).append("\n");
-        }
-        return sb.toString();
+        return SheetRenderer.toString(out -> {
+            for (int i = 0; i < stats.size(); i++) {
+                if (stats.get(i) instanceof PrimaryStat) {
+                    stats.get(i).render(out);
+                    out.append('\n');
+                }
+            }
+        });
     }
 }
@@ -11,6 +11,8 @@ public class Value {
     private int min;
     private int max;
     private int current;
+    private ValueListener listener;
+    private boolean frozen;
 
     /**
      * Constructs a new value with values given for the initial boundaries and its initial current state.
@@ -29,6 +31,61 @@ public class Value {
         this.current = current < min ? min : Math.min(current, this.max);
     }
 
+    /**
+     * Constructs a new value holding the same boundaries and current amount as the given value
+     * @param other the value to copy
+     */
+    public Value(Value other){
+        this.min = other.min();
+        this.max = other.max();
+        this.current = other.current();
+    }
+
+    /**
+     * Stops the value from being changed, done by the rulebook to the starting values it copies into every
+     * character. Copies made from a frozen value can be changed as usual
+     */
+    void freeze(){
+        frozen = true;
+    }
+
+    /**
+     * Returns if the value belongs to a frozen rulebook and can no longer be changed
+     * @return true if the value is frozen, false otherwise
+     */
+    public boolean isFrozen(){
+        return frozen;
+    }
+
+    private void checkNotFrozen()
+            throws IllegalStateException {
+        if (frozen) {
+            throw new IllegalStateException("Value of a frozen rulebook can not be changed");
+        }
+    }
+
+    /**
+     * Attaches a listener that is told after every change to the value, replacing any listener
+     * attached before. Values start without a listener and cost nothing extra until one is attached
+     * @param listener the listener to attach, or null to detach the current one
+     * @throws IllegalStateException if the value is frozen
+     */
+    public void setListener(ValueListener listener)
+            throws IllegalStateException {
+        checkNotFrozen();
+        this.listener = listener;
+    }
+
+    /**
+     * Tells the attached listener, if any, that the value has changed. Subclasses that keep their amounts
+     * somewhere other than these fields call it after every write, the same as the setters here do
+     */
+    protected void notifyListener(){
+        if (listener != null) {
+            listener.valueChanged(this);
+        }
+    }
+
     /**
      * Gets the values minimum amount
      * @return the minimum amount
@@ -58,8 +115,11 @@ public class Value {
      * amounts held by the value. If the new maximum is below the minimum it should be set to match
      * that minimum. If the current is above the new maximum it should be set to match that maximum
      * @param min the value the minimum amount is being set to
+     * @throws IllegalStateException if the value is frozen
      */
-    public void setMin(int min){
+    public void setMin(int min)
+            throws IllegalStateException {
+        checkNotFrozen();
         this.min = min;
         if (this.max < min) {
             this.max = min;
@@ -67,6 +127,7 @@ public class Value {
         if (this.current < min) {
             this.current = min;
         }
+        notifyListener();
     }
 
     /**
@@ -74,12 +135,16 @@ public class Value {
      * held by the value. If the new maximum is below the minimum it should be set to match that minimum.
      * If the current is above the new maximum it should be set to match that maximum
      * @param max the value the maximum amount is being set to
+     * @throws IllegalStateException if the value is frozen
      */
-    public void setMax(int max){
+    public void setMax(int max)
+            throws IllegalStateException {
+        checkNotFrozen();
         this.max = max < this.min ? this.min : max;
         if (this.current > this.max) {
             this.current = this.max;
         }
+        notifyListener();
     }
 
     /**
@@ -87,8 +152,11 @@ public class Value {
      * the boundaries given. If the new current is below the minimum it should be set to match that minimum.
      * If the new current is above the maximum it should be set to match that maximum
      * @param value the value the current amount is being set to
+     * @throws IllegalStateException if the value is frozen
      */
-    public void setCurrent(int value){
+    public void setCurrent(int value)
+            throws IllegalStateException {
+        checkNotFrozen();
         if (value < this.min) {
             this.current = this.min;
         } else if (value > this.max) {
@@ -96,6 +164,22 @@ public class Value {
         } else {
             this.current = value;
         }
+        notifyListener();
+    }
+
+    /**
+     * Sets the minimum, maximum and current amounts together, in that order, so a state read from
+     * another value is reproduced exactly. The usual boundaries are enforced on the result
+     * @param min the value the minimum amount is being set to
+     * @param max the value the maximum amount is being set to
+     * @param current the value the current amount is being set to
+     * @throws IllegalStateException if the value is frozen
+     */
+    public void set(int min, int max, int current)
+            throws IllegalStateException {
+        setMin(min);
+        setMax(max);
+        setCurrent(current);
     }
 
     /**
@@ -103,8 +187,10 @@ public class Value {
      * boundaries given. If the new current is below the minimum it should be set to match that minimum.
      * If the new current is above the maximum it should be set to match that maximum
      * @param value the value being added to the current amount
+     * @throws IllegalStateException if the value is frozen
      */
-    public void addToCurrent(int value){
+    public void addToCurrent(int value)
+            throws IllegalStateException {
         setCurrent(this.current + value);
     }
 
@@ -113,8 +199,10 @@ public class Value {
      * boundaries given. If the new maximum is below the minimum it should be set to match that minimum.
      * If the current is above the new maximum it should be set to match that maximum
      * @param value amount being added to the values max amount
+     * @throws IllegalStateException if the value is frozen
      */
-    public void addToMax(int value){
+    public void addToMax(int value)
+            throws IllegalStateException {
         setMax(this.max + value);
     }
 }
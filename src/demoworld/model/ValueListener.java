@@ -0,0 +1,13 @@
+package demoworld.model;
+
+/**
+ * Something implementing ValueListener is told whenever a Value it is attached to is changed
+ */
+public interface ValueListener {
+
+    /**
+     * Called after the minimum, maximum or current amount of the value was set
+     * @param value the Value that was changed
+     */
+    void valueChanged(Value value);
+}
@@ -2,6 +2,7 @@ package demoworld.model.adjustments;
 
 import demoworld.model.Adjuster;
 import demoworld.model.Character;
+import demoworld.model.CharacterSnapshot;
 
 /**
  * Adjustment provides a base implementation for adjusting and unadjusting
@@ -29,4 +30,24 @@ public abstract class Adjustment implements Adjuster {
      * @return the unadjusted Character
      */
     public abstract Character unadjust(Character character);
+
+    /**
+     * Adjusts a snapshot of a characters state, returning the adjusted state. By default this adjusts a
+     * Character built from the snapshot, implementations that know how can change the snapshot directly
+     * @param snapshot the state to adjust
+     * @return the adjusted state
+     */
+    public CharacterSnapshot adjust(CharacterSnapshot snapshot){
+        return snapshot.adjustedBy(this);
+    }
+
+    /**
+     * Undoes the adjustments on a snapshot of a characters state, returning the unadjusted state.
+     * By default this unadjusts a Character built from the snapshot
+     * @param snapshot the state to unadjust
+     * @return the unadjusted state
+     */
+    public CharacterSnapshot unadjust(CharacterSnapshot snapshot){
+        return snapshot.unadjustedBy(this);
+    }
 }
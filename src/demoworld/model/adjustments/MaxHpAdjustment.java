@@ -2,6 +2,7 @@ package demoworld.model.adjustments;
 
 import demoworld.model.Adjuster;
 import demoworld.model.Character;
+import demoworld.model.CharacterSnapshot;
 import demoworld.model.Hitpoints;
 
 /**
@@ -9,7 +10,7 @@ import demoworld.model.Hitpoints;
  */
 public class MaxHpAdjustment extends Adjustment implements Adjuster {
 
-    private int value;
+    private final int value;
 
     /**
      * Constructs a MaxHpAdjustment with the specified value
@@ -19,6 +20,14 @@ public class MaxHpAdjustment extends Adjustment implements Adjuster {
         this.value = value;
     }
 
+    /**
+     * Gets the value this adjustment changes the hitpoints max by
+     * @return the value assigned to the adjustment
+     */
+    public int getValue(){
+        return value;
+    }
+
     /**
      * Adjusts the hitpoints max of the given character
      * @param character the Character to adjust
@@ -44,4 +53,22 @@ public class MaxHpAdjustment extends Adjustment implements Adjuster {
         }
         return character;
     }
+
+    /**
+     * Adjusts the hitpoints max of a snapshot
+     * @param snapshot the state to adjust
+     * @return the adjusted state
+     */
+    public CharacterSnapshot adjust(CharacterSnapshot snapshot){
+        return snapshot.addToMaxBase(snapshot.handle("hitpoints"), value);
+    }
+
+    /**
+     * Undoes the adjustment of the hitpoints max of a snapshot
+     * @param snapshot the state to unadjust
+     * @return the unadjusted state
+     */
+    public CharacterSnapshot unadjust(CharacterSnapshot snapshot){
+        return snapshot.addToMaxBase(snapshot.handle("hitpoints"), -value);
+    }
 }
@@ -2,6 +2,7 @@ package demoworld.model.adjustments;
 
 import demoworld.model.Adjuster;
 import demoworld.model.Character;
+import demoworld.model.CharacterSnapshot;
 import demoworld.model.Experience;
 
 /**
@@ -9,7 +10,7 @@ import demoworld.model.Experience;
  */
 public class MaxXpAdjustment extends Adjustment implements Adjuster {
 
-    private int value;
+    private final int value;
 
     /**
      * This is the constructor for the MaxXpAdjustment it takes a value indicating how
@@ -20,6 +21,14 @@ public class MaxXpAdjustment extends Adjustment implements Adjuster {
         this.value = value;
     }
 
+    /**
+     * Gets the value this adjustment changes the Experience max by
+     * @return the value assigned to the adjustment
+     */
+    public int getValue(){
+        return value;
+    }
+
     /**
      * Adjusts the Experience max of the given character
      * @param character the Character to adjust
@@ -41,4 +50,22 @@ public class MaxXpAdjustment extends Adjustment implements Adjuster {
         experience.setMax(experience.max() - value);
         return character;
     }
+
+    /**
+     * Adjusts the Experience max of a snapshot
+     * @param snapshot the state to adjust
+     * @return the adjusted state
+     */
+    public CharacterSnapshot adjust(CharacterSnapshot snapshot){
+        return snapshot.setMaxExperience(snapshot.maxExperience() + value);
+    }
+
+    /**
+     * Undoes the adjustment of the Experience max of a snapshot
+     * @param snapshot the state to unadjust
+     * @return the unadjusted state
+     */
+    public CharacterSnapshot unadjust(CharacterSnapshot snapshot){
+        return snapshot.setMaxExperience(snapshot.maxExperience() - value);
+    }
 }
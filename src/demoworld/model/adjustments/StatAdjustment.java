@@ -2,14 +2,15 @@ package demoworld.model.adjustments;
 
 import demoworld.model.Adjuster;
 import demoworld.model.Character;
+import demoworld.model.CharacterSnapshot;
 import demoworld.model.Stat;
 
 /**
  * This is an implementation for adjusting a target Stat Stat of a Character
  */
 public class StatAdjustment extends Adjustment implements Adjuster {
-    private String statKey;
-    private int value;
+    private final String statKey;
+    private final int value;
 
     /**
      * Constructs a Stat Adjustment with a string indicating the stat it is
@@ -64,4 +65,22 @@ public class StatAdjustment extends Adjustment implements Adjuster {
         }
         return character;
     }
+
+    /**
+     * Adjusts the target Stat's current modifier of a snapshot
+     * @param snapshot the state to adjust
+     * @return the adjusted state
+     */
+    public CharacterSnapshot adjust(CharacterSnapshot snapshot){
+        return snapshot.addToCurrentModifier(snapshot.handle(statKey), value);
+    }
+
+    /**
+     * Undoes the adjustment of the target Stat's current modifier of a snapshot
+     * @param snapshot the state to unadjust
+     * @return the unadjusted state
+     */
+    public CharacterSnapshot unadjust(CharacterSnapshot snapshot){
+        return snapshot.addToCurrentModifier(snapshot.handle(statKey), -value);
+    }
 }
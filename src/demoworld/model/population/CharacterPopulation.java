@@ -0,0 +1,354 @@
+package demoworld.model.population;
+
+import demoworld.model.Character;
+import demoworld.model.Experience;
+import demoworld.model.Hitpoints;
+import demoworld.model.PrimaryStat;
+import demoworld.model.RuleBook;
+import demoworld.model.Stat;
+import demoworld.model.StatManager;
+import demoworld.model.Value;
+
+/**
+ * Stores the stat state of a large number of characters in flat int columns instead of
+ * one Stat and two Value objects per stat per character. The base and modifier current amounts
+ * each get their own column indexed by {@code characterId * statCount + statSlot},
+ * where the stat slot is the handle the rulebooks {@link StatManager} gives that stat.
+ * Temp hp and current experience are kept in columns indexed by character id.
+ * <p>
+ * Minimums and maximums are held once per stat slot with the values of the rulebooks template, since
+ * most characters never change them. A slot only gets a column of its own for a bound once some
+ * character's bound there changes, see {@link ValueBounds}. A DemoWorld character therefore costs
+ * 14 ints, or 16 once features have changed its maximum hitpoints and experience, rather than the 38 ints
+ * it took with every bound stored per character.
+ * Use a {@link PopulationCursor} to view a character through the usual Stat, Hitpoints and
+ * Experience API
+ */
+public class CharacterPopulation {
+
+    private final StatManager layout;
+    private final int statCount;
+    private final int capacity;
+    private final int hitpointsSlot;
+    private int size;
+
+    private final ValueBounds[] baseBounds;
+    private final int[] baseCurrent;
+    private final ValueBounds[] modifierBounds;
+    private final int[] modifierCurrent;
+    private final int[] tempHp;
+    private final ValueBounds xpBounds;
+    private final int[] xpCurrent;
+
+    private final StatManager templateStats;
+    private final Experience templateExperience;
+
+    /**
+     * Constructs an empty population able to hold the given number of characters built from the given rulebook
+     * @param rulebook the rulebook whose stat template every character starts from
+     * @param capacity the maximum number of characters the population can hold
+     * @throws IllegalArgumentException if the capacity is negative or the columns would be too large
+     */
+    public CharacterPopulation(RuleBook rulebook, int capacity)
+            throws IllegalArgumentException {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity can not be negative: " + capacity);
+        }
+        this.templateStats = rulebook.createCharacterStats();
+        this.templateExperience = rulebook.createCharacterExperience();
+        this.layout = templateStats;
+        this.statCount = templateStats.size();
+        this.capacity = capacity;
+
+        int hitpoints = -1;
+        for (int slot = 0; slot < statCount; slot++) {
+            if (templateStats.get(slot) instanceof Hitpoints) {
+                hitpoints = slot;
+                break;
+            }
+        }
+        this.hitpointsSlot = hitpoints;
+
+        int cells;
+        try {
+            cells = Math.multiplyExact(capacity, statCount);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("A population of " + capacity + " characters with "
+                    + statCount + " stats is too large");
+        }
+        this.baseBounds = new ValueBounds[statCount];
+        this.modifierBounds = new ValueBounds[statCount];
+        for (int slot = 0; slot < statCount; slot++) {
+            Stat stat = templateStats.get(slot);
+            baseBounds[slot] = new ValueBounds(capacity, stat.getBase().min(), stat.getBase().max());
+            modifierBounds[slot] = new ValueBounds(capacity, stat.getModifier().min(), stat.getModifier().max());
+        }
+        this.baseCurrent = new int[cells];
+        this.modifierCurrent = new int[cells];
+        this.tempHp = new int[capacity];
+        this.xpBounds = new ValueBounds(capacity, templateExperience.min(), templateExperience.max());
+        this.xpCurrent = new int[capacity];
+    }
+
+    /**
+     * Adds a new character holding the rulebooks starting stats and experience
+     * @return the id of the new character
+     * @throws IllegalStateException if the population is full
+     */
+    public int add()
+            throws IllegalStateException {
+        int id = reserve();
+        for (int slot = 0; slot < statCount; slot++) {
+            store(id, slot, templateStats.get(slot));
+        }
+        storeExperience(id, templateExperience);
+        return id;
+    }
+
+    /**
+     * Adds a new character holding a copy of the given characters stats and experience.
+     * The character must have been built from the same rulebook as the population
+     * @param character the character to copy the state of
+     * @return the id of the new character
+     * @throws IllegalStateException if the population is full
+     */
+    public int add(Character character)
+            throws IllegalStateException {
+        int id = reserve();
+        copyFrom(id, character);
+        return id;
+    }
+
+    /**
+     * Overwrites a stored characters stats and experience with the state of the given character
+     * @param id the id of the stored character
+     * @param character the character to copy the state of
+     * @throws IndexOutOfBoundsException if there is no character with that id
+     */
+    public void copyFrom(int id, Character character)
+            throws IndexOutOfBoundsException {
+        checkId(id);
+        StatManager stats = character.getStat();
+        for (int slot = 0; slot < statCount; slot++) {
+            store(id, slot, stats.get(slot));
+        }
+        storeExperience(id, character.getExperience());
+    }
+
+    /**
+     * Overwrites the given characters stats and experience with the state of a stored character
+     * @param id the id of the stored character
+     * @param character the character to copy the state into
+     * @throws IndexOutOfBoundsException if there is no character with that id
+     */
+    public void copyTo(int id, Character character)
+            throws IndexOutOfBoundsException {
+        checkId(id);
+        StatManager stats = character.getStat();
+        for (int slot = 0; slot < statCount; slot++) {
+            int i = id * statCount + slot;
+            Stat stat = stats.get(slot);
+            stat.getBase().set(baseBounds[slot].min(id), baseBounds[slot].max(id), baseCurrent[i]);
+            stat.getModifier().set(modifierBounds[slot].min(id), modifierBounds[slot].max(id), modifierCurrent[i]);
+            if (stat instanceof Hitpoints) {
+                ((Hitpoints) stat).setTempHp(tempHp[id]);
+            }
+        }
+        character.getExperience().set(xpBounds.min(id), xpBounds.max(id), xpCurrent[id]);
+    }
+
+    /**
+     * Gets the number of characters held by the population
+     * @return the number of characters held by the population
+     */
+    public int size(){
+        return size;
+    }
+
+    /**
+     * Gets the maximum number of characters the population can hold
+     * @return the maximum number of characters the population can hold
+     */
+    public int capacity(){
+        return capacity;
+    }
+
+    /**
+     * Gets the number of stat slots each character has
+     * @return the number of stat slots each character has
+     */
+    public int statCount(){
+        return statCount;
+    }
+
+    /**
+     * Resolves the name of a stat to its slot
+     * @param name the name of the stat
+     * @return the slot of the stat
+     * @throws IllegalStateException if the rulebook has no such stat
+     */
+    public int slot(String name)
+            throws IllegalStateException {
+        return layout.handle(name);
+    }
+
+    /**
+     * Gets the slot holding the hitpoints
+     * @return the slot holding the hitpoints, or -1 if the rulebook has none
+     */
+    public int hitpointsSlot(){
+        return hitpointsSlot;
+    }
+
+    /**
+     * Gets the total of the base and modifier current amounts of a characters stat
+     * @param id the id of the character
+     * @param slot the slot of the stat
+     * @return the total of the base and modifier current amounts
+     */
+    public int getTotal(int id, int slot){
+        int i = id * statCount + slot;
+        return baseCurrent[i] + modifierCurrent[i];
+    }
+
+    /**
+     * Gets the current amount for the base of a characters stat
+     * @param id the id of the character
+     * @param slot the slot of the stat
+     * @return the current amount for the base
+     */
+    public int currentBase(int id, int slot){
+        return baseCurrent[id * statCount + slot];
+    }
+
+    /**
+     * Gets the current amount for the modifier of a characters stat
+     * @param id the id of the character
+     * @param slot the slot of the stat
+     * @return the current amount for the modifier
+     */
+    public int currentModifier(int id, int slot){
+        return modifierCurrent[id * statCount + slot];
+    }
+
+    /**
+     * Sets the current amount for the base of a characters stat, clamped to its boundaries
+     * @param id the id of the character
+     * @param slot the slot of the stat
+     * @param value the amount to set the current base to
+     */
+    public void setCurrentBase(int id, int slot, int value){
+        ValueColumns.setCurrent(baseBounds[slot], baseCurrent, id, id * statCount + slot, value);
+    }
+
+    /**
+     * Adds to the current amount for the base of a characters stat, clamped to its boundaries
+     * @param id the id of the character
+     * @param slot the slot of the stat
+     * @param value the amount to add to the current base
+     */
+    public void addToCurrentBase(int id, int slot, int value){
+        int i = id * statCount + slot;
+        ValueColumns.setCurrent(baseBounds[slot], baseCurrent, id, i, baseCurrent[i] + value);
+    }
+
+    /**
+     * Sets the current amount for the modifier of a characters stat, clamped to its boundaries
+     * @param id the id of the character
+     * @param slot the slot of the stat
+     * @param value the amount to set the current modifier to
+     */
+    public void setCurrentModifier(int id, int slot, int value){
+        ValueColumns.setCurrent(modifierBounds[slot], modifierCurrent, id, id * statCount + slot, value);
+    }
+
+    /**
+     * Adds to the current amount for the modifier of a characters stat, clamped to its boundaries
+     * @param id the id of the character
+     * @param slot the slot of the stat
+     * @param value the amount to add to the current modifier
+     */
+    public void addToCurrentModifier(int id, int slot, int value){
+        int i = id * statCount + slot;
+        ValueColumns.setCurrent(modifierBounds[slot], modifierCurrent, id, i, modifierCurrent[i] + value);
+    }
+
+    /**
+     * Writes the total of one stat for every character in the population into the given array
+     * @param slot the slot of the stat
+     * @param into the array to write the totals into, indexed by character id
+     * @return the given array
+     */
+    public int[] totals(int slot, int[] into){
+        for (int id = 0, i = slot; id < size; id++, i += statCount) {
+            into[id] = baseCurrent[i] + modifierCurrent[i];
+        }
+        return into;
+    }
+
+    /**
+     * Creates a cursor that views the characters in this population through flyweight
+     * Stat, Hitpoints and Experience objects. A cursor is not safe to share between threads,
+     * create one per thread instead
+     * @return a new cursor positioned at character 0
+     */
+    public PopulationCursor cursor(){
+        Stat[] views = new Stat[statCount];
+        PopulationValue[] bases = new PopulationValue[statCount];
+        PopulationValue[] modifiers = new PopulationValue[statCount];
+        PopulationHitpoints hitpoints = null;
+        for (int slot = 0; slot < statCount; slot++) {
+            Stat stat = templateStats.get(slot);
+            PopulationValue base = new PopulationValue(baseBounds[slot], baseCurrent);
+            PopulationValue modifier = new PopulationValue(modifierBounds[slot], modifierCurrent);
+            if (stat instanceof Hitpoints) {
+                hitpoints = new PopulationHitpoints(base, modifier, tempHp);
+                views[slot] = hitpoints;
+            } else if (stat instanceof PrimaryStat) {
+                views[slot] = new PopulationPrimaryStat(stat.name(), stat.description(), base, modifier);
+            } else {
+                views[slot] = new PopulationStat(stat.name(), stat.description(), base, modifier);
+            }
+            bases[slot] = base;
+            modifiers[slot] = modifier;
+        }
+        return new PopulationCursor(this, views, bases, modifiers, hitpoints,
+                new PopulationExperience(xpBounds, xpCurrent));
+    }
+
+    private int reserve()
+            throws IllegalStateException {
+        if (size == capacity) {
+            throw new IllegalStateException("Population is full at " + capacity + " characters");
+        }
+        return size++;
+    }
+
+    private void checkId(int id)
+            throws IndexOutOfBoundsException {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("No character with id " + id);
+        }
+    }
+
+    private void store(int id, int slot, Stat stat){
+        int i = id * statCount + slot;
+        Value base = stat.getBase();
+        Value modifier = stat.getModifier();
+        baseBounds[slot].setMin(id, base.min());
+        baseBounds[slot].setMax(id, base.max());
+        baseCurrent[i] = base.current();
+        modifierBounds[slot].setMin(id, modifier.min());
+        modifierBounds[slot].setMax(id, modifier.max());
+        modifierCurrent[i] = modifier.current();
+        if (stat instanceof Hitpoints) {
+            tempHp[id] = ((Hitpoints) stat).getTempHp();
+        }
+    }
+
+    private void storeExperience(int id, Experience experience){
+        xpBounds.setMin(id, experience.min());
+        xpBounds.setMax(id, experience.max());
+        xpCurrent[id] = experience.current();
+    }
+}
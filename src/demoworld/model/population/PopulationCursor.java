@@ -0,0 +1,111 @@
+package demoworld.model.population;
+
+import demoworld.model.Experience;
+import demoworld.model.Hitpoints;
+import demoworld.model.Stat;
+
+/**
+ * Views one character of a {@link CharacterPopulation} at a time through flyweight Stat,
+ * Hitpoints and Experience objects. Moving the cursor re-targets every view without allocating,
+ * so the views handed out should not be held on to past the next move. Listeners attached to the
+ * views stay attached across moves and are told about changes to whichever character is viewed,
+ * with the previous total taken from that character
+ */
+public class PopulationCursor {
+
+    private final CharacterPopulation population;
+    private final Stat[] stats;
+    private final PopulationValue[] bases;
+    private final PopulationValue[] modifiers;
+    private final PopulationHitpoints hitpoints;
+    private final PopulationExperience experience;
+    private int character;
+
+    /**
+     * Constructs a cursor over the given views, positioned at character 0
+     * @param population the population being viewed
+     * @param stats one view per stat slot
+     * @param bases the base value views backing the stat views
+     * @param modifiers the modifier value views backing the stat views
+     * @param hitpoints the view of the hitpoints slot, or null if there is none
+     * @param experience the view over the experience columns
+     */
+    PopulationCursor(CharacterPopulation population,
+                     Stat[] stats,
+                     PopulationValue[] bases,
+                     PopulationValue[] modifiers,
+                     PopulationHitpoints hitpoints,
+                     PopulationExperience experience){
+        this.population = population;
+        this.stats = stats;
+        this.bases = bases;
+        this.modifiers = modifiers;
+        this.hitpoints = hitpoints;
+        this.experience = experience;
+    }
+
+    /**
+     * Moves the cursor to the given character
+     * @param character the id of the character to view
+     * @return this cursor
+     * @throws IndexOutOfBoundsException if there is no character with that id
+     */
+    public PopulationCursor moveTo(int character)
+            throws IndexOutOfBoundsException {
+        if (character < 0 || character >= population.size()) {
+            throw new IndexOutOfBoundsException("No character with id " + character);
+        }
+        this.character = character;
+        int offset = character * stats.length;
+        for (int slot = 0; slot < stats.length; slot++) {
+            bases[slot].moveTo(character, offset + slot);
+            modifiers[slot].moveTo(character, offset + slot);
+        }
+        if (hitpoints != null) {
+            hitpoints.moveTo(character);
+        }
+        for (Stat stat : stats) {
+            ((PopulationView) stat).moved();
+        }
+        experience.moveTo(character);
+        return this;
+    }
+
+    /**
+     * Gets the id of the character the cursor is viewing
+     * @return the id of the character the cursor is viewing
+     */
+    public int character(){
+        return character;
+    }
+
+    /**
+     * Gets the view of a stat of the current character
+     * @param slot the slot of the stat
+     * @return the view of the stat
+     */
+    public Stat stat(int slot){
+        return stats[slot];
+    }
+
+    /**
+     * Gets the view of the current characters hitpoints
+     * @return the view of the hitpoints
+     * @throws IllegalStateException if the rulebook has no hitpoints stat
+     */
+    public Hitpoints hitpoints()
+            throws IllegalStateException {
+        if (hitpoints == null) {
+            throw new IllegalStateException("Stat with name hitpoints not found");
+        }
+        return hitpoints;
+    }
+
+    /**
+     * Gets the view of the current characters experience
+     * @return the view of the experience
+     */
+    public Experience experience(){
+        return experience;
+    }
+}
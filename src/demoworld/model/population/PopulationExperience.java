@@ -0,0 +1,75 @@
+package demoworld.model.population;
+
+import demoworld.model.Experience;
+
+/**
+ * A flyweight {@link Experience} over the experience columns of a {@link CharacterPopulation}
+ */
+public class PopulationExperience extends Experience {
+
+    private final ValueBounds bounds;
+    private final int[] current;
+    private int character;
+
+    /**
+     * Constructs a view over the given experience bounds and current column, positioned at character 0
+     * @param bounds the experience bounds
+     * @param current the current column
+     */
+    PopulationExperience(ValueBounds bounds, int[] current){
+        super(0, 0);
+        this.bounds = bounds;
+        this.current = current;
+    }
+
+    /**
+     * Re-targets the view at another character
+     * @param character the id of the character
+     */
+    void moveTo(int character){
+        this.character = character;
+    }
+
+    @Override
+    public int min(){
+        return bounds.min(character);
+    }
+
+    @Override
+    public int max(){
+        return bounds.max(character);
+    }
+
+    @Override
+    public int current(){
+        return current[character];
+    }
+
+    @Override
+    public void setMin(int min){
+        ValueColumns.setMin(bounds, current, character, character, min);
+        notifyListener();
+    }
+
+    @Override
+    public void setMax(int max){
+        ValueColumns.setMax(bounds, current, character, character, max);
+        notifyListener();
+    }
+
+    @Override
+    public void setCurrent(int value){
+        ValueColumns.setCurrent(bounds, current, character, character, value);
+        notifyListener();
+    }
+
+    @Override
+    public void addToCurrent(int value){
+        setCurrent(current[character] + value);
+    }
+
+    @Override
+    public void addToMax(int value){
+        setMax(bounds.max(character) + value);
+    }
+}
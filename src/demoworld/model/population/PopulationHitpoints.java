@@ -0,0 +1,48 @@
+package demoworld.model.population;
+
+import demoworld.model.Hitpoints;
+
+/**
+ * A flyweight {@link Hitpoints} over the hitpoints slot of a {@link CharacterPopulation},
+ * with temporary hitpoints kept in the populations temp hp column
+ */
+public class PopulationHitpoints extends Hitpoints implements PopulationView {
+
+    private final int[] tempHp;
+    private int character;
+
+    /**
+     * Constructs a view of the hitpoints slot
+     * @param base the view over the base columns
+     * @param modifier the view over the modifier columns
+     * @param tempHp the temp hp column, indexed by character id
+     */
+    PopulationHitpoints(PopulationValue base, PopulationValue modifier, int[] tempHp){
+        super(base, modifier);
+        this.tempHp = tempHp;
+    }
+
+    /**
+     * Re-targets the temp hp view at another character
+     * @param character the id of the character
+     */
+    void moveTo(int character){
+        this.character = character;
+    }
+
+    @Override
+    public void moved(){
+        rememberTotal();
+    }
+
+    @Override
+    public void setTempHp(int value){
+        tempHp[character] = Math.max(value, 0);
+        notifyListener();
+    }
+
+    @Override
+    public int getTempHp(){
+        return tempHp[character];
+    }
+}
@@ -0,0 +1,25 @@
+package demoworld.model.population;
+
+import demoworld.model.Stat;
+
+/**
+ * A flyweight {@link Stat} over one stat slot of a {@link CharacterPopulation}
+ */
+public class PopulationStat extends Stat implements PopulationView {
+
+    /**
+     * Constructs a view of a stat slot
+     * @param name the name of the stat
+     * @param description the description of the stat
+     * @param base the view over the base columns
+     * @param modifier the view over the modifier columns
+     */
+    PopulationStat(String name, String description, PopulationValue base, PopulationValue modifier){
+        super(name, description, base, modifier);
+    }
+
+    @Override
+    public void moved(){
+        rememberTotal();
+    }
+}
@@ -0,0 +1,79 @@
+package demoworld.model.population;
+
+import demoworld.model.Value;
+
+/**
+ * A flyweight {@link Value} that reads and writes one slot of a {@link CharacterPopulation}s
+ * columns instead of its own fields. Moving it to another character re-targets it without allocating
+ */
+public class PopulationValue extends Value {
+
+    private final ValueBounds bounds;
+    private final int[] current;
+    private int id;
+    private int index;
+
+    /**
+     * Constructs a view over the given bounds and current column, positioned at character 0
+     * @param bounds the bounds of the slot
+     * @param current the current column
+     */
+    PopulationValue(ValueBounds bounds, int[] current){
+        super(0, 0, 0);
+        this.bounds = bounds;
+        this.current = current;
+    }
+
+    /**
+     * Re-targets the view at another character
+     * @param id the id of the character
+     * @param index the index of the slot of the character in the current column
+     */
+    void moveTo(int id, int index){
+        this.id = id;
+        this.index = index;
+    }
+
+    @Override
+    public int min(){
+        return bounds.min(id);
+    }
+
+    @Override
+    public int max(){
+        return bounds.max(id);
+    }
+
+    @Override
+    public int current(){
+        return current[index];
+    }
+
+    @Override
+    public void setMin(int min){
+        ValueColumns.setMin(bounds, current, id, index, min);
+        notifyListener();
+    }
+
+    @Override
+    public void setMax(int max){
+        ValueColumns.setMax(bounds, current, id, index, max);
+        notifyListener();
+    }
+
+    @Override
+    public void setCurrent(int value){
+        ValueColumns.setCurrent(bounds, current, id, index, value);
+        notifyListener();
+    }
+
+    @Override
+    public void addToCurrent(int value){
+        setCurrent(current[index] + value);
+    }
+
+    @Override
+    public void addToMax(int value){
+        setMax(bounds.max(id) + value);
+    }
+}
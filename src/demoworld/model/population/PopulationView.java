@@ -0,0 +1,13 @@
+package demoworld.model.population;
+
+/**
+ * A flyweight stat of a {@link PopulationCursor}, told when the cursor has moved it to another character
+ */
+interface PopulationView {
+
+    /**
+     * Called after the view was moved, so a listener attached to it compares later changes with the
+     * total of the character it now views
+     */
+    void moved();
+}
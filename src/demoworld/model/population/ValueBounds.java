@@ -0,0 +1,106 @@
+package demoworld.model.population;
+
+import java.util.Arrays;
+
+/**
+ * The minimum and maximum of one Value of every character in a {@link CharacterPopulation}, such as the base
+ * of one stat slot. Almost every character keeps the bounds its template started with, so the bounds are held
+ * once for the whole population and a column with one entry per character is only made for a bound the first
+ * time some character's bound moves away from the template. In DemoWorld that is the hitpoints base maximum
+ * and the experience maximum, which features adjust
+ */
+final class ValueBounds {
+
+    private final int capacity;
+    private final int templateMin;
+    private final int templateMax;
+    // made on the first change, volatile so cursors on other threads see the column once it exists
+    private volatile int[] min;
+    private volatile int[] max;
+
+    /**
+     * Constructs bounds where every character has the template bounds
+     * @param capacity the number of characters a column has to hold
+     * @param templateMin the minimum every character starts with
+     * @param templateMax the maximum every character starts with
+     */
+    ValueBounds(int capacity, int templateMin, int templateMax){
+        this.capacity = capacity;
+        this.templateMin = templateMin;
+        this.templateMax = templateMax;
+    }
+
+    /**
+     * Gets the minimum of a character
+     * @param id the id of the character
+     * @return the minimum
+     */
+    int min(int id){
+        int[] column = min;
+        return column == null ? templateMin : column[id];
+    }
+
+    /**
+     * Gets the maximum of a character
+     * @param id the id of the character
+     * @return the maximum
+     */
+    int max(int id){
+        int[] column = max;
+        return column == null ? templateMax : column[id];
+    }
+
+    /**
+     * Stores the minimum of a character as given, without enforcing any boundary
+     * @param id the id of the character
+     * @param value the minimum
+     */
+    void setMin(int id, int value){
+        int[] column = min;
+        if (column == null) {
+            if (value == templateMin) {
+                return;
+            }
+            column = minColumn();
+        }
+        column[id] = value;
+    }
+
+    /**
+     * Stores the maximum of a character as given, without enforcing any boundary
+     * @param id the id of the character
+     * @param value the maximum
+     */
+    void setMax(int id, int value){
+        int[] column = max;
+        if (column == null) {
+            if (value == templateMax) {
+                return;
+            }
+            column = maxColumn();
+        }
+        column[id] = value;
+    }
+
+    private synchronized int[] minColumn(){
+        if (min == null) {
+            min = filled(templateMin);
+        }
+        return min;
+    }
+
+    private synchronized int[] maxColumn(){
+        if (max == null) {
+            max = filled(templateMax);
+        }
+        return max;
+    }
+
+    private int[] filled(int value){
+        int[] column = new int[capacity];
+        if (value != 0) {
+            Arrays.fill(column, value);
+        }
+        return column;
+    }
+}
@@ -0,0 +1,66 @@
+package demoworld.model.population;
+
+/**
+ * Applies the boundary rules of {@link demoworld.model.Value} to a current amount stored in an int column
+ * and the bounds it is held between
+ */
+final class ValueColumns {
+
+    private ValueColumns(){}
+
+    /**
+     * Sets the minimum of a character, raising the maximum and current to match if they fall below it
+     * @param bounds the bounds of the value
+     * @param current the current column
+     * @param id the id of the character
+     * @param i the index of the value in the current column
+     * @param value the new minimum
+     */
+    static void setMin(ValueBounds bounds, int[] current, int id, int i, int value){
+        bounds.setMin(id, value);
+        if (bounds.max(id) < value) {
+            bounds.setMax(id, value);
+        }
+        if (current[i] < value) {
+            current[i] = value;
+        }
+    }
+
+    /**
+     * Sets the maximum of a character, keeping it no lower than the minimum
+     * and lowering the current to match if it is above it
+     * @param bounds the bounds of the value
+     * @param current the current column
+     * @param id the id of the character
+     * @param i the index of the value in the current column
+     * @param value the new maximum
+     */
+    static void setMax(ValueBounds bounds, int[] current, int id, int i, int value){
+        int min = bounds.min(id);
+        int max = value < min ? min : value;
+        bounds.setMax(id, max);
+        if (current[i] > max) {
+            current[i] = max;
+        }
+    }
+
+    /**
+     * Sets the current of a character, clamped between its minimum and maximum
+     * @param bounds the bounds of the value
+     * @param current the current column
+     * @param id the id of the character
+     * @param i the index of the value in the current column
+     * @param value the new current
+     */
+    static void setCurrent(ValueBounds bounds, int[] current, int id, int i, int value){
+        int min = bounds.min(id);
+        int max = bounds.max(id);
+        if (value < min) {
+            current[i] = min;
+        } else if (value > max) {
+            current[i] = max;
+        } else {
+            current[i] = value;
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package demoworld.roster;
+
+import demoworld.model.Character;
+import demoworld.model.Experience;
+import demoworld.model.Feature;
+import demoworld.model.FeatureManager;
+import demoworld.model.Hitpoints;
+import demoworld.model.RuleBook;
+import demoworld.model.Specialty;
+import demoworld.model.SpecialtyManager;
+import demoworld.model.Stat;
+import demoworld.model.StatManager;
+import demoworld.model.Value;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * A file of fixed width character records that is memory mapped rather than read, so a roster
+ * larger than the heap opens without loading it and a single character can be read or written by id.
+ * <p>
+ * The file starts with a {@value #HEADER_BYTES} byte header followed by {@code capacity} records.
+ * Each record holds, in order: an in-use flag, the characters name as a length prefixed UTF-8 string
+ * padded to {@value #NAME_BYTES} bytes, the base and modifier min, max and current of every stat in
+ * the rulebooks stat order, the temp hp, the experience min, max and current, then one bit per
+ * feature and one bit per specialty in the order the rulebook lists them.
+ * All numbers are big endian. The file is mapped in chunks so it is not limited to 2GB.
+ * Different records can be read and written from different threads at the same time
+ */
+public class Roster implements Closeable {
+
+    private static final int MAGIC = 0x44575253;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int NAME_BYTES = 64;
+    private static final int MAX_CHUNK_BYTES = 1 << 30;
+
+    private final FileChannel channel;
+    private final RuleBook rulebook;
+    private final List<Feature> features;
+    private final List<Specialty> specialties;
+    private final int statCount;
+    private final int featureWords;
+    private final int specialtyWords;
+    private final int recordBytes;
+    private final int capacity;
+    private final int recordsPerChunk;
+    private final MappedByteBuffer[] chunks;
+
+    private Roster(FileChannel channel, RuleBook rulebook, int capacity)
+            throws IOException {
+        this.channel = channel;
+        this.rulebook = rulebook;
+        this.features = rulebook.getFeaturesReference();
+        this.specialties = rulebook.getSpecialtiesReference();
+        this.statCount = rulebook.createCharacterStats().size();
+        this.featureWords = words(features.size());
+        this.specialtyWords = words(specialties.size());
+        int bytes = 4 + NAME_BYTES + statCount * 6 * 4 + 4 + 3 * 4 + (featureWords + specialtyWords) * 8;
+        this.recordBytes = (bytes + 7) & ~7;
+        this.capacity = capacity;
+        this.recordsPerChunk = Math.max(1, MAX_CHUNK_BYTES / recordBytes);
+        this.chunks = new MappedByteBuffer[(capacity + recordsPerChunk - 1) / recordsPerChunk];
+        // mapping only reserves address space, pages are read in when a record is first touched
+        for (int index = 0; index < chunks.length; index++) {
+            int records = Math.min(recordsPerChunk, capacity - index * recordsPerChunk);
+            chunks[index] = channel.map(FileChannel.MapMode.READ_WRITE,
+                    HEADER_BYTES + (long) index * recordsPerChunk * recordBytes,
+                    (long) records * recordBytes);
+        }
+    }
+
+    /**
+     * Creates a new roster file, replacing any file at the given path, with room for the given
+     * number of characters built from the given rulebook. Every record starts out unused
+     * @param path where the roster file should be created
+     * @param rulebook the rulebook the characters in the roster are built from
+     * @param capacity the number of characters the roster can hold
+     * @return the open roster
+     * @throws IOException if the file could not be created
+     */
+    public static Roster create(Path path, RuleBook rulebook, int capacity)
+            throws IOException {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity can not be negative: " + capacity);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            // mapping the records grows the file to its full size without writing them
+            Roster roster = new Roster(channel, rulebook, capacity);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(roster.recordBytes)
+                    .putInt(capacity)
+                    .putInt(roster.statCount)
+                    .putInt(roster.features.size())
+                    .putInt(roster.specialties.size())
+                    .putLong(roster.catalogHash());
+            header.rewind();
+            channel.write(header, 0);
+            return roster;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens an existing roster file. Only the header is read, records are paged in as they are used
+     * @param path the roster file
+     * @param rulebook the rulebook the characters in the roster were built from
+     * @return the open roster
+     * @throws IOException if the file could not be read
+     * @throws IllegalStateException if the file is not a roster or was written for a different rulebook
+     */
+    public static Roster open(Path path, RuleBook rulebook)
+            throws IOException, IllegalStateException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+                // keep reading until the header is full or the file ends
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IllegalStateException(path + " is not a roster file");
+            }
+            if (header.getInt() != VERSION) {
+                throw new IllegalStateException(path + " was written by an unsupported roster version");
+            }
+            int recordBytes = header.getInt();
+            int capacity = header.getInt();
+            if (capacity < 0 || channel.size() < HEADER_BYTES + (long) capacity * recordBytes) {
+                throw new IllegalStateException(path + " is shorter than its header says");
+            }
+            Roster roster = new Roster(channel, rulebook, capacity);
+            if (recordBytes != roster.recordBytes
+                    || header.getInt() != roster.statCount
+                    || header.getInt() != roster.features.size()
+                    || header.getInt() != roster.specialties.size()
+                    || header.getLong() != roster.catalogHash()) {
+                throw new IllegalStateException(path + " was written for a different rulebook than "
+                        + rulebook.getName());
+            }
+            return roster;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the number of characters the roster can hold
+     * @return the number of characters the roster can hold
+     */
+    public int capacity(){
+        return capacity;
+    }
+
+    /**
+     * Returns if a character has been written to the record with the given id
+     * @param id the id of the record
+     * @return true if the record holds a character, false otherwise
+     */
+    public boolean contains(int id){
+        return chunk(id).getInt(offset(id)) != 0;
+    }
+
+    /**
+     * Writes the given character into the record with the given id, replacing whatever was there
+     * @param id the id of the record
+     * @param character the character to write
+     * @throws IllegalArgumentException if the characters name does not fit in a record
+     */
+    public void write(int id, Character character)
+            throws IllegalArgumentException {
+        byte[] name = character.getName().getBytes(StandardCharsets.UTF_8);
+        if (name.length > NAME_BYTES - 2) {
+            throw new IllegalArgumentException("Character name " + character.getName()
+                    + " is longer than " + (NAME_BYTES - 2) + " bytes");
+        }
+        MappedByteBuffer chunk = chunk(id);
+        int at = offset(id);
+        chunk.putInt(at, 1);
+        at += 4;
+        chunk.putShort(at, (short) name.length);
+        chunk.put(at + 2, name);
+        at += NAME_BYTES;
+
+        StatManager stats = character.getStat();
+        int tempHp = 0;
+        for (int slot = 0; slot < statCount; slot++) {
+            Stat stat = stats.get(slot);
+            at = putValue(chunk, at, stat.getBase());
+            at = putValue(chunk, at, stat.getModifier());
+            if (stat instanceof Hitpoints) {
+                tempHp = ((Hitpoints) stat).getTempHp();
+            }
+        }
+        chunk.putInt(at, tempHp);
+        at = putValue(chunk, at + 4, character.getExperience());
+
+        // the managers already keep their rulebook ids as a bitset, the words go in as they are
+        FeatureManager featureManager = character.getFeature();
+        for (int i = 0; i < featureManager.size(); i++) {
+            Feature feature = featureManager.get(i);
+            checkId(features, feature, feature.getId());
+        }
+        for (int word = 0; word < featureWords; word++, at += 8) {
+            chunk.putLong(at, featureManager.idWord(word));
+        }
+        SpecialtyManager specialtyManager = character.getSpecialty();
+        for (int i = 0; i < specialtyManager.size(); i++) {
+            Specialty specialty = specialtyManager.get(i);
+            checkId(specialties, specialty, specialty.getId());
+        }
+        for (int word = 0; word < specialtyWords; word++, at += 8) {
+            chunk.putLong(at, specialtyManager.idWord(word));
+        }
+    }
+
+    /**
+     * Reads the character held in the record with the given id. The characters stats are restored
+     * exactly and its features and specialties are added without adjusting it again, as the stored
+     * stats already include their adjustments. Features and specialties come back in rulebook order
+     * @param id the id of the record
+     * @return a new character holding the stored state
+     * @throws IllegalStateException if no character has been written to the record
+     */
+    public Character read(int id)
+            throws IllegalStateException {
+        MappedByteBuffer chunk = chunk(id);
+        int at = offset(id);
+        if (chunk.getInt(at) == 0) {
+            throw new IllegalStateException("Roster record " + id + " is empty");
+        }
+        at += 4;
+        byte[] name = new byte[chunk.getShort(at)];
+        chunk.get(at + 2, name);
+        at += NAME_BYTES;
+
+        Character character = new Character(new String(name, StandardCharsets.UTF_8), rulebook);
+        StatManager stats = character.getStat();
+        Hitpoints hitpoints = null;
+        for (int slot = 0; slot < statCount; slot++) {
+            Stat stat = stats.get(slot);
+            at = getValue(chunk, at, stat.getBase());
+            at = getValue(chunk, at, stat.getModifier());
+            if (stat instanceof Hitpoints) {
+                hitpoints = (Hitpoints) stat;
+            }
+        }
+        if (hitpoints != null) {
+            hitpoints.setTempHp(chunk.getInt(at));
+        }
+        at = getValue(chunk, at + 4, character.getExperience());
+
+        for (int word = 0; word < featureWords; word++, at += 8) {
+            long bits = chunk.getLong(at);
+            while (bits != 0) {
+                character.getFeature().add(features.get(word * 64 + Long.numberOfTrailingZeros(bits)));
+                bits &= bits - 1;
+            }
+        }
+        for (int word = 0; word < specialtyWords; word++, at += 8) {
+            long bits = chunk.getLong(at);
+            while (bits != 0) {
+                character.getSpecialty().add(specialties.get(word * 64 + Long.numberOfTrailingZeros(bits)));
+                bits &= bits - 1;
+            }
+        }
+        return character;
+    }
+
+    /**
+     * Marks the record with the given id as unused
+     * @param id the id of the record
+     */
+    public void clear(int id){
+        chunk(id).putInt(offset(id), 0);
+    }
+
+    /**
+     * Writes any records changed through the mapping out to the storage device
+     */
+    public void force(){
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.force();
+        }
+    }
+
+    /**
+     * Closes the roster file. Changed records still reach the file through the operating system,
+     * call {@link #force()} first if they must be on the storage device before this returns
+     * @throws IOException if the file could not be closed
+     */
+    @Override
+    public void close()
+            throws IOException {
+        channel.close();
+    }
+
+    private MappedByteBuffer chunk(int id){
+        if (id < 0 || id >= capacity) {
+            throw new IndexOutOfBoundsException("No roster record with id " + id);
+        }
+        return chunks[id / recordsPerChunk];
+    }
+
+    private int offset(int id){
+        return (id % recordsPerChunk) * recordBytes;
+    }
+
+    private static int putValue(ByteBuffer buffer, int at, Value value){
+        buffer.putInt(at, value.min());
+        buffer.putInt(at + 4, value.max());
+        buffer.putInt(at + 8, value.current());
+        return at + 12;
+    }
+
+    private static int getValue(ByteBuffer buffer, int at, Value value){
+        value.set(buffer.getInt(at), buffer.getInt(at + 4), buffer.getInt(at + 8));
+        return at + 12;
+    }
+
+    private static <T> void checkId(List<T> catalog, T item, int id){
+        if (id < 0 || id >= catalog.size() || catalog.get(id) != item) {
+            throw new IllegalArgumentException(item + " is not part of the rosters rulebook");
+        }
+    }
+
+    private static int words(int bits){
+        return (bits + 63) >>> 6;
+    }
+
+    private long catalogHash(){
+        long hash = 0xcbf29ce484222325L;
+        hash = hash(hash, rulebook.getName());
+        StatManager stats = rulebook.createCharacterStats();
+        for (int slot = 0; slot < statCount; slot++) {
+            hash = hash(hash, stats.get(slot).name());
+        }
+        for (Feature feature : features) {
+            hash = hash(hash, feature.getName());
+        }
+        for (Specialty specialty : specialties) {
+            hash = hash(hash, specialty.getName());
+        }
+        return hash;
+    }
+
+    private static long hash(long hash, String text){
+        for (int i = 0; i < text.length(); i++) {
+            hash = (hash ^ text.charAt(i)) * 0x100000001b3L;
+        }
+        return (hash ^ 0xff) * 0x100000001b3L;
+    }
+}
@@ -0,0 +1,219 @@
+package demoworld.rulebook;
+
+import demoworld.model.Feature;
+import demoworld.model.Hitpoints;
+import demoworld.model.PrimaryStat;
+import demoworld.model.Requirement;
+import demoworld.model.RuleBook;
+import demoworld.model.Specialty;
+import demoworld.model.Stat;
+import demoworld.model.adjustments.Adjustment;
+import demoworld.model.adjustments.MaxHpAdjustment;
+import demoworld.model.adjustments.MaxXpAdjustment;
+import demoworld.model.adjustments.StatAdjustment;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A rulebook laid out as numbered lists for writing it to a rules file or a snapshot: the starting stats in slot
+ * order, every requirement the rulebook and its features and specialties use, and the features and specialties
+ * in rulebook order. Requirements are numbered by identity, so two requirements with the same name stay two
+ */
+final class Catalog {
+
+    static final int STAT = 0;
+    static final int PRIMARY = 1;
+    static final int HITPOINTS = 2;
+
+    static final int STAT_ADJUSTMENT = 0;
+    static final int MAX_HP = 1;
+    static final int MAX_XP = 2;
+
+    final RuleBook rulebook;
+    final List<Stat> stats;
+    final List<Requirement> requirements;
+    final List<Feature> features;
+    final List<Specialty> specialties;
+    private final Map<Requirement, Integer> requirementIds;
+    private final Map<Feature, Integer> featureIds;
+
+    /**
+     * Lays out a rulebook
+     * @param rulebook the rulebook to lay out
+     * @throws IllegalArgumentException if a specialty or advantage uses a feature that is not in the rulebook
+     */
+    Catalog(RuleBook rulebook)
+            throws IllegalArgumentException {
+        this.rulebook = rulebook;
+        this.stats = rulebook.createCharacterStats().view();
+        this.features = rulebook.getFeaturesReference();
+        this.specialties = rulebook.getSpecialtiesReference();
+        this.featureIds = new IdentityHashMap<>();
+        for (int i = 0; i < features.size(); i++) {
+            featureIds.putIfAbsent(features.get(i), i);
+        }
+        this.requirements = new ArrayList<>();
+        this.requirementIds = new IdentityHashMap<>();
+        for (Requirement requirement : rulebook.getRequirementsReference()) {
+            number(requirement);
+        }
+        for (Feature feature : features) {
+            for (Requirement requirement : feature.getRequirementsView()) {
+                number(requirement);
+            }
+        }
+        for (Specialty specialty : specialties) {
+            for (Feature feature : specialty.getFeaturesView()) {
+                featureId(feature, "Specialty " + specialty.getName());
+            }
+            for (Requirement requirement : specialty.getRequirementsView()) {
+                number(requirement);
+            }
+        }
+        for (String check : rulebook.getAdvantageChecks()) {
+            for (Feature feature : rulebook.getAdvantageFeatures(check)) {
+                featureId(feature, "Advantage " + check);
+            }
+        }
+    }
+
+    private void number(Requirement requirement){
+        if (!requirementIds.containsKey(requirement)) {
+            requirementIds.put(requirement, requirements.size());
+            requirements.add(requirement);
+        }
+    }
+
+    /**
+     * Gets the number of a requirement of the rulebook
+     * @param requirement the requirement
+     * @return its position in {@link #requirements}
+     */
+    int requirementId(Requirement requirement){
+        return requirementIds.get(requirement);
+    }
+
+    /**
+     * Gets the number of a feature of the rulebook, the position of its first appearance in {@link #features}
+     * @param feature the feature
+     * @param usedBy what uses the feature, for the error message
+     * @return the position of the feature
+     * @throws IllegalArgumentException if the feature is not in the rulebook
+     */
+    int featureId(Feature feature, String usedBy)
+            throws IllegalArgumentException {
+        Integer id = featureIds.get(feature);
+        if (id == null) {
+            throw new IllegalArgumentException(usedBy + " uses feature " + feature.getName()
+                    + " that is not in the rulebook");
+        }
+        return id;
+    }
+
+    /**
+     * Gets which kind of stat a stat is
+     * @param stat the stat
+     * @return {@link #HITPOINTS}, {@link #PRIMARY} or {@link #STAT}
+     * @throws IllegalArgumentException if the stat is some other subclass of Stat, which can not be written
+     */
+    static int kindOf(Stat stat)
+            throws IllegalArgumentException {
+        if (stat.getClass() == Hitpoints.class) {
+            return HITPOINTS;
+        }
+        if (stat.getClass() == PrimaryStat.class) {
+            return PRIMARY;
+        }
+        if (stat.getClass() == Stat.class) {
+            return STAT;
+        }
+        throw new IllegalArgumentException("Stat " + stat.name() + " is a " + stat.getClass().getName()
+                + " which can not be written");
+    }
+
+    /**
+     * Gets which kind of adjustment an adjustment is
+     * @param adjustment the adjustment
+     * @return {@link #STAT_ADJUSTMENT}, {@link #MAX_HP} or {@link #MAX_XP}
+     * @throws IllegalArgumentException if the adjustment is of a class that can not be written
+     */
+    static int kindOf(Adjustment adjustment)
+            throws IllegalArgumentException {
+        if (adjustment.getClass() == StatAdjustment.class) {
+            return STAT_ADJUSTMENT;
+        }
+        if (adjustment.getClass() == MaxHpAdjustment.class) {
+            return MAX_HP;
+        }
+        if (adjustment.getClass() == MaxXpAdjustment.class) {
+            return MAX_XP;
+        }
+        throw new IllegalArgumentException("Adjustment " + adjustment.getClass().getName() + " can not be written");
+    }
+
+    /**
+     * Gets the value an adjustment adds
+     * @param adjustment a StatAdjustment, MaxHpAdjustment or MaxXpAdjustment
+     * @return the value it adds
+     */
+    static int valueOf(Adjustment adjustment){
+        switch (kindOf(adjustment)) {
+            case STAT_ADJUSTMENT:
+                return ((StatAdjustment) adjustment).getValue();
+            case MAX_HP:
+                return ((MaxHpAdjustment) adjustment).getValue();
+            default:
+                return ((MaxXpAdjustment) adjustment).getValue();
+        }
+    }
+
+    /**
+     * Makes the adjustment of the given kind
+     * @param kind {@link #STAT_ADJUSTMENT}, {@link #MAX_HP} or {@link #MAX_XP}
+     * @param statKey the stat a stat adjustment changes, ignored for the others
+     * @param value the value the adjustment adds
+     * @return the adjustment
+     * @throws IllegalArgumentException if the kind is not known
+     */
+    static Adjustment adjustment(int kind, String statKey, int value)
+            throws IllegalArgumentException {
+        switch (kind) {
+            case STAT_ADJUSTMENT:
+                return new StatAdjustment(statKey, value);
+            case MAX_HP:
+                return new MaxHpAdjustment(value);
+            case MAX_XP:
+                return new MaxXpAdjustment(value);
+            default:
+                throw new IllegalArgumentException("Unknown adjustment kind " + kind);
+        }
+    }
+
+    /**
+     * Makes the stat of the given kind
+     * @param kind {@link #STAT}, {@link #PRIMARY} or {@link #HITPOINTS}
+     * @param name the name of the stat, ignored for hitpoints
+     * @param description the description of the stat, ignored for hitpoints
+     * @param min the minimum of the stat, ignored for hitpoints which start at 0
+     * @param max the maximum of the stat
+     * @param current the current amount of the stat
+     * @return the stat
+     * @throws IllegalArgumentException if the kind is not known
+     */
+    static Stat stat(int kind, String name, String description, int min, int max, int current)
+            throws IllegalArgumentException {
+        switch (kind) {
+            case STAT:
+                return new Stat(name, description, min, max, current);
+            case PRIMARY:
+                return new PrimaryStat(name, description, min, max, current);
+            case HITPOINTS:
+                return new Hitpoints(max, current);
+            default:
+                throw new IllegalArgumentException("Unknown stat kind " + kind);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package demoworld.rulebook;
+
+import demoworld.model.Character;
+import demoworld.model.EligibilityIndex;
+import demoworld.model.Experience;
+import demoworld.model.Feature;
+import demoworld.model.FeatureManager;
+import demoworld.model.Hitpoints;
+import demoworld.model.Requirement;
+import demoworld.model.RequirementManager;
+import demoworld.model.RuleBook;
+import demoworld.model.Specialty;
+import demoworld.model.SpecialtyManager;
+import demoworld.model.Stat;
+import demoworld.model.StatManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A rulebook whose catalog was read from a rules file by {@link RulesFile} or mapped from a compiled
+ * snapshot by {@link RuleBookSnapshot}, rather than built by code like DemoWorld.
+ * The catalog is frozen as soon as it is made, so one instance can be shared by any number of threads.
+ * The eligibility indexes are built the first time they are needed instead of while loading, so loading a large
+ * catalog only costs making its objects
+ */
+public final class DataRuleBook extends RuleBook {
+
+    private final String name;
+    private final double edition;
+    private final Experience xp;
+    private final int featurePickCount;
+    private final List<Integer> statSpread;
+    private final StatManager stats;
+    private final RequirementManager requirements;
+    private final FeatureManager features;
+    private final SpecialtyManager specialties;
+    private final Map<String, List<Feature>> advantages;
+    private volatile EligibilityIndex<Feature> featureEligibility;
+    private volatile EligibilityIndex<Specialty> specialtyEligibility;
+
+    /**
+     * Constructs a rulebook around already linked catalog content, giving the features and specialties their
+     * ids and freezing everything
+     * @param name the name of the rulebook
+     * @param edition the edition of the rulebook
+     * @param xp the starting experience of characters
+     * @param featurePickCount the number of features a starting character picks
+     * @param statSpread the values a starting character allocates to its primary stats
+     * @param stats the stats of a starting character, in slot order
+     * @param requirements every requirement of the rulebook
+     * @param features every feature of the rulebook, in id order
+     * @param specialties every specialty of the rulebook, in id order
+     * @param advantages the features granting advantage on each kind of check, in the order the checks are listed
+     * @throws IllegalStateException if a feature or specialty already belongs to another rulebook
+     */
+    DataRuleBook(String name, double edition, Experience xp, int featurePickCount, List<Integer> statSpread,
+                 List<Stat> stats, List<Requirement> requirements, List<Feature> features, List<Specialty> specialties,
+                 Map<String, List<Feature>> advantages)
+            throws IllegalStateException {
+        this.name = name;
+        this.edition = edition;
+        this.xp = xp;
+        this.featurePickCount = featurePickCount;
+        this.statSpread = List.copyOf(statSpread);
+        this.stats = new StatManager();
+        for (Stat stat : stats) {
+            this.stats.add(stat);
+        }
+        this.requirements = new RequirementManager();
+        for (Requirement requirement : requirements) {
+            this.requirements.add(requirement);
+        }
+        this.features = new FeatureManager();
+        for (Feature feature : features) {
+            this.features.add(feature);
+        }
+        this.specialties = new SpecialtyManager();
+        for (Specialty specialty : specialties) {
+            this.specialties.add(specialty);
+        }
+        Map<String, List<Feature>> checks = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Feature>> entry : advantages.entrySet()) {
+            checks.put(entry.getKey(), List.copyOf(entry.getValue()));
+        }
+        this.advantages = Collections.unmodifiableMap(checks);
+        assignIds();
+        freeze();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public double getEdition() {
+        return edition;
+    }
+
+    @Override
+    public List<Feature> getFeaturesReference() {
+        return features.all();
+    }
+
+    @Override
+    public Experience getExperienceReference() {
+        return xp;
+    }
+
+    @Override
+    public int getFeaturePickCount() {
+        return featurePickCount;
+    }
+
+    @Override
+    public List<Integer> getStatSpreadReference() {
+        return new ArrayList<>(statSpread);
+    }
+
+    @Override
+    public List<Specialty> getSpecialtiesFilteredByRequirements(Character character) {
+        return getSpecialtyEligibility().filter(character);
+    }
+
+    @Override
+    public List<Feature> getFeaturesFilteredByRequirements(Character character) {
+        return getFeatureEligibility().filter(character);
+    }
+
+    /**
+     * Gets the eligibility index over the features, building it the first time. Threads racing to build it
+     * each build the same index and any of them may be kept, which is harmless as indexes only have final fields
+     * @return the eligibility index over every feature
+     */
+    @Override
+    public EligibilityIndex<Feature> getFeatureEligibility() {
+        EligibilityIndex<Feature> index = featureEligibility;
+        if (index == null) {
+            index = new EligibilityIndex<>(features.view(), Feature::getRequirementsView, stats);
+            featureEligibility = index;
+        }
+        return index;
+    }
+
+    /**
+     * Gets the eligibility index over the specialties, building it the first time the same way as the features
+     * @return the eligibility index over every specialty
+     */
+    @Override
+    public EligibilityIndex<Specialty> getSpecialtyEligibility() {
+        EligibilityIndex<Specialty> index = specialtyEligibility;
+        if (index == null) {
+            index = new EligibilityIndex<>(specialties.view(), Specialty::getRequirementsView, stats);
+            specialtyEligibility = index;
+        }
+        return index;
+    }
+
+    @Override
+    public List<Feature> getAdvantageFeatures(String check) {
+        return advantages.getOrDefault(check, List.of());
+    }
+
+    @Override
+    public List<String> getAdvantageChecks() {
+        return List.copyOf(advantages.keySet());
+    }
+
+    /**
+     * Returns copies of the loaded stats, as a data rulebook reads its catalog instead of creating it
+     * @return a new List of copies of the starting stats
+     */
+    @Override
+    protected List<Stat> createAndGetStats() {
+        List<Stat> created = new ArrayList<>(stats.size());
+        stats.forEach(stat -> created.add(stat.copy()));
+        return created;
+    }
+
+    /**
+     * Returns a copy of the loaded hitpoints
+     * @return a copy of the starting hitpoints
+     * @throws IllegalStateException if the rulebook has no hitpoints stat
+     */
+    @Override
+    protected Hitpoints setCharacterStartingHitpoints()
+            throws IllegalStateException {
+        for (Stat stat : stats.view()) {
+            if (stat instanceof Hitpoints) {
+                return ((Hitpoints) stat).copy();
+            }
+        }
+        throw new IllegalStateException("Rulebook " + name + " has no hitpoints");
+    }
+
+    @Override
+    protected Experience setCharacterStartingExperience() {
+        return new Experience(xp);
+    }
+
+    @Override
+    protected List<Feature> createAndGetFeatures() {
+        return features.all();
+    }
+
+    @Override
+    protected List<Specialty> createAndGetSpecialties() {
+        return specialties.all();
+    }
+
+    @Override
+    protected List<Requirement> createAndGetRequirements() {
+        return requirements.all();
+    }
+
+    @Override
+    protected StatManager getStat() {
+        return stats;
+    }
+
+    @Override
+    protected FeatureManager getFeature() {
+        return features;
+    }
+
+    @Override
+    protected SpecialtyManager getSpecialty() {
+        return specialties;
+    }
+
+    @Override
+    protected RequirementManager getRequirement() {
+        return requirements;
+    }
+
+    @Override
+    protected List<Stat> getStatReference() {
+        return stats.all();
+    }
+
+    @Override
+    public List<Specialty> getSpecialtiesReference() {
+        return specialties.all();
+    }
+}
@@ -0,0 +1,418 @@
+package demoworld.rulebook;
+
+import demoworld.model.Experience;
+import demoworld.model.Feature;
+import demoworld.model.Requirement;
+import demoworld.model.RuleBook;
+import demoworld.model.Specialty;
+import demoworld.model.Stat;
+import demoworld.model.adjustments.Adjustment;
+import demoworld.model.adjustments.StatAdjustment;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * A rulebook compiled into one binary file that loads by memory mapping it, with every name already resolved
+ * to an id so nothing is looked up or linked while loading.
+ * <p>
+ * The file starts with a {@value #HEADER_BYTES} byte header: the magic, the version, the CRC32 of everything after
+ * the header, the rulebook name, the edition as the 8 bytes of the double, the starting experience max and current,
+ * the feature pick count, then the number of entries in each table below, the length of the string bytes and 1 if
+ * every string is ASCII or 0 if not.
+ * After the header come the tables, each a run of 4 byte ints:
+ * <pre>
+ * stats                  kind, name, description, min, max, current
+ * requirements           name, stat, threshold
+ * adjustments            kind, stat or -1, value             every distinct adjustment once
+ * features               name, description, end of its adjustments, end of its requirements
+ * feature adjustments    adjustment id
+ * feature requirements   requirement id
+ * specialties            name, description, end of its features, end of its requirements
+ * specialty features     feature id
+ * specialty requirements requirement id
+ * spread                 value
+ * advantages             check, feature id
+ * string offsets         start of each string, then the end of the last one
+ * </pre>
+ * followed by the UTF-8 bytes of every distinct string. Names and descriptions are ids into the string table,
+ * and a feature or specialty lists its adjustments, features and requirements as the run that ends where its
+ * entry says and starts where the entry before it ended. An id is a position in its table.
+ * All numbers are big endian
+ */
+public class RuleBookSnapshot {
+
+    static final int MAGIC = 0x44575253;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 96;
+
+    private static final int STAT_INTS = 6;
+    private static final int REQUIREMENT_INTS = 3;
+    private static final int ADJUSTMENT_INTS = 3;
+    private static final int ENTRY_INTS = 4;
+    private static final int ADVANTAGE_INTS = 2;
+
+    /**
+     * Returns if a file starts like a snapshot, for telling snapshots and rules files apart
+     * @param path the file
+     * @return true if the file starts with the snapshot magic, false otherwise
+     * @throws IOException if the file can not be read
+     */
+    public static boolean isSnapshot(Path path)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // keep reading until the magic is in or the file ends
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * Loads a snapshot by mapping it, checking it is whole and making the rulebook straight from its tables
+     * @param path the snapshot file
+     * @return the rulebook
+     * @throws IOException if the file can not be read, is not a snapshot or is damaged
+     */
+    public static DataRuleBook load(Path path)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("File is not a rulebook snapshot");
+            }
+            // the mapping stays valid after the channel is closed
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    private static DataRuleBook read(ByteBuffer in)
+            throws IOException {
+        if (in.getInt(0) != MAGIC || in.getInt(4) != VERSION) {
+            throw new IOException("File is not a version " + VERSION + " rulebook snapshot");
+        }
+        int statCount = count(in, 36);
+        int requirementCount = count(in, 40);
+        int adjustmentCount = count(in, 44);
+        int featureCount = count(in, 48);
+        int featureAdjustmentCount = count(in, 52);
+        int featureRequirementCount = count(in, 56);
+        int specialtyCount = count(in, 60);
+        int specialtyFeatureCount = count(in, 64);
+        int specialtyRequirementCount = count(in, 68);
+        int spreadCount = count(in, 72);
+        int advantageCount = count(in, 76);
+        int stringCount = count(in, 80);
+        int stringBytes = count(in, 84);
+        boolean ascii = in.getInt(88) == 1;
+
+        long tableInts = STAT_INTS * (long) statCount + REQUIREMENT_INTS * (long) requirementCount
+                + ADJUSTMENT_INTS * (long) adjustmentCount + ENTRY_INTS * (long) featureCount + featureAdjustmentCount
+                + featureRequirementCount + ENTRY_INTS * (long) specialtyCount + specialtyFeatureCount
+                + specialtyRequirementCount + spreadCount + ADVANTAGE_INTS * (long) advantageCount + stringCount + 1;
+        if (HEADER_BYTES + 4 * tableInts + stringBytes != in.limit()) {
+            throw new IOException("Rulebook snapshot is truncated or damaged");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(in.duplicate().position(HEADER_BYTES));
+        if ((int) crc.getValue() != in.getInt(8)) {
+            throw new IOException("Rulebook snapshot is damaged");
+        }
+
+        // The tables are copied out in one go, so everything after works on a plain int array
+        int[] table = new int[(int) tableInts];
+        in.duplicate().position(HEADER_BYTES).asIntBuffer().get(table);
+        int stats = 0;
+        int requirements = stats + STAT_INTS * statCount;
+        int adjustments = requirements + REQUIREMENT_INTS * requirementCount;
+        int features = adjustments + ADJUSTMENT_INTS * adjustmentCount;
+        int featureAdjustments = features + ENTRY_INTS * featureCount;
+        int featureRequirements = featureAdjustments + featureAdjustmentCount;
+        int specialties = featureRequirements + featureRequirementCount;
+        int specialtyFeatures = specialties + ENTRY_INTS * specialtyCount;
+        int specialtyRequirements = specialtyFeatures + specialtyFeatureCount;
+        int spread = specialtyRequirements + specialtyRequirementCount;
+        int advantages = spread + spreadCount;
+        int offsets = advantages + ADVANTAGE_INTS * advantageCount;
+
+        // Every distinct string is decoded once, out of one copy of the string bytes. Strings of a
+        // snapshot the writer marked as all ASCII are copied without checking each byte for UTF-8
+        byte[] utf8 = new byte[stringBytes];
+        in.get(HEADER_BYTES + 4 * (int) tableInts, utf8);
+        String[] text = new String[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            int start = table[offsets + i];
+            int end = table[offsets + i + 1];
+            if (start < 0 || start > end || end > stringBytes) {
+                throw new IOException("Rulebook snapshot string table is damaged");
+            }
+            text[i] = new String(utf8, start, end - start,
+                    ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+        }
+
+        List<Stat> statList = new ArrayList<>(statCount);
+        for (int i = 0, at = stats; i < statCount; i++, at += STAT_INTS) {
+            statList.add(Catalog.stat(table[at], string(table, at + 1, text), string(table, at + 2, text),
+                    table[at + 3], table[at + 4], table[at + 5]));
+        }
+        Requirement[] requirementTable = new Requirement[requirementCount];
+        for (int i = 0, at = requirements; i < requirementCount; i++, at += REQUIREMENT_INTS) {
+            requirementTable[i] = new Requirement(string(table, at, text), string(table, at + 1, text), table[at + 2]);
+        }
+        Adjustment[] adjustmentTable = new Adjustment[adjustmentCount];
+        for (int i = 0, at = adjustments; i < adjustmentCount; i++, at += ADJUSTMENT_INTS) {
+            adjustmentTable[i] = Catalog.adjustment(table[at], table[at + 1] < 0 ? null : string(table, at + 1, text),
+                    table[at + 2]);
+        }
+
+        Feature[] featureTable = new Feature[featureCount];
+        int adjustmentAt = featureAdjustments;
+        int requirementAt = featureRequirements;
+        for (int i = 0, at = features; i < featureCount; i++, at += ENTRY_INTS) {
+            Feature feature = new Feature(string(table, at, text), string(table, at + 1, text));
+            int adjustmentEnd = featureAdjustments + end(table[at + 2], adjustmentAt - featureAdjustments,
+                    featureAdjustmentCount);
+            int requirementEnd = featureRequirements + end(table[at + 3], requirementAt - featureRequirements,
+                    featureRequirementCount);
+            for (; adjustmentAt < adjustmentEnd; adjustmentAt++) {
+                feature.addAdjustment(adjustmentTable[id(table[adjustmentAt], adjustmentCount)]);
+            }
+            for (; requirementAt < requirementEnd; requirementAt++) {
+                feature.addRequirement(requirementTable[id(table[requirementAt], requirementCount)]);
+            }
+            featureTable[i] = feature;
+        }
+
+        Specialty[] specialtyTable = new Specialty[specialtyCount];
+        int featureAt = specialtyFeatures;
+        requirementAt = specialtyRequirements;
+        for (int i = 0, at = specialties; i < specialtyCount; i++, at += ENTRY_INTS) {
+            Specialty specialty = new Specialty(string(table, at, text), string(table, at + 1, text));
+            int featureEnd = specialtyFeatures + end(table[at + 2], featureAt - specialtyFeatures,
+                    specialtyFeatureCount);
+            int requirementEnd = specialtyRequirements + end(table[at + 3], requirementAt - specialtyRequirements,
+                    specialtyRequirementCount);
+            for (; featureAt < featureEnd; featureAt++) {
+                specialty.addFeature(featureTable[id(table[featureAt], featureCount)]);
+            }
+            for (; requirementAt < requirementEnd; requirementAt++) {
+                specialty.addRequirement(requirementTable[id(table[requirementAt], requirementCount)]);
+            }
+            specialtyTable[i] = specialty;
+        }
+
+        List<Integer> spreadList = new ArrayList<>(spreadCount);
+        for (int i = 0; i < spreadCount; i++) {
+            spreadList.add(table[spread + i]);
+        }
+        Map<String, List<Feature>> advantageMap = new LinkedHashMap<>();
+        for (int i = 0, at = advantages; i < advantageCount; i++, at += ADVANTAGE_INTS) {
+            advantageMap.computeIfAbsent(string(table, at, text), check -> new ArrayList<>())
+                    .add(featureTable[id(table[at + 1], featureCount)]);
+        }
+
+        return new DataRuleBook(text[id(in.getInt(12), stringCount)], in.getDouble(16),
+                new Experience(in.getInt(24), in.getInt(28)), in.getInt(32), spreadList, statList,
+                Arrays.asList(requirementTable), Arrays.asList(featureTable), Arrays.asList(specialtyTable),
+                advantageMap);
+    }
+
+    private static int count(ByteBuffer in, int at)
+            throws IOException {
+        int count = in.getInt(at);
+        if (count < 0) {
+            throw new IOException("Rulebook snapshot header is damaged");
+        }
+        return count;
+    }
+
+    private static int id(int id, int count)
+            throws IOException {
+        if (id < 0 || id >= count) {
+            throw new IOException("Rulebook snapshot holds id " + id + " past the end of its table");
+        }
+        return id;
+    }
+
+    private static int end(int end, int start, int count)
+            throws IOException {
+        if (end < start || end > count) {
+            throw new IOException("Rulebook snapshot table is damaged");
+        }
+        return end;
+    }
+
+    private static String string(int[] table, int at, String[] text)
+            throws IOException {
+        return text[id(table[at], text.length)];
+    }
+
+    /**
+     * Compiles a rulebook into a snapshot file. The file is written next to the target and moved over it once
+     * complete, so a reader never maps half a snapshot
+     * @param rulebook the rulebook to compile
+     * @param path the snapshot file, replaced if it exists
+     * @throws IOException if the file can not be written
+     * @throws IllegalArgumentException if the rulebook uses stats or adjustments other than the ones a snapshot holds,
+     *                                  or a specialty or advantage uses a feature that is not in the rulebook
+     */
+    public static void write(RuleBook rulebook, Path path)
+            throws IOException {
+        Catalog catalog = new Catalog(rulebook);
+        Map<String, Integer> stringIds = new HashMap<>();
+        List<String> stringList = new ArrayList<>();
+        ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+        DataOutputStream body = new DataOutputStream(bodyBytes);
+
+        for (Stat stat : catalog.stats) {
+            body.writeInt(Catalog.kindOf(stat));
+            body.writeInt(stringId(stat.name(), stringIds, stringList));
+            body.writeInt(stringId(stat.description(), stringIds, stringList));
+            body.writeInt(stat.getBase().min());
+            body.writeInt(stat.getBase().max());
+            body.writeInt(stat.getBase().current());
+        }
+        for (Requirement requirement : catalog.requirements) {
+            body.writeInt(stringId(requirement.getName(), stringIds, stringList));
+            body.writeInt(stringId(requirement.getStatKey(), stringIds, stringList));
+            body.writeInt(requirement.getThreshold());
+        }
+
+        // Adjustments hold no state, so features with equal adjustments share one
+        Map<List<Integer>, Integer> adjustmentIds = new HashMap<>();
+        List<Integer> featureAdjustments = new ArrayList<>();
+        for (Feature feature : catalog.features) {
+            for (Adjustment adjustment : feature.getAdjustmentsView()) {
+                int kind = Catalog.kindOf(adjustment);
+                int statKey = kind == Catalog.STAT_ADJUSTMENT
+                        ? stringId(((StatAdjustment) adjustment).getStatKey(), stringIds, stringList) : -1;
+                List<Integer> key = List.of(kind, statKey, Catalog.valueOf(adjustment));
+                Integer id = adjustmentIds.get(key);
+                if (id == null) {
+                    id = adjustmentIds.size();
+                    adjustmentIds.put(key, id);
+                    for (int value : key) {
+                        body.writeInt(value);
+                    }
+                }
+                featureAdjustments.add(id);
+            }
+        }
+
+        int adjustmentEnd = 0;
+        int requirementEnd = 0;
+        List<Integer> featureRequirements = new ArrayList<>();
+        for (Feature feature : catalog.features) {
+            adjustmentEnd += feature.getAdjustmentsView().size();
+            for (Requirement requirement : feature.getRequirementsView()) {
+                featureRequirements.add(catalog.requirementId(requirement));
+            }
+            body.writeInt(stringId(feature.getName(), stringIds, stringList));
+            body.writeInt(stringId(feature.getDescription(), stringIds, stringList));
+            body.writeInt(adjustmentEnd);
+            body.writeInt(featureRequirements.size());
+        }
+        writeInts(body, featureAdjustments);
+        writeInts(body, featureRequirements);
+
+        List<Integer> specialtyFeatures = new ArrayList<>();
+        List<Integer> specialtyRequirements = new ArrayList<>();
+        for (Specialty specialty : catalog.specialties) {
+            for (Feature feature : specialty.getFeaturesView()) {
+                specialtyFeatures.add(catalog.featureId(feature, "Specialty " + specialty.getName()));
+            }
+            for (Requirement requirement : specialty.getRequirementsView()) {
+                specialtyRequirements.add(catalog.requirementId(requirement));
+            }
+            body.writeInt(stringId(specialty.getName(), stringIds, stringList));
+            body.writeInt(stringId(specialty.getDescription(), stringIds, stringList));
+            body.writeInt(specialtyFeatures.size());
+            body.writeInt(specialtyRequirements.size());
+        }
+        writeInts(body, specialtyFeatures);
+        writeInts(body, specialtyRequirements);
+
+        List<Integer> spread = rulebook.getStatSpreadReference();
+        writeInts(body, spread);
+        int advantageCount = 0;
+        for (String check : rulebook.getAdvantageChecks()) {
+            for (Feature feature : rulebook.getAdvantageFeatures(check)) {
+                body.writeInt(stringId(check, stringIds, stringList));
+                body.writeInt(catalog.featureId(feature, "Advantage " + check));
+                advantageCount++;
+            }
+        }
+
+        int nameId = stringId(rulebook.getName(), stringIds, stringList);
+        ByteArrayOutputStream utf8 = new ByteArrayOutputStream();
+        boolean ascii = true;
+        for (String string : stringList) {
+            body.writeInt(utf8.size());
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            ascii &= bytes.length == string.length();
+            utf8.write(bytes);
+        }
+        body.writeInt(utf8.size());
+        utf8.writeTo(body);
+        body.flush();
+        byte[] tables = bodyBytes.toByteArray();
+
+        CRC32 crc = new CRC32();
+        crc.update(tables);
+        Experience xp = rulebook.getExperienceReference();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putInt((int) crc.getValue()).putInt(nameId)
+                .putDouble(rulebook.getEdition()).putInt(xp.max()).putInt(xp.current())
+                .putInt(rulebook.getFeaturePickCount())
+                .putInt(catalog.stats.size()).putInt(catalog.requirements.size()).putInt(adjustmentIds.size())
+                .putInt(catalog.features.size()).putInt(featureAdjustments.size()).putInt(featureRequirements.size())
+                .putInt(catalog.specialties.size()).putInt(specialtyFeatures.size())
+                .putInt(specialtyRequirements.size()).putInt(spread.size()).putInt(advantageCount)
+                .putInt(stringList.size()).putInt(utf8.size()).putInt(ascii ? 1 : 0);
+        header.clear();
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer[] parts = {header, ByteBuffer.wrap(tables)};
+            while (parts[1].hasRemaining()) {
+                channel.write(parts);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static int stringId(String string, Map<String, Integer> ids, List<String> strings){
+        Integer id = ids.get(string);
+        if (id == null) {
+            id = strings.size();
+            ids.put(string, id);
+            strings.add(string);
+        }
+        return id;
+    }
+
+    private static void writeInts(DataOutputStream out, List<Integer> values)
+            throws IOException {
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+}
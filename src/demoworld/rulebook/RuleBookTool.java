@@ -0,0 +1,71 @@
+package demoworld.rulebook;
+
+import demoworld.model.DemoWorld;
+import demoworld.model.RuleBook;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Moves rulebooks between rules files and compiled snapshots.
+ * <pre>
+ * export  &lt;rules file&gt;              writes the DemoWorld rulebook as a rules file
+ * compile &lt;rules file&gt; &lt;snapshot&gt;   reads a rules file and compiles it into a snapshot
+ * info    &lt;rules file or snapshot&gt;  loads a rulebook and prints its size and how long loading took
+ * </pre>
+ */
+public class RuleBookTool {
+
+    /**
+     * Runs the tool
+     * @param args the command and its arguments
+     */
+    public static void main(String[] args) {
+        if (args.length < 2 || (args[0].equals("compile") && args.length < 3)) {
+            System.err.println("usage: export <rules file>, compile <rules file> <snapshot>, info <rules file or snapshot>");
+            return;
+        }
+        Path path = Paths.get(args[1]);
+        try {
+            switch (args[0]) {
+                case "export":
+                    RulesFile.write(new DemoWorld(), path);
+                    System.out.println("Wrote the DemoWorld rules to " + path);
+                    break;
+                case "compile":
+                    RuleBook rules = RulesFile.read(path);
+                    RuleBookSnapshot.write(rules, Paths.get(args[2]));
+                    System.out.println("Compiled " + rules.getFeaturesReference().size() + " features into " + args[2]);
+                    break;
+                case "info":
+                    long start = System.nanoTime();
+                    RuleBook rulebook = load(path);
+                    double millis = (System.nanoTime() - start) / 1e6;
+                    System.out.printf("%s %s: %d features, %d specialties, loaded in %.1fms%n", rulebook.getName(),
+                            rulebook.getEdition(), rulebook.getFeaturesReference().size(),
+                            rulebook.getSpecialtiesReference().size(), millis);
+                    break;
+                default:
+                    System.err.println("Unknown command " + args[0]);
+            }
+        } catch (IOException | IllegalArgumentException | IllegalStateException e) {
+            System.err.println("An error occurred while using the rulebook: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Loads a rulebook from a compiled snapshot or a rules file, whichever the file is
+     * @param path the snapshot or rules file
+     * @return the rulebook
+     * @throws IOException if the file can not be read or is a damaged snapshot
+     * @throws IllegalArgumentException if the file is a rules file with a line that is not valid
+     */
+    public static DataRuleBook load(Path path)
+            throws IOException {
+        if (RuleBookSnapshot.isSnapshot(path)) {
+            return RuleBookSnapshot.load(path);
+        }
+        return RulesFile.read(path);
+    }
+}
@@ -0,0 +1,364 @@
+package demoworld.rulebook;
+
+import demoworld.model.Experience;
+import demoworld.model.Feature;
+import demoworld.model.Requirement;
+import demoworld.model.RuleBook;
+import demoworld.model.Specialty;
+import demoworld.model.Stat;
+import demoworld.model.adjustments.Adjustment;
+import demoworld.model.adjustments.StatAdjustment;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads and writes rulebook content as a text file, so a catalog can be edited without changing code.
+ * <p>
+ * Every line is a keyword then its fields, separated by {@code |}, with the spaces around each field dropped.
+ * Blank lines and lines starting with {@code #} are skipped.
+ * <pre>
+ * rulebook    | name | edition
+ * experience  | max | current
+ * picks       | number of features a starting character picks
+ * spread      | value | value | ...
+ * primary     | name | min | max | current | description        a PrimaryStat
+ * stat        | name | min | max | current | description        a plain Stat
+ * hitpoints   | max | current
+ * requirement | name | stat | threshold
+ * feature     | name | description
+ *   requires  | requirement name
+ *   adjust    | stat | value                                      a StatAdjustment
+ *   maxhp     | value
+ *   maxxp     | value
+ * specialty   | name | description
+ *   grants    | feature name
+ *   requires  | requirement name
+ * advantage   | check | feature name
+ * </pre>
+ * The lines under a feature or specialty belong to the last one above them, the indent is only for reading.
+ * Stats are in slot order. Requirements and features are named before they are used, and names are looked up
+ * in hash indexes, so reading is linear in the size of the file. Descriptions are the last field and may hold
+ * {@code |}. Reading a large catalog every start is still slower than mapping a compiled
+ * {@link RuleBookSnapshot} of it
+ */
+public class RulesFile {
+
+    /**
+     * Reads a rules file
+     * @param path the file
+     * @return the rulebook it describes
+     * @throws IOException if the file can not be read
+     * @throws IllegalArgumentException if a line is not valid, the message gives the line number
+     */
+    public static DataRuleBook read(Path path)
+            throws IOException {
+        try (Reader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Reads rules from text
+     * @param in the text of a rules file
+     * @return the rulebook it describes
+     * @throws IOException if in can not be read
+     * @throws IllegalArgumentException if a line is not valid, the message gives the line number
+     */
+    public static DataRuleBook read(Reader in)
+            throws IOException {
+        BufferedReader lines = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+        String name = null;
+        double edition = 0;
+        Experience xp = null;
+        int picks = -1;
+        List<Integer> spread = new ArrayList<>();
+        List<Stat> stats = new ArrayList<>();
+        List<Requirement> requirements = new ArrayList<>();
+        Map<String, Requirement> requirementsByName = new HashMap<>();
+        List<Feature> features = new ArrayList<>();
+        Map<String, Feature> featuresByName = new HashMap<>();
+        List<Specialty> specialties = new ArrayList<>();
+        Map<String, List<Feature>> advantages = new LinkedHashMap<>();
+        Feature feature = null;
+        Specialty specialty = null;
+
+        int number = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            number++;
+            String text = line.strip();
+            if (text.isEmpty() || text.startsWith("#")) {
+                continue;
+            }
+            int bar = text.indexOf('|');
+            String keyword = (bar < 0 ? text : text.substring(0, bar)).strip();
+            String rest = bar < 0 ? "" : text.substring(bar + 1);
+            try {
+                String[] fields;
+                switch (keyword) {
+                    case "rulebook":
+                        fields = fields(rest, 2);
+                        name = fields[0];
+                        edition = Double.parseDouble(fields[1]);
+                        break;
+                    case "experience":
+                        fields = fields(rest, 2);
+                        xp = new Experience(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]));
+                        break;
+                    case "picks":
+                        picks = Integer.parseInt(fields(rest, 1)[0]);
+                        break;
+                    case "spread":
+                        for (String value : rest.split("\\|")) {
+                            spread.add(Integer.parseInt(value.strip()));
+                        }
+                        break;
+                    case "primary":
+                    case "stat":
+                        fields = fields(rest, 5);
+                        stats.add(Catalog.stat(keyword.equals("primary") ? Catalog.PRIMARY : Catalog.STAT, fields[0],
+                                fields[4], Integer.parseInt(fields[1]), Integer.parseInt(fields[2]),
+                                Integer.parseInt(fields[3])));
+                        break;
+                    case "hitpoints":
+                        fields = fields(rest, 2);
+                        stats.add(Catalog.stat(Catalog.HITPOINTS, null, null, 0, Integer.parseInt(fields[0]),
+                                Integer.parseInt(fields[1])));
+                        break;
+                    case "requirement":
+                        fields = fields(rest, 3);
+                        Requirement requirement = new Requirement(fields[0], fields[1], Integer.parseInt(fields[2]));
+                        requirements.add(requirement);
+                        requirementsByName.putIfAbsent(requirement.getName(), requirement);
+                        break;
+                    case "feature":
+                        fields = fields(rest, 2);
+                        feature = new Feature(fields[0], fields[1]);
+                        specialty = null;
+                        features.add(feature);
+                        featuresByName.putIfAbsent(feature.getName(), feature);
+                        break;
+                    case "specialty":
+                        fields = fields(rest, 2);
+                        specialty = new Specialty(fields[0], fields[1]);
+                        feature = null;
+                        specialties.add(specialty);
+                        break;
+                    case "requires":
+                        Requirement required = find(requirementsByName, fields(rest, 1)[0], "requirement");
+                        if (feature != null) {
+                            feature.addRequirement(required);
+                        } else if (specialty != null) {
+                            specialty.addRequirement(required);
+                        } else {
+                            throw new IllegalArgumentException("requires is not under a feature or specialty");
+                        }
+                        break;
+                    case "adjust":
+                        fields = fields(rest, 2);
+                        current(feature, keyword).addAdjustment(
+                                Catalog.adjustment(Catalog.STAT_ADJUSTMENT, fields[0], Integer.parseInt(fields[1])));
+                        break;
+                    case "maxhp":
+                        current(feature, keyword).addAdjustment(
+                                Catalog.adjustment(Catalog.MAX_HP, null, Integer.parseInt(fields(rest, 1)[0])));
+                        break;
+                    case "maxxp":
+                        current(feature, keyword).addAdjustment(
+                                Catalog.adjustment(Catalog.MAX_XP, null, Integer.parseInt(fields(rest, 1)[0])));
+                        break;
+                    case "grants":
+                        if (specialty == null) {
+                            throw new IllegalArgumentException("grants is not under a specialty");
+                        }
+                        specialty.addFeature(find(featuresByName, fields(rest, 1)[0], "feature"));
+                        break;
+                    case "advantage":
+                        fields = fields(rest, 2);
+                        advantages.computeIfAbsent(fields[0], check -> new ArrayList<>())
+                                .add(find(featuresByName, fields[1], "feature"));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown keyword " + keyword);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Line " + number + ": expected a number, " + e.getMessage(), e);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Line " + number + ": " + e.getMessage(), e);
+            }
+        }
+        if (name == null || xp == null || picks < 0) {
+            throw new IllegalArgumentException("Rules file needs a rulebook, experience and picks line");
+        }
+        return new DataRuleBook(name, edition, xp, picks, spread, stats, requirements, features, specialties,
+                advantages);
+    }
+
+    private static String[] fields(String rest, int count)
+            throws IllegalArgumentException {
+        String[] fields = rest.split("\\|", count);
+        if (fields.length != count || rest.isEmpty()) {
+            throw new IllegalArgumentException("expected " + count + " fields");
+        }
+        for (int i = 0; i < count; i++) {
+            fields[i] = fields[i].strip();
+        }
+        return fields;
+    }
+
+    private static <T> T find(Map<String, T> byName, String name, String kind)
+            throws IllegalArgumentException {
+        T found = byName.get(name);
+        if (found == null) {
+            throw new IllegalArgumentException("no " + kind + " named " + name + " above this line");
+        }
+        return found;
+    }
+
+    private static Feature current(Feature feature, String keyword)
+            throws IllegalArgumentException {
+        if (feature == null) {
+            throw new IllegalArgumentException(keyword + " is not under a feature");
+        }
+        return feature;
+    }
+
+    /**
+     * Writes a rulebook as a rules file
+     * @param rulebook the rulebook to write
+     * @param path the file to write, replaced if it exists
+     * @throws IOException if the file can not be written
+     * @throws IllegalArgumentException if the rulebook can not be written as a rules file, see {@link #write(RuleBook, Writer)}
+     */
+    public static void write(RuleBook rulebook, Path path)
+            throws IOException {
+        try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            write(rulebook, out);
+        }
+    }
+
+    /**
+     * Writes a rulebook as a rules file. Reading it back gives a rulebook with the same catalog
+     * @param rulebook the rulebook to write
+     * @param out where to write the text
+     * @throws IOException if out fails to accept the text
+     * @throws IllegalArgumentException if the rulebook uses stats or adjustments other than the ones a rules file
+     *                                  holds, two of its requirements or features share a name, or a name or
+     *                                  description would not read back the same
+     */
+    public static void write(RuleBook rulebook, Writer out)
+            throws IOException {
+        Catalog catalog = new Catalog(rulebook);
+        unique(catalog.requirements.stream().map(Requirement::getName).toList(), "requirements");
+        unique(catalog.features.stream().map(Feature::getName).toList(), "features");
+
+        out.write("# " + checked(rulebook.getName(), true) + " rules\n");
+        out.write("rulebook | " + rulebook.getName() + " | " + rulebook.getEdition() + "\n");
+        Experience xp = rulebook.getExperienceReference();
+        out.write("experience | " + xp.max() + " | " + xp.current() + "\n");
+        out.write("picks | " + rulebook.getFeaturePickCount() + "\n");
+        StringBuilder spread = new StringBuilder("spread");
+        for (Integer value : rulebook.getStatSpreadReference()) {
+            spread.append(" | ").append(value);
+        }
+        out.write(spread.append('\n').toString());
+
+        out.write("\n");
+        for (Stat stat : catalog.stats) {
+            int kind = Catalog.kindOf(stat);
+            if (kind == Catalog.HITPOINTS) {
+                out.write("hitpoints | " + stat.getBase().max() + " | " + stat.getBase().current() + "\n");
+            } else {
+                out.write((kind == Catalog.PRIMARY ? "primary | " : "stat | ") + checked(stat.name(), true)
+                        + " | " + stat.getBase().min() + " | " + stat.getBase().max() + " | "
+                        + stat.getBase().current() + " | " + checked(stat.description(), false) + "\n");
+            }
+        }
+
+        out.write("\n");
+        for (Requirement requirement : catalog.requirements) {
+            out.write("requirement | " + checked(requirement.getName(), true) + " | "
+                    + checked(requirement.getStatKey(), true) + " | " + requirement.getThreshold() + "\n");
+        }
+
+        for (Feature feature : catalog.features) {
+            out.write("\nfeature | " + checked(feature.getName(), true) + " | "
+                    + checked(feature.getDescription(), false) + "\n");
+            for (Requirement requirement : feature.getRequirementsView()) {
+                out.write("    requires | " + requirement.getName() + "\n");
+            }
+            for (Adjustment adjustment : feature.getAdjustmentsView()) {
+                switch (Catalog.kindOf(adjustment)) {
+                    case Catalog.STAT_ADJUSTMENT:
+                        out.write("    adjust | " + checked(((StatAdjustment) adjustment).getStatKey(), true)
+                                + " | " + Catalog.valueOf(adjustment) + "\n");
+                        break;
+                    case Catalog.MAX_HP:
+                        out.write("    maxhp | " + Catalog.valueOf(adjustment) + "\n");
+                        break;
+                    default:
+                        out.write("    maxxp | " + Catalog.valueOf(adjustment) + "\n");
+                        break;
+                }
+            }
+        }
+
+        for (Specialty specialty : catalog.specialties) {
+            out.write("\nspecialty | " + checked(specialty.getName(), true) + " | "
+                    + checked(specialty.getDescription(), false) + "\n");
+            for (Feature feature : specialty.getFeaturesView()) {
+                out.write("    grants | " + feature.getName() + "\n");
+            }
+            for (Requirement requirement : specialty.getRequirementsView()) {
+                out.write("    requires | " + requirement.getName() + "\n");
+            }
+        }
+
+        List<String> checks = rulebook.getAdvantageChecks();
+        if (!checks.isEmpty()) {
+            out.write("\n");
+        }
+        for (String check : checks) {
+            for (Feature feature : rulebook.getAdvantageFeatures(check)) {
+                out.write("advantage | " + checked(check, true) + " | " + feature.getName() + "\n");
+            }
+        }
+    }
+
+    private static void unique(List<String> names, String kind)
+            throws IllegalArgumentException {
+        Set<String> seen = new HashSet<>();
+        for (String name : names) {
+            if (!seen.add(name)) {
+                throw new IllegalArgumentException("Two " + kind + " are named " + name
+                        + ", a rules file can not tell them apart");
+            }
+        }
+    }
+
+    /**
+     * Makes sure a name or description reads back the same, a name may not hold a bar and neither may hold a
+     * line break or start or end with spaces
+     */
+    private static String checked(String text, boolean name)
+            throws IllegalArgumentException {
+        if (text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0 || !text.equals(text.strip())
+                || (name && (text.indexOf('|') >= 0 || text.isEmpty()))) {
+            throw new IllegalArgumentException("\"" + text + "\" can not be written to a rules file");
+        }
+        return text;
+    }
+}
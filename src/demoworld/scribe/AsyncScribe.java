@@ -0,0 +1,268 @@
+package demoworld.scribe;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Writes sheet files the same way as Scribe.writeToFile, but on a pool of writer threads so the caller
+ * can carry on building characters. Writes wait in a bounded queue, when the disk falls behind and the
+ * queue is full write blocks the caller until there is room again. Each write returns a future that
+ * completes with the path written or with the IOException that stopped it.
+ * With force turned on, every batch of files a writer takes from the queue is forced to disk together
+ * before any of their futures complete, so a completed future means the sheet is durable
+ */
+public class AsyncScribe implements AutoCloseable {
+
+    /** the most writes one writer takes from the queue at once */
+    private static final int MAX_BATCH = 64;
+
+    /** placed in the queue once per writer to tell it to stop */
+    private static final Job STOP = new Job(null, null, null);
+
+    private final BlockingQueue<Job> queue;
+    private final Thread[] writers;
+    private final boolean force;
+    private final Charset charset;
+    /** guards closed and inFlight */
+    private final Object lock = new Object();
+    private boolean closed;
+    /** the number of write calls between passing the closed check and their job being in the queue */
+    private int inFlight;
+
+    /**
+     * A write waiting in the queue
+     */
+    private static final class Job {
+        final Path path;
+        final String header;
+        final String contents;
+        final CompletableFuture<Path> result = new CompletableFuture<>();
+
+        Job(Path path, String header, String contents){
+            this.path = path;
+            this.header = header;
+            this.contents = contents;
+        }
+    }
+
+    /**
+     * Constructs an AsyncScribe and starts its writer threads
+     * @param writerCount the number of writer threads
+     * @param queueCapacity the most writes that can wait in the queue before write blocks
+     * @param force true to force every file to disk before its future completes
+     */
+    public AsyncScribe(int writerCount,
+                       int queueCapacity,
+                       boolean force){
+        if (writerCount < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("An AsyncScribe needs at least one writer and room for one write");
+        }
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.force = force;
+        // FileWriter, which Scribe uses, writes in the default charset
+        this.charset = Charset.defaultCharset();
+        this.writers = new Thread[writerCount];
+        for (int i = 0; i < writerCount; i++) {
+            writers[i] = new Thread(this::drain, "scribe-writer-" + i);
+            writers[i].start();
+        }
+    }
+
+    /**
+     * Queues the specified contents to be written to a file with the given filename, with the student ID
+     * at the top, the same file Scribe.writeToFile would write. Blocks while the queue is full
+     * @param filename the name of the file (without extension) to write the contents to
+     * @param contents the content to be written to the file
+     * @param studentId the student ID to be written at the top of the file
+     * @return a future completing with the path of the written file, or exceptionally with the IOException
+     *         that stopped the write
+     * @throws InterruptedException if interrupted while waiting for room in the queue
+     * @throws IllegalStateException if the AsyncScribe is closed
+     */
+    public CompletableFuture<Path> write(String filename, String contents, int studentId)
+            throws InterruptedException {
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("AsyncScribe is closed");
+            }
+            inFlight++;
+        }
+        try {
+            Job job = new Job(Paths.get("./" + filename + ".sheet"), "Student ID: " + studentId + "\n", contents);
+            queue.put(job);
+            return job.result;
+        } finally {
+            synchronized (lock) {
+                inFlight--;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Stops taking new writes, waits for every queued write to finish and stops the writer threads.
+     * Writes already blocked waiting for room in the queue are let in first, so every future write
+     * returned completes. An interrupt does not cut the wait short, it is kept for the caller to see
+     */
+    @Override
+    public void close(){
+        boolean interrupted = false;
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            while (inFlight > 0) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        // every job is now in the queue ahead of the STOPs
+        for (int i = 0; i < writers.length; i++) {
+            putUninterruptibly(STOP);
+        }
+        for (Thread writer : writers) {
+            while (writer.isAlive()) {
+                try {
+                    writer.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The loop each writer thread runs, taking batches from the queue until told to stop
+     */
+    private void drain(){
+        List<Job> batch = new ArrayList<>(MAX_BATCH);
+        List<FileChannel> open = new ArrayList<>(MAX_BATCH);
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                // only close stops a writer, so it keeps going until it sees STOP
+                continue;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            int stops = 0;
+            for (Job job : batch) {
+                if (job == STOP) {
+                    stops++;
+                    continue;
+                }
+                FileChannel channel = writeJob(job);
+                if (channel != null) {
+                    open.add(channel);
+                }
+            }
+            finishBatch(batch, open);
+            // a writer keeps one STOP and hands any others it drained back to the other writers
+            for (int i = 1; i < stops; i++) {
+                putUninterruptibly(STOP);
+            }
+            running = stops == 0;
+            batch.clear();
+            open.clear();
+        }
+    }
+
+    /**
+     * Writes the header and contents of a job in one gathering write
+     * @param job the job to write
+     * @return the still open channel when force is on and the write worked, otherwise null
+     */
+    private FileChannel writeJob(Job job){
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(job.path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            ByteBuffer[] buffers = {
+                    ByteBuffer.wrap(job.header.getBytes(charset)),
+                    ByteBuffer.wrap(job.contents.getBytes(charset))
+            };
+            while (buffers[0].hasRemaining() || buffers[1].hasRemaining()) {
+                channel.write(buffers);
+            }
+            if (force) {
+                return channel;
+            }
+            channel.close();
+            job.result.complete(job.path);
+        } catch (IOException e) {
+            closeQuietly(channel);
+            job.result.completeExceptionally(e);
+        }
+        return null;
+    }
+
+    /**
+     * Forces and closes the channels left open by a batch, then completes the futures still waiting on them
+     * @param batch the jobs of the batch
+     * @param open the channels still open, in the same order as their jobs in the batch
+     */
+    private void finishBatch(List<Job> batch, List<FileChannel> open){
+        if (open.isEmpty()) {
+            return;
+        }
+        int next = 0;
+        for (Job job : batch) {
+            if (job == STOP || job.result.isDone()) {
+                continue;
+            }
+            FileChannel channel = open.get(next++);
+            try {
+                channel.force(false);
+                channel.close();
+                job.result.complete(job.path);
+            } catch (IOException e) {
+                closeQuietly(channel);
+                job.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void putUninterruptibly(Job job){
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(job);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel){
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // the write already failed, that is the error worth reporting
+        }
+    }
+}
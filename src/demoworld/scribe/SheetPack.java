@@ -0,0 +1,346 @@
+package demoworld.scribe;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads a pack file, one file holding many compressed sheets so an export does not need a file per character.
+ * The index at the end of the file is memory mapped, so opening a pack of a million sheets reads nothing
+ * but the trailer, and a sheet can be looked up by name or by its position in the pack.
+ * <p>
+ * The file starts with a {@value #HEADER_BYTES} byte header: the magic, the version, and the length of the
+ * pack as of the last time a writer was closed, 0 in a pack that has never been closed and in packs written
+ * before the length was kept, which are read as the whole file. Then comes one record per sheet in the order
+ * they were added. A record is the UTF-8 length of the name, the length of the sheet, the length of the
+ * compressed sheet, the name, then the sheet compressed with Deflater. The sheet is the exact bytes of
+ * its .sheet file, student ID line included.
+ * After the last record comes the index: the offset of every record in order, then one key per record
+ * sorted, each key being the hash of the name in the top half and the position of the record in the bottom
+ * half. The last {@value #TRAILER_BYTES} bytes before the length in the header hold where the index starts,
+ * the number of records and the magic.
+ * <p>
+ * Appending leaves the old index where it is as dead bytes and writes the new records after it, then a
+ * new index and trailer, and only then moves the length in the header. Until that last step the old
+ * index is the one that is read, so a pack whose append failed or was cut short opens as it was before
+ * the append. The records written by that append are lost, there is no scan to recover records that no
+ * index points to. Each append leaves the previous index behind, {@code SheetPackTool} unpacking and
+ * packing again drops them.
+ * All numbers are big endian. Reads can happen from different threads at the same time
+ */
+public class SheetPack implements Closeable {
+
+    static final int MAGIC = 0x44575350;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    /** where in the header the length of the pack as of the last close is */
+    static final int LENGTH_OFFSET = 8;
+    static final int TRAILER_BYTES = 16;
+    /** the length of the three numbers at the front of a record */
+    static final int RECORD_HEADER_BYTES = 12;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long end;
+    private final int count;
+    private final MappedByteBuffer index;
+
+    private SheetPack(Path path, FileChannel channel)
+            throws IOException {
+        this.path = path;
+        this.channel = channel;
+        long size = channel.size();
+        if (size < HEADER_BYTES + TRAILER_BYTES) {
+            throw new IOException("File is too short to be a sheet pack");
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(header, 0);
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException("File is not a version " + VERSION + " sheet pack");
+        }
+        long length = header.getLong(LENGTH_OFFSET);
+        this.end = length == 0 ? size : length;
+        if (end < HEADER_BYTES + TRAILER_BYTES || end > size) {
+            throw new IOException("Sheet pack header is damaged");
+        }
+        ByteBuffer trailer = ByteBuffer.allocate(TRAILER_BYTES);
+        readFully(trailer, end - TRAILER_BYTES);
+        if (trailer.getInt(12) != MAGIC) {
+            throw new IOException("Sheet pack has no index, it was not closed after writing");
+        }
+        long indexStart = trailer.getLong(0);
+        this.count = trailer.getInt(8);
+        if (count < 0 || 16L * count > Integer.MAX_VALUE) {
+            throw new IOException("Sheet pack index is damaged or too large to map");
+        }
+        if (indexStart < HEADER_BYTES || indexStart + 16L * count != end - TRAILER_BYTES) {
+            throw new IOException("Sheet pack index is damaged");
+        }
+        this.index = channel.map(FileChannel.MapMode.READ_ONLY, indexStart, 16L * count);
+    }
+
+    /**
+     * Opens a pack file for reading
+     * @param path the pack file
+     * @return the opened pack
+     * @throws IOException if the file can not be read or is not a complete sheet pack
+     */
+    public static SheetPack open(Path path)
+            throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new SheetPack(path, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the number of sheets in the pack
+     * @return the number of sheets in the pack
+     */
+    public int size(){
+        return count;
+    }
+
+    /**
+     * Gets the name of the sheet at the given position
+     * @param ordinal the position of the sheet, in the order it was added
+     * @return the name of the sheet
+     * @throws IOException if the record can not be read
+     */
+    public String name(int ordinal)
+            throws IOException {
+        long offset = offset(ordinal);
+        ByteBuffer head = readRecordHeader(offset);
+        ByteBuffer name = ByteBuffer.allocate(head.getInt(0));
+        readFully(name, offset + RECORD_HEADER_BYTES);
+        return new String(name.array(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets the sheet at the given position
+     * @param ordinal the position of the sheet, in the order it was added
+     * @return the bytes of the sheet file
+     * @throws IOException if the record can not be read
+     */
+    public byte[] get(int ordinal)
+            throws IOException {
+        long offset = offset(ordinal);
+        ByteBuffer head = readRecordHeader(offset);
+        int nameLength = head.getInt(0);
+        ByteBuffer stored = ByteBuffer.allocate(head.getInt(8));
+        readFully(stored, offset + RECORD_HEADER_BYTES + nameLength);
+        Inflater inflater = new Inflater();
+        try {
+            return inflate(inflater, stored.array(), head.getInt(4));
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Looks up the sheet with the given name, if a name was added more than once the last one added is found
+     * @param name the name of the sheet
+     * @return the bytes of the sheet file, or null if there is no sheet with that name
+     * @throws IOException if a record can not be read
+     */
+    public byte[] get(String name)
+            throws IOException {
+        int ordinal = find(name);
+        return ordinal < 0 ? null : get(ordinal);
+    }
+
+    /**
+     * Finds the position of the sheet with the given name, if a name was added more than once
+     * the position of the last one added is found
+     * @param name the name of the sheet
+     * @return the position of the sheet, or -1 if there is no sheet with that name
+     * @throws IOException if a record can not be read
+     */
+    public int find(String name)
+            throws IOException {
+        byte[] wanted = name.getBytes(StandardCharsets.UTF_8);
+        long hash = hash(wanted);
+        long keysStart = 8L * count;
+        // first key with this hash, keys are sorted so equal hashes sit together ordered by position
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (key(keysStart, middle) >>> 32 < hash) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        int found = -1;
+        for (int i = low; i < count && key(keysStart, i) >>> 32 == hash; i++) {
+            int ordinal = (int) key(keysStart, i);
+            if (nameEquals(ordinal, wanted)) {
+                found = ordinal;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Reads every sheet in the pack in the order they were added, streaming through the file once and
+     * skipping the indexes earlier appends left between the records
+     * @param action called with the name and the bytes of each sheet file
+     * @throws IOException if the file can not be read
+     */
+    public void forEach(BiConsumer<String, byte[]> action)
+            throws IOException {
+        // a channel of its own, so streaming does not move the position under anyone else
+        FileChannel own = FileChannel.open(path, StandardOpenOption.READ);
+        InputStream raw = Channels.newInputStream(own.position(HEADER_BYTES));
+        DataInputStream in = new DataInputStream(new BufferedInputStream(raw, 1 << 16));
+        Inflater inflater = new Inflater();
+        try {
+            long position = HEADER_BYTES;
+            for (int i = 0; i < count; i++) {
+                long offset = offset(i);
+                if (offset < position) {
+                    throw new IOException("Sheet pack index is damaged");
+                }
+                in.skipNBytes(offset - position);
+                byte[] name = new byte[in.readInt()];
+                int length = in.readInt();
+                byte[] stored = new byte[in.readInt()];
+                in.readFully(name);
+                in.readFully(stored);
+                position = offset + RECORD_HEADER_BYTES + name.length + stored.length;
+                action.accept(new String(name, StandardCharsets.UTF_8), inflate(inflater, stored, length));
+                inflater.reset();
+            }
+        } catch (EOFException e) {
+            throw new IOException("Sheet pack ends in the middle of a record", e);
+        } finally {
+            inflater.end();
+            in.close();
+        }
+    }
+
+    /**
+     * Closes the pack file
+     * @throws IOException if closing the file fails
+     */
+    @Override
+    public void close()
+            throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Gets the length of the pack as of the last close, which is where the next record goes.
+     * Anything after it was written by an append that never finished
+     * @return the end of the trailer
+     */
+    long end(){
+        return end;
+    }
+
+    /**
+     * Copies the record offsets and the keys, put back in record order, into the given arrays
+     * @param offsets receives the offset of each record
+     * @param keys receives the key of each record
+     */
+    void readIndex(long[] offsets, long[] keys){
+        for (int i = 0; i < count; i++) {
+            offsets[i] = index.getLong(8 * i);
+            long key = index.getLong(8 * (count + i));
+            keys[(int) key] = key;
+        }
+    }
+
+    /**
+     * Hashes a name for the index, the same way the writer does
+     * @param name the UTF-8 bytes of the name
+     * @return the hash of the name, 31 bits so keys sort the same way as longs and as hashes
+     */
+    static long hash(byte[] name){
+        int hash = 0x811c9dc5;
+        for (byte b : name) {
+            hash ^= b & 0xff;
+            hash *= 0x01000193;
+        }
+        return hash & 0x7fffffffL;
+    }
+
+    private long offset(int ordinal){
+        if (ordinal < 0 || ordinal >= count) {
+            throw new IndexOutOfBoundsException("No sheet at " + ordinal + " in a pack of " + count);
+        }
+        return index.getLong(8 * ordinal);
+    }
+
+    private long key(long keysStart, int i){
+        return index.getLong((int) (keysStart + 8L * i));
+    }
+
+    private boolean nameEquals(int ordinal, byte[] wanted)
+            throws IOException {
+        long offset = offset(ordinal);
+        if (readRecordHeader(offset).getInt(0) != wanted.length) {
+            return false;
+        }
+        ByteBuffer name = ByteBuffer.allocate(wanted.length);
+        readFully(name, offset + RECORD_HEADER_BYTES);
+        return Arrays.equals(name.array(), wanted);
+    }
+
+    private ByteBuffer readRecordHeader(long offset)
+            throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+        readFully(head, offset);
+        return head;
+    }
+
+    private void readFully(ByteBuffer buffer, long position)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Sheet pack ends in the middle of a record");
+            }
+        }
+    }
+
+    private static byte[] inflate(Inflater inflater, byte[] stored, int length)
+            throws IOException {
+        byte[] sheet = new byte[length];
+        inflater.setInput(stored);
+        try {
+            int done = 0;
+            while (done < length && !inflater.finished()) {
+                int now = inflater.inflate(sheet, done, length - done);
+                if (now == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                done += now;
+            }
+            if (done != length) {
+                throw new IOException("Sheet pack record is damaged");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Sheet pack record is damaged", e);
+        }
+        return sheet;
+    }
+}
@@ -0,0 +1,125 @@
+package demoworld.scribe;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Moves sheets between .sheet files and pack files.
+ * <pre>
+ * pack   &lt;pack file&gt; &lt;directory&gt;   adds every .sheet file under the directory to the pack
+ * unpack &lt;pack file&gt; &lt;directory&gt;   writes every sheet in the pack out as a .sheet file
+ * get    &lt;pack file&gt; &lt;name&gt;        prints one sheet
+ * list   &lt;pack file&gt;               prints the name of every sheet
+ * </pre>
+ * A sheet is named by its path under the directory without the .sheet extension, so unpacking a pack
+ * gives back the same files that were packed
+ */
+public class SheetPackTool {
+
+    private static final String EXTENSION = ".sheet";
+
+    /**
+     * Runs the tool
+     * @param args the command and its arguments
+     */
+    public static void main(String[] args) {
+        boolean needsThird = args.length > 0
+                && (args[0].equals("pack") || args[0].equals("unpack") || args[0].equals("get"));
+        if (args.length < 2 || (needsThird && args.length < 3)) {
+            System.err.println("usage: pack|unpack <pack file> <directory>, get <pack file> <name>, list <pack file>");
+            return;
+        }
+        Path packPath = Paths.get(args[1]);
+        try {
+            switch (args[0]) {
+                case "pack":
+                    System.out.println("Packed " + pack(packPath, Paths.get(args[2])) + " sheets into " + packPath);
+                    break;
+                case "unpack":
+                    System.out.println("Unpacked " + unpack(packPath, Paths.get(args[2])) + " sheets from " + packPath);
+                    break;
+                case "get":
+                    try (SheetPack pack = SheetPack.open(packPath)) {
+                        byte[] sheet = pack.get(args[2]);
+                        if (sheet == null) {
+                            System.err.println("No sheet named " + args[2] + " in " + packPath);
+                        } else {
+                            System.out.write(sheet);
+                            System.out.flush();
+                        }
+                    }
+                    break;
+                case "list":
+                    try (SheetPack pack = SheetPack.open(packPath)) {
+                        for (int i = 0; i < pack.size(); i++) {
+                            System.out.println(pack.name(i));
+                        }
+                    }
+                    break;
+                default:
+                    System.err.println("Unknown command " + args[0]);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("An error occurred while using the pack: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Adds every .sheet file under a directory to a pack, creating the pack if it does not exist
+     * @param packPath the pack file
+     * @param directory the directory to read the sheets from
+     * @return the number of sheets added
+     * @throws IOException if a sheet can not be read or the pack can not be written
+     */
+    public static int pack(Path packPath, Path directory)
+            throws IOException {
+        List<Path> sheets;
+        try (Stream<Path> files = Files.walk(directory)) {
+            sheets = files.filter(file -> file.getFileName().toString().endsWith(EXTENSION) && Files.isRegularFile(file))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        try (SheetPackWriter writer = SheetPackWriter.append(packPath)) {
+            for (Path sheet : sheets) {
+                String relative = directory.relativize(sheet).toString().replace('\\', '/');
+                writer.add(relative.substring(0, relative.length() - EXTENSION.length()), Files.readAllBytes(sheet));
+            }
+        }
+        return sheets.size();
+    }
+
+    /**
+     * Writes every sheet in a pack out as a .sheet file under a directory
+     * @param packPath the pack file
+     * @param directory the directory to write the sheets to
+     * @return the number of sheets written
+     * @throws IOException if the pack can not be read, a sheet can not be written or a sheet is named so it
+     *         would be written outside the directory
+     */
+    public static int unpack(Path packPath, Path directory)
+            throws IOException {
+        Path root = directory.toAbsolutePath().normalize();
+        try (SheetPack pack = SheetPack.open(packPath)) {
+            pack.forEach((name, sheet) -> {
+                // names come from the pack file, so one like ../x or /x must not escape the directory
+                Path file = root.resolve(name + EXTENSION).normalize();
+                try {
+                    if (!file.startsWith(root) || file.equals(root)) {
+                        throw new IOException("Sheet " + name + " would be written outside " + directory);
+                    }
+                    Files.createDirectories(file.getParent());
+                    Files.write(file, sheet);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return pack.size();
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package demoworld.scribe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Appends sheets to a pack file, see SheetPack for the layout. Records are written as they are added
+ * and the index is written when the writer is closed, a new pack that was not closed can not be opened.
+ * Opening an existing pack keeps its index and writes the new records after it, so if the append
+ * fails before close the pack still opens with the sheets it had before.
+ * A writer is meant to be used from one thread
+ */
+public class SheetPackWriter implements Closeable {
+
+    private final FileChannel channel;
+    private final Deflater deflater;
+    private final ByteBuffer out;
+    private byte[] compressed;
+    private long position;
+    private long[] offsets;
+    private long[] keys;
+    private int count;
+    private boolean closed;
+
+    private SheetPackWriter(FileChannel channel, long position, long[] offsets, long[] keys, int count){
+        this.channel = channel;
+        this.deflater = new Deflater();
+        this.out = ByteBuffer.allocate(1 << 16);
+        this.compressed = new byte[1 << 12];
+        this.position = position;
+        this.offsets = offsets;
+        this.keys = keys;
+        this.count = count;
+    }
+
+    /**
+     * Creates a new empty pack file, replacing any file already at the path
+     * @param path where to create the pack
+     * @return a writer for the new pack
+     * @throws IOException if the file can not be created
+     */
+    public static SheetPackWriter create(Path path)
+            throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.READ, StandardOpenOption.TRUNCATE_EXISTING);
+        SheetPackWriter writer = new SheetPackWriter(channel, 0, new long[64], new long[64], 0);
+        writer.out.putInt(SheetPack.MAGIC).putInt(SheetPack.VERSION).putLong(0);
+        writer.flush();
+        return writer;
+    }
+
+    /**
+     * Opens a pack file to add more sheets to it, creating it if there is no file at the path
+     * @param path the pack file
+     * @return a writer appending to the pack
+     * @throws IOException if the file can not be read or is not a complete sheet pack
+     */
+    public static SheetPackWriter append(Path path)
+            throws IOException {
+        if (!Files.exists(path)) {
+            return create(path);
+        }
+        long[] offsets;
+        long[] keys;
+        long end;
+        int count;
+        try (SheetPack pack = SheetPack.open(path)) {
+            count = pack.size();
+            end = pack.end();
+            offsets = new long[Math.max(64, count * 2)];
+            keys = new long[offsets.length];
+            pack.readIndex(offsets, keys);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.READ);
+        try {
+            // anything past the end is left over from an append that never closed, no index points to it
+            channel.truncate(end);
+            // a pack that kept no length is read to the end of the file, which is about to move
+            writeLength(channel, end);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new SheetPackWriter(channel, end, offsets, keys, count);
+    }
+
+    /**
+     * Adds a sheet with the same bytes Scribe.writeToFile would write to a file of the given name
+     * @param name the name of the sheet, the file name without extension
+     * @param contents the content of the sheet
+     * @param studentId the student ID at the top of the sheet
+     * @throws IOException if the record can not be written
+     */
+    public void add(String name, String contents, int studentId)
+            throws IOException {
+        // FileWriter, which Scribe uses, writes in the default charset
+        add(name, ("Student ID: " + studentId + "\n" + contents).getBytes(Charset.defaultCharset()));
+    }
+
+    /**
+     * Adds a sheet
+     * @param name the name of the sheet
+     * @param sheet the bytes of the sheet file
+     * @throws IOException if the record can not be written
+     */
+    public void add(String name, byte[] sheet)
+            throws IOException {
+        if (closed) {
+            throw new IllegalStateException("SheetPackWriter is closed");
+        }
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        int storedLength = deflate(sheet);
+
+        if (count == offsets.length) {
+            offsets = Arrays.copyOf(offsets, count * 2);
+            keys = Arrays.copyOf(keys, count * 2);
+        }
+        offsets[count] = position + out.position();
+        keys[count] = SheetPack.hash(nameBytes) << 32 | count;
+        count++;
+
+        ensureRoom(SheetPack.RECORD_HEADER_BYTES);
+        out.putInt(nameBytes.length).putInt(sheet.length).putInt(storedLength);
+        put(nameBytes, nameBytes.length);
+        put(compressed, storedLength);
+    }
+
+    /**
+     * Gets the number of sheets in the pack so far
+     * @return the number of sheets in the pack so far
+     */
+    public int size(){
+        return count;
+    }
+
+    /**
+     * Writes the index and closes the pack file. The length in the header is only moved once the index
+     * and trailer are on disk, so a failure here leaves the pack as it was when the writer was opened
+     * @throws IOException if the index can not be written
+     */
+    @Override
+    public void close()
+            throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            long indexStart = position + out.position();
+            long[] sorted = Arrays.copyOf(keys, count);
+            Arrays.sort(sorted);
+            for (int i = 0; i < count; i++) {
+                ensureRoom(8);
+                out.putLong(offsets[i]);
+            }
+            for (int i = 0; i < count; i++) {
+                ensureRoom(8);
+                out.putLong(sorted[i]);
+            }
+            ensureRoom(SheetPack.TRAILER_BYTES);
+            out.putLong(indexStart).putInt(count).putInt(SheetPack.MAGIC);
+            flush();
+            writeLength(channel, position);
+        } finally {
+            deflater.end();
+            channel.close();
+        }
+    }
+
+    // forces what was written to disk before setting the length, so the length never points at a trailer that is not there yet
+    private static void writeLength(FileChannel channel, long length)
+            throws IOException {
+        channel.force(false);
+        ByteBuffer buffer = ByteBuffer.allocate(8).putLong(0, length);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, SheetPack.LENGTH_OFFSET + buffer.position());
+        }
+        channel.force(false);
+    }
+
+    private int deflate(byte[] sheet){
+        deflater.reset();
+        deflater.setInput(sheet);
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+        return length;
+    }
+
+    private void put(byte[] bytes, int length)
+            throws IOException {
+        int done = 0;
+        while (done < length) {
+            if (!out.hasRemaining()) {
+                flush();
+            }
+            int now = Math.min(length - done, out.remaining());
+            out.put(bytes, done, now);
+            done += now;
+        }
+    }
+
+    private void ensureRoom(int bytes)
+            throws IOException {
+        if (out.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush()
+            throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            position += channel.write(out, position);
+        }
+        out.clear();
+    }
+}
@@ -0,0 +1,509 @@
+package demoworld.scribe;
+
+import demoworld.model.Character;
+import demoworld.model.Experience;
+import demoworld.model.Feature;
+import demoworld.model.Hitpoints;
+import demoworld.model.PrimaryStat;
+import demoworld.model.RuleBook;
+import demoworld.model.Specialty;
+import demoworld.model.Stat;
+import demoworld.model.StatManager;
+import demoworld.model.Value;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Reads character sheets written by Scribe back into characters for a given rulebook.
+ * A sheet is read in one pass through a reused line buffer, numbers are read straight out of the buffer
+ * and names are looked up in hash indexes built once from the rulebook, so the only Strings made per
+ * sheet are the characters name and the names of stats that are not in the rulebook.
+ * <p>
+ * The features and specialties listed are added to the character without adjusting it again, then the
+ * stats, hitpoints, temp hp and experience are set to what the sheet shows, so writing the parsed
+ * character again gives the same sheet. One parser can read sheets on many threads at once
+ */
+public class SheetParser {
+
+    private static final String STUDENT_ID = "Student ID: ";
+    private static final String NAME_START = "   |             * ";
+    private static final String NAME_END = " *                |";
+    private static final String BOX_LINE = "   |      ";
+    private static final String BOX_END = "   |  ___";
+    private static final String HITPOINTS = "HITPOINTS: ";
+    private static final String TEMP_HP = "TEMP HP: ";
+    private static final String XP = "XP: ";
+    private static final String SPECIALTIES = "[0]#####>-------- SPECIALTIES ---------->";
+    private static final String FEATURES = "[0]#####>-------- FEATURES ---------->";
+
+    private final RuleBook rulebook;
+    private final NameIndex<Feature> features;
+    private final NameIndex<Specialty> specialties;
+    private final NameIndex<Integer> primarySlots;
+    private final int statCount;
+
+    /**
+     * Constructs a parser for sheets of characters from the given rulebook
+     * @param rulebook the rulebook the characters on the sheets belong to
+     */
+    public SheetParser(RuleBook rulebook){
+        this.rulebook = rulebook;
+        List<Feature> featureList = rulebook.getFeaturesReference();
+        this.features = new NameIndex<>(featureList.size());
+        for (Feature feature : featureList) {
+            features.putIfAbsent(feature.getName().toUpperCase(), feature);
+        }
+        List<Specialty> specialtyList = rulebook.getSpecialtiesReference();
+        this.specialties = new NameIndex<>(specialtyList.size());
+        for (Specialty specialty : specialtyList) {
+            specialties.putIfAbsent(specialty.getName().toUpperCase(), specialty);
+        }
+        StatManager layout = rulebook.createCharacterStats();
+        this.statCount = layout.size();
+        this.primarySlots = new NameIndex<>(statCount);
+        for (int slot = 0; slot < statCount; slot++) {
+            if (layout.get(slot) instanceof PrimaryStat) {
+                primarySlots.putIfAbsent(layout.get(slot).name().toUpperCase(), slot);
+            }
+        }
+    }
+
+    /**
+     * Reads one sheet
+     * @param in the text of the sheet, with or without the student ID line at the top
+     * @return the character on the sheet
+     * @throws IOException if in can not be read
+     * @throws IllegalArgumentException if the text is not a sheet of a character from this parsers rulebook
+     */
+    public Character parse(Reader in)
+            throws IOException {
+        Lines lines = new Lines(in);
+
+        // Top of the box, then the name line
+        lines.require("the character name");
+        if (lines.startsWith(STUDENT_ID)) {
+            lines.require("the character name");
+        }
+        while (!(lines.startsWith(NAME_START) && lines.endsWith(NAME_END))) {
+            lines.require("the character name");
+        }
+        Character character = new Character(
+                new String(lines.line, NAME_START.length(), lines.length - NAME_START.length() - NAME_END.length()),
+                rulebook);
+
+        // Primary stats inside the box, as "NAME total: (base + modifier)"
+        int[] bases = new int[statCount];
+        int[] modifiers = new int[statCount];
+        boolean[] seen = new boolean[statCount];
+        lines.require("the end of the stat box");
+        while (!lines.startsWith(BOX_END)) {
+            if (lines.startsWith(BOX_LINE) && lines.length > BOX_LINE.length()
+                    && lines.line[BOX_LINE.length()] != ' ') {
+                readPrimary(lines, bases, modifiers, seen);
+            }
+            lines.require("the end of the stat box");
+        }
+        lines.require("the bottom of the stat box");
+
+        // Hitpoints, temp hp and experience
+        lines.require(HITPOINTS);
+        int slash = lines.expectPair(HITPOINTS);
+        int hitpoints = lines.parseInt(HITPOINTS.length(), slash);
+        int hitpointsMax = lines.parseInt(slash + 1, lines.length);
+        lines.skip();
+        lines.require(TEMP_HP);
+        lines.expect(TEMP_HP);
+        int tempHp = lines.parseInt(TEMP_HP.length(), lines.length);
+        lines.require(XP);
+        slash = lines.expectPair(XP);
+        int xp = lines.parseInt(XP.length(), slash);
+        int xpMax = lines.parseInt(slash + 1, lines.length);
+        lines.skip();
+
+        // Specialties, descriptions between the entries are skipped
+        do {
+            lines.require(SPECIALTIES);
+        } while (!lines.equalsLine(SPECIALTIES));
+        int next = 1;
+        lines.require(FEATURES);
+        while (!lines.equalsLine(FEATURES)) {
+            int nameStart = lines.entryStart(next);
+            if (nameStart > 0) {
+                Specialty specialty = specialties.get(lines.line, nameStart, lines.length);
+                if (specialty == null) {
+                    throw lines.error("unknown specialty");
+                }
+                character.getSpecialty().add(specialty);
+                next++;
+            }
+            lines.require(FEATURES);
+        }
+
+        // Features, as "n. NAME [**]" followed by requirements and a quoted description
+        next = 1;
+        while (lines.next()) {
+            int nameStart = lines.entryStart(next);
+            if (nameStart > 0 && lines.length > 0 && lines.line[lines.length - 1] == ']') {
+                int nameEnd = lines.lastIndexOf(" [", nameStart);
+                Feature feature = nameEnd < 0 ? null : features.get(lines.line, nameStart, nameEnd);
+                if (feature == null) {
+                    throw lines.error("unknown feature");
+                }
+                character.getFeature().add(feature);
+                next++;
+            }
+        }
+
+        StatManager stats = character.getStat();
+        for (int slot = 0; slot < statCount; slot++) {
+            if (seen[slot]) {
+                Stat stat = stats.get(slot);
+                stat.getBase().setCurrent(bases[slot]);
+                stat.getModifier().setCurrent(modifiers[slot]);
+            }
+        }
+        Stat hitpointsStat = character.getStatByName("hitpoints");
+        if (!(hitpointsStat instanceof Hitpoints)) {
+            throw new IllegalArgumentException("Rulebook " + rulebook.getName() + " has no Hitpoints stat");
+        }
+        // damage and healing only ever move the base, so the modifier is left as the rulebook set it
+        Value base = hitpointsStat.getBase();
+        Value modifier = hitpointsStat.getModifier();
+        base.set(base.min(), hitpointsMax - modifier.max(), hitpoints - modifier.current());
+        ((Hitpoints) hitpointsStat).setTempHp(tempHp);
+        Experience experience = character.getExperience();
+        experience.set(experience.min(), xpMax, xp);
+        return character;
+    }
+
+    /**
+     * Reads one sheet file
+     * @param file the sheet file
+     * @return the character on the sheet
+     * @throws IOException if the file can not be read
+     * @throws IllegalArgumentException if the file is not a sheet of a character from this parsers rulebook
+     */
+    public Character parse(Path file)
+            throws IOException {
+        // FileWriter, which Scribe uses, writes in the default charset
+        try (Reader in = new InputStreamReader(Files.newInputStream(file), Charset.defaultCharset())) {
+            return parse(in);
+        }
+    }
+
+    /**
+     * Reads every .sheet file in a directory, several at a time. Sheets that can not be read are
+     * reported on stderr and left out
+     * @param directory the directory holding the sheets
+     * @return the characters read, in the order of their file names
+     * @throws IOException if the directory can not be listed
+     */
+    public List<Character> parseDirectory(Path directory)
+            throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(file -> file.getFileName().toString().endsWith(".sheet"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        Character[] characters = new Character[files.size()];
+        IntStream.range(0, files.size()).parallel().forEach(i -> {
+            try {
+                characters[i] = parse(files.get(i));
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Could not read " + files.get(i) + ": " + e.getMessage());
+            }
+        });
+        List<Character> read = new ArrayList<>(characters.length);
+        for (Character character : characters) {
+            if (character != null) {
+                read.add(character);
+            }
+        }
+        return read;
+    }
+
+    private void readPrimary(Lines lines, int[] bases, int[] modifiers, boolean[] seen){
+        int from = BOX_LINE.length();
+        int to = lines.length;
+        // drop the padding and the right hand side of the box
+        if (to > from && lines.line[to - 1] == '|') {
+            to--;
+        }
+        while (to > from && lines.line[to - 1] == ' ') {
+            to--;
+        }
+        int open = lines.lastIndexOf(": (", from);
+        int plus = lines.lastIndexOf(" + ", from);
+        if (open < 0 || plus < open || lines.line[to - 1] != ')') {
+            throw lines.error("expected a stat as NAME total: (base + modifier)");
+        }
+        int nameEnd = lines.lastIndexOf(" ", from, open);
+        if (nameEnd < 0) {
+            throw lines.error("expected a stat as NAME total: (base + modifier)");
+        }
+        Integer slot = primarySlots.get(lines.line, from, nameEnd);
+        if (slot == null) {
+            throw lines.error("unknown stat " + new String(lines.line, from, nameEnd - from));
+        }
+        bases[slot] = lines.parseInt(open + 3, plus);
+        modifiers[slot] = lines.parseInt(plus + 3, to - 1);
+        seen[slot] = true;
+    }
+
+    /**
+     * Reads a sheet a line at a time into one reused buffer
+     */
+    private static final class Lines {
+
+        private final Reader in;
+        private final char[] buffer = new char[8192];
+        private int position;
+        private int limit;
+        private char[] line = new char[256];
+        private int length;
+        private int number;
+
+        Lines(Reader in){
+            this.in = in;
+        }
+
+        /**
+         * Reads the next line into the line buffer, without its line break
+         * @return false if there are no more lines
+         */
+        boolean next()
+                throws IOException {
+            length = 0;
+            boolean any = false;
+            while (true) {
+                if (position == limit && !fill()) {
+                    if (any) {
+                        number++;
+                    }
+                    return any;
+                }
+                any = true;
+                char c = buffer[position++];
+                if (c == '\n') {
+                    number++;
+                    return true;
+                }
+                if (length == line.length) {
+                    line = Arrays.copyOf(line, line.length * 2);
+                }
+                line[length++] = c;
+            }
+        }
+
+        /**
+         * Skips the next line without keeping it, used for the bars which can be very long
+         */
+        void skip()
+                throws IOException {
+            while (position < limit || fill()) {
+                if (buffer[position++] == '\n') {
+                    break;
+                }
+            }
+            number++;
+            length = 0;
+        }
+
+        void require(String what)
+                throws IOException {
+            if (!next()) {
+                throw new IllegalArgumentException("line " + (number + 1) + ": sheet ended before " + what.trim());
+            }
+        }
+
+        boolean startsWith(String prefix){
+            if (length < prefix.length()) {
+                return false;
+            }
+            for (int i = 0; i < prefix.length(); i++) {
+                if (line[i] != prefix.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean endsWith(String suffix){
+            if (length < suffix.length()) {
+                return false;
+            }
+            int start = length - suffix.length();
+            for (int i = 0; i < suffix.length(); i++) {
+                if (line[start + i] != suffix.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean equalsLine(String text){
+            return length == text.length() && startsWith(text);
+        }
+
+        void expect(String prefix){
+            if (!startsWith(prefix)) {
+                throw error("expected " + prefix.trim());
+            }
+        }
+
+        /**
+         * Checks the line is the prefix followed by "a/b"
+         * @return where the slash is
+         */
+        int expectPair(String prefix){
+            expect(prefix);
+            for (int i = prefix.length(); i < length; i++) {
+                if (line[i] == '/') {
+                    return i;
+                }
+            }
+            throw error("expected " + prefix.trim() + " current/max");
+        }
+
+        /**
+         * Checks if the line starts a numbered entry "n. " with the given number
+         * @return where the text after the number starts, or -1 if it is not that entry
+         */
+        int entryStart(int expected){
+            int at = 0;
+            int value = 0;
+            while (at < length && at < 10 && line[at] >= '0' && line[at] <= '9') {
+                value = value * 10 + (line[at] - '0');
+                at++;
+            }
+            if (at == 0 || value != expected || at + 1 >= length || line[at] != '.' || line[at + 1] != ' ') {
+                return -1;
+            }
+            return at + 2;
+        }
+
+        int lastIndexOf(String text, int from){
+            return lastIndexOf(text, from, length);
+        }
+
+        int lastIndexOf(String text, int from, int to){
+            for (int i = to - text.length(); i >= from; i--) {
+                boolean match = true;
+                for (int j = 0; j < text.length() && match; j++) {
+                    match = line[i + j] == text.charAt(j);
+                }
+                if (match) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        int parseInt(int from, int to){
+            boolean negative = from < to && line[from] == '-';
+            int at = negative ? from + 1 : from;
+            if (at == to) {
+                throw error("expected a number");
+            }
+            long value = 0;
+            for (; at < to; at++) {
+                char c = line[at];
+                if (c < '0' || c > '9' || value > Integer.MAX_VALUE + 1L) {
+                    throw error("expected a number");
+                }
+                value = value * 10 + (c - '0');
+            }
+            value = negative ? -value : value;
+            if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                throw error("number out of range");
+            }
+            return (int) value;
+        }
+
+        IllegalArgumentException error(String message){
+            return new IllegalArgumentException("line " + number + ": " + message);
+        }
+
+        private boolean fill()
+                throws IOException {
+            int read = in.read(buffer);
+            while (read == 0) {
+                read = in.read(buffer);
+            }
+            if (read < 0) {
+                return false;
+            }
+            position = 0;
+            limit = read;
+            return true;
+        }
+    }
+
+    /**
+     * A hash index from upper case names to values that is looked up with a range of a char array,
+     * so finding a name on a line does not need a String made for it
+     * @param <T> the type of the values
+     */
+    private static final class NameIndex<T> {
+
+        private final String[] keys;
+        private final Object[] values;
+        private final int mask;
+
+        NameIndex(int expected){
+            int capacity = Integer.highestOneBit(Math.max(4, expected * 2) - 1) << 1;
+            this.keys = new String[capacity];
+            this.values = new Object[capacity];
+            this.mask = capacity - 1;
+        }
+
+        void putIfAbsent(String key, T value){
+            int at = key.hashCode() & mask;
+            while (keys[at] != null) {
+                if (keys[at].equals(key)) {
+                    return;
+                }
+                at = (at + 1) & mask;
+            }
+            keys[at] = key;
+            values[at] = value;
+        }
+
+        @SuppressWarnings("unchecked")
+        T get(char[] text, int from, int to){
+            // the same hash as String.hashCode, so it lands where putIfAbsent put the key
+            int hash = 0;
+            for (int i = from; i < to; i++) {
+                hash = 31 * hash + text[i];
+            }
+            for (int at = hash & mask; keys[at] != null; at = (at + 1) & mask) {
+                String key = keys[at];
+                if (key.length() == to - from && matches(key, text, from)) {
+                    return (T) values[at];
+                }
+            }
+            return null;
+        }
+
+        private static boolean matches(String key, char[] text, int from){
+            for (int i = 0; i < key.length(); i++) {
+                if (key.charAt(i) != text[from + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}